@@ -0,0 +1,29 @@
+package bench;
+
+import org.openjdk.jmh.profile.GCProfiler;
+import org.openjdk.jmh.results.format.ResultFormatType;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.CommandLineOptionException;
+import org.openjdk.jmh.runner.options.CommandLineOptions;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+/**
+ * Lance les benchmarks avec le profileur GC (taux d'allocation) et écrit les résultats
+ * de chaque taille de réseau dans bench-results.csv pour tracer les courbes de passage à l'échelle.
+ * Les options de la ligne de commande de JMH restent utilisables, par exemple un filtre sur les noms.
+ */
+public class BenchRunner {
+
+    public static void main(String[] args) throws RunnerException, CommandLineOptionException {
+        CommandLineOptions commandLine = new CommandLineOptions(args);
+        OptionsBuilder options = new OptionsBuilder() ;
+        options.parent(commandLine);
+        options.addProfiler(GCProfiler.class);
+        if(!commandLine.getResult().hasValue())
+            options.result("bench-results.csv");
+        if(!commandLine.getResultFormat().hasValue())
+            options.resultFormat(ResultFormatType.CSV);
+        new Runner(options.build()).run();
+    }
+}
@@ -0,0 +1,72 @@
+package bench;
+
+import bench.network.BenchSystem;
+import bench.network.NetworkFactory;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import snl.ccss.jpowerflow.dc.DCSolver;
+import snl.ccss.jpowerflow.dc.RadialDCSolver;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Écoulement de puissance DC, avec la factorisation gardée entre deux résolutions
+ * (seules les injections changent, comme pendant une négociation) ou refaite à chaque fois
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class DCSolverBenchmark {
+
+    @Param({"10", "100", "1000", "10000", "50000"})
+    public int buses ;
+
+    @Param({NetworkFactory.RADIAL, NetworkFactory.MESHED})
+    public String topology ;
+
+    private BenchSystem system ;
+    private DCSolver solver ;
+    private RadialDCSolver radialSolver ;
+
+    @Setup(Level.Trial)
+    public void setUp(){
+        this.system = NetworkFactory.create(this.topology, this.buses, 42);
+        this.solver = new DCSolver() ;
+        this.radialSolver = new RadialDCSolver() ;
+    }
+
+    @Benchmark
+    public double[] solve(){
+        this.solver.solve(this.system);
+        return this.solver.getFlows().getFlows() ;
+    }
+
+    @Benchmark
+    public double[] solveWithFactorization(){
+        this.solver.invalidate();
+        this.solver.solve(this.system);
+        return this.solver.getFlows().getFlows() ;
+    }
+
+    /**
+     * Sur un réseau maillé, RadialDCSolver passe la main à DCSolver
+     */
+    @Benchmark
+    public double[] solveRadial(){
+        this.radialSolver.solve(this.system);
+        return this.radialSolver.getFlows().getFlows() ;
+    }
+}
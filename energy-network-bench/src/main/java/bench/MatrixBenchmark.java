@@ -0,0 +1,73 @@
+package bench;
+
+import bench.network.BenchBranch;
+import bench.network.BenchSystem;
+import bench.network.NetworkFactory;
+import flanagan.math.Matrix;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Résolution dense de la matrice B du réseau, bus slack fixé, avec Matrix.solveLinearSet
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class MatrixBenchmark {
+
+    @Param({"10", "100", "1000"})
+    public int buses ;
+
+    @Param({NetworkFactory.RADIAL, NetworkFactory.MESHED})
+    public String topology ;
+
+    private Matrix matrix ;
+    private double[] injections ;
+
+    @Setup(Level.Trial)
+    public void setUp(){
+        BenchSystem system = NetworkFactory.create(this.topology, this.buses, 42);
+        double[][] b = new double[this.buses][this.buses];
+        List branches = system.getEnergizedBranchList();
+        for (int i = 0; i < branches.size(); i++) {
+            BenchBranch branch = (BenchBranch)branches.get(i);
+            int from = branch.getFromBus() - 1 ;
+            int to = branch.getToBus() - 1 ;
+            b[from][to] -= branch.getBPrime() ;
+            b[to][from] -= branch.getBPrime() ;
+            b[from][from] += branch.getBPrime() ;
+            b[to][to] += branch.getBPrime() ;
+        }
+        for (int j = 0; j < this.buses; j++) { // slack
+            b[0][j] = 0 ;
+            b[j][0] = 0 ;
+        }
+        b[0][0] = 1 ;
+        this.matrix = new Matrix(b) ;
+        this.injections = new double[this.buses] ;
+        for (int i = 1; i < this.buses; i++) {
+            this.injections[i] = -1.0 / this.buses ;
+        }
+    }
+
+    @Benchmark
+    public double[] solveLinearSet(){
+        return this.matrix.solveLinearSet(this.injections) ;
+    }
+}
@@ -0,0 +1,76 @@
+package bench;
+
+import bench.network.NetworkFactory;
+import bench.network.ProsumerNetworkGenerator;
+import main.EnergyNegociation;
+import modele.Node;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import strategy.zeuten;
+
+import java.io.PrintStream;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Négociation complète, de la construction d'EnergyNegociation à la fin des concessions.
+ *
+ * Une négociation modifie les prosumers, le réseau est donc généré à nouveau avant chaque mesure,
+ * qui ne compte qu'une seule exécution. NegociationRun détaille le temps et les allocations de chaque phase.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 1)
+@Measurement(iterations = 3)
+@Fork(1)
+public class NegociationBenchmark {
+
+    @Param({"100", "1000", "10000", "100000"})
+    public int prosumers ;
+
+    @Param({NetworkFactory.RADIAL, NetworkFactory.MESHED})
+    public String topology ;
+
+    @Param({"1"})
+    public int parallelism ;
+
+    private ProsumerNetworkGenerator generator ;
+    private Node root ;
+    private PrintStream out ;
+
+    @Setup(Level.Trial)
+    public void setUp(){
+        this.generator = ProsumerNetworkGenerator.create(this.topology) ;
+        this.out = System.out ;
+        System.setOut(NegociationRun.discard());
+    }
+
+    @Setup(Level.Iteration)
+    public void generate(){
+        this.root = this.generator.generate(this.prosumers, 42) ;
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown(){
+        System.setOut(this.out);
+    }
+
+    @Benchmark
+    public int negociate(){
+        EnergyNegociation negociation = new EnergyNegociation(this.root, new zeuten(0.01, 100, 0.01));
+        negociation.setParallelism(this.parallelism);
+        negociation.initNegociation();
+        return negociation.getRounds() ;
+    }
+}
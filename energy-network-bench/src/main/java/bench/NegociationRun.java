@@ -0,0 +1,119 @@
+package bench;
+
+import bench.network.NetworkFactory;
+import bench.network.ProsumerNetworkGenerator;
+import main.EnergyNegociation;
+import modele.Node;
+import modele.PartnerIndex;
+import strategy.zeuten;
+
+import java.io.OutputStream;
+import java.io.PrintStream;
+import java.lang.management.ManagementFactory;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Négociation complète sur des réseaux générés, une ligne par phase et par taille :
+ * génération du réseau, chargement (construction d'EnergyNegociation) et négociation.
+ *
+ * Les allocations sont celles du thread principal, avec --parallelism les threads qui préparent les offres
+ * ne sont pas comptés, NegociationBenchmark avec le profileur GC donne alors le total.
+ * Les traces des négociations sont masquées pendant la mesure. --radius limite les partenaires
+ * de chaque prosumer à ceux qui sont à moins de r liens, voir PartnerIndex.
+ *
+ * java -cp target/benchmarks.jar bench.NegociationRun [--meshed] [--parallelism n] [--radius r] [--seed s] [prosumers...]
+ */
+public class NegociationRun {
+    private static final int[] SIZES = {100, 1000, 10000, 100000} ;
+
+    public static void main(String[] args) {
+        String topology = NetworkFactory.RADIAL ;
+        int parallelism = 1 ;
+        int radius = PartnerIndex.UNLIMITED ;
+        long seed = 42 ;
+        List<Integer> sizes = new ArrayList<Integer>() ;
+        for (int i = 0; i < args.length; i++) {
+            if("--meshed".equals(args[i]))
+                topology = NetworkFactory.MESHED ;
+            else if("--parallelism".equals(args[i]))
+                parallelism = Integer.parseInt(args[++i]);
+            else if("--radius".equals(args[i]))
+                radius = Integer.parseInt(args[++i]);
+            else if("--seed".equals(args[i]))
+                seed = Long.parseLong(args[++i]);
+            else
+                sizes.add(Integer.parseInt(args[i]));
+        }
+        if(sizes.isEmpty()) {
+            for (int size : SIZES) {
+                sizes.add(size);
+            }
+        }
+
+        PrintStream out = System.out ;
+        out.println("prosumers;topologie;phase;temps_ms;alloue_mo;etapes;resolutions;accords");
+        for (int size : sizes) {
+            System.setOut(discard());
+            try {
+                Phase phase = new Phase() ;
+                Node root = ProsumerNetworkGenerator.create(topology).generate(size, seed);
+                String generation = phase.end() ;
+                zeuten strategy = new zeuten(0.01, 100, 0.01) ;
+                EnergyNegociation negociation = new EnergyNegociation(root, strategy);
+                negociation.setParallelism(parallelism);
+                negociation.setPartnerRadius(radius);
+                String loading = phase.end() ;
+                negociation.initNegociation();
+                String negotiating = phase.end() ;
+                out.println(size+";"+topology+";generation;"+generation+";;;");
+                out.println(size+";"+topology+";chargement;"+loading+";;;");
+                out.println(size+";"+topology+";negociation;"+negotiating+";"+negociation.getRounds()+";"
+                        +strategy.getSolveCount()+";"+strategy.getAccords().size());
+            } finally {
+                System.setOut(out);
+            }
+        }
+    }
+
+    /**
+     * @return une sortie qui ignore tout, pour les traces des négociations
+     */
+    static PrintStream discard(){
+        return new PrintStream(new OutputStream() {
+            public void write(int b) {
+            }
+
+            public void write(byte[] b, int off, int len) {
+            }
+        });
+    }
+
+    /**
+     * Temps et allocations du thread courant depuis la fin de la phase précédente
+     */
+    private static class Phase {
+        private com.sun.management.ThreadMXBean threads ;
+        private long start ;
+        private long allocated ;
+
+        private Phase(){
+            this.threads = (com.sun.management.ThreadMXBean)ManagementFactory.getThreadMXBean() ;
+            this.start = System.nanoTime() ;
+            this.allocated = this.allocated() ;
+        }
+
+        private String end(){
+            long now = System.nanoTime() ;
+            long allocated = this.allocated() ;
+            String result = String.format("%.1f;%.1f", (now - this.start) / 1e6, (allocated - this.allocated) / 1048576.0) ;
+            this.start = now ;
+            this.allocated = allocated ;
+            return result ;
+        }
+
+        private long allocated(){
+            return this.threads.getThreadAllocatedBytes(Thread.currentThread().getId()) ;
+        }
+    }
+}
@@ -0,0 +1,78 @@
+package bench;
+
+import bench.network.BenchSystem;
+import bench.network.NetworkFactory;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import snl.ccss.jpowerflow.PFSolver;
+import snl.ccss.jpowerflow.ac.BackwardForwardSweepSolver;
+import snl.ccss.jpowerflow.ac.DecoupledNewton;
+import snl.ccss.jpowerflow.ac.FastDecoupledNewton;
+import snl.ccss.jpowerflow.ac.FullNewton;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Écoulement de puissance AC depuis une tension à plat.
+ *
+ * FullNewton range le jacobien en creux et le factorise par un LU creux, sans copie pleine dans Utilities.
+ * DecoupledNewton garde ses deux quadrants pleins résolus par décomposition LU : son temps croît plus vite
+ * que n² et dépasse déjà la dizaine de secondes à 1000 bus, les tailles s'arrêtent donc à 500 bus.
+ * FastDecoupledNewton factorise B' et B'' une seule fois et réutilise ces facteurs d'un solve à l'autre.
+ * BackwardForwardSweepSolver balaie l'arbre sur les réseaux radiaux et passe la main à FullNewton sur les réseaux maillés.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class NewtonBenchmark {
+
+    @Param({"10", "100", "500"})
+    public int buses ;
+
+    @Param({NetworkFactory.RADIAL, NetworkFactory.MESHED})
+    public String topology ;
+
+    @Param({"full", "decoupled", "fastdecoupled", "sweep"})
+    public String method ;
+
+    private BenchSystem system ;
+    private PFSolver solver ;
+
+    @Setup(Level.Trial)
+    public void setUp(){
+        this.system = NetworkFactory.create(this.topology, this.buses, 42);
+        if("full".equals(this.method)) {
+            FullNewton newton = new FullNewton(20, 1e-3, 1e-6, false) ;
+            newton.setExportJacobian(false);
+            this.solver = newton ;
+        } else if("fastdecoupled".equals(this.method)) {
+            FastDecoupledNewton fast = new FastDecoupledNewton(40, 1e-3, 1e-6, false, FastDecoupledNewton.XB) ;
+            fast.setExportJacobian(false);
+            this.solver = fast ;
+        } else if("sweep".equals(this.method)) {
+            BackwardForwardSweepSolver sweep = new BackwardForwardSweepSolver(40, 1e-6) ;
+            sweep.setFlatStart(true);
+            this.solver = sweep ;
+        } else
+            this.solver = new DecoupledNewton(40, 1e-3, 1e-6, false) ;
+    }
+
+    @Benchmark
+    public boolean solve(){
+        this.system.reset();
+        return this.solver.solve(this.system) ;
+    }
+}
@@ -0,0 +1,79 @@
+package bench;
+
+import bench.network.BenchSystem;
+import bench.network.NetworkFactory;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import snl.ccss.jpowerflow.ac.ACSolverSession;
+import snl.ccss.jpowerflow.ac.FullNewton;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Résolutions AC successives qui ne diffèrent que par une petite variation d'injection sur un bus,
+ * comme pendant une négociation.
+ *
+ * "cold" repart d'une tension à plat à chaque résolution, "session" garde le yBus, la factorisation
+ * symbolique et le dernier état convergé dans un ACSolverSession et repart de cet état.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class SessionBenchmark {
+
+    @Param({"100", "500", "2000"})
+    public int buses ;
+
+    @Param({NetworkFactory.RADIAL, NetworkFactory.MESHED})
+    public String topology ;
+
+    @Param({"cold", "session"})
+    public String method ;
+
+    private BenchSystem system ;
+    private FullNewton solver ;
+    private ACSolverSession session ;
+    private Random random ;
+    private double sign ;
+
+    @Setup(Level.Trial)
+    public void setUp(){
+        this.system = NetworkFactory.create(this.topology, this.buses, 42);
+        this.solver = new FullNewton(20, 1e-3, 1e-6, false) ;
+        this.solver.setExportJacobian(false);
+        this.session = new ACSolverSession(this.solver, this.system) ;
+        this.session.solve() ;
+        this.random = new Random(42) ;
+        this.sign = 1 ;
+    }
+
+    /**
+     * Le bus 1 est le bus de référence, la variation alterne de signe pour que les injections
+     * restent autour de leur valeur initiale.
+     */
+    @Benchmark
+    public boolean solve(){
+        this.sign = -this.sign ;
+        int bus = 2 + this.random.nextInt(this.buses - 1) ;
+        if("session".equals(this.method)) {
+            this.session.addInjection(bus, this.sign * 0.001, 0);
+            return this.session.solve() ;
+        }
+        this.system.reset();
+        return this.solver.solve(this.system) ;
+    }
+}
@@ -0,0 +1,50 @@
+package bench.network;
+
+import flanagan.complex.Complex;
+import snl.ccss.jpowerflow.ac.ACPFBranch;
+import snl.ccss.jpowerflow.dc.DCPFBranch;
+
+/**
+ * Ligne de test pour les solveurs AC et DC, sans admittance shunt
+ */
+public class BenchBranch implements ACPFBranch, DCPFBranch {
+    private int fromBus ;
+    private int toBus ;
+    private double resistance ;
+    private double reactance ;
+
+    /**
+     * @param fromBus
+     * @param toBus
+     * @param resistance en per unit
+     * @param reactance en per unit
+     */
+    public BenchBranch(int fromBus, int toBus, double resistance, double reactance){
+        this.fromBus = fromBus ;
+        this.toBus = toBus ;
+        this.resistance = resistance ;
+        this.reactance = reactance ;
+    }
+
+    public int getFromBus() {
+        return this.fromBus;
+    }
+
+    public int getToBus() {
+        return this.toBus;
+    }
+
+    public Complex[][] getYBus() {
+        Complex y = new Complex(this.resistance, this.reactance).inverse();
+        Complex[][] yBus = new Complex[2][2];
+        yBus[0][0] = y;
+        yBus[0][1] = y.negate();
+        yBus[1][0] = y.negate();
+        yBus[1][1] = new Complex(y);
+        return yBus;
+    }
+
+    public double getBPrime() {
+        return 1 / this.reactance;
+    }
+}
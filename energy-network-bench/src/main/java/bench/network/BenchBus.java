@@ -0,0 +1,98 @@
+package bench.network;
+
+import snl.ccss.jpowerflow.ac.ACPFBus;
+import snl.ccss.jpowerflow.dc.DCPFBus;
+
+/**
+ * Bus de test pour les solveurs AC et DC.
+ *
+ * Les solveurs AC écrivent les tensions et les puissances calculées dans les bus,
+ * reset remet la tension à plat et les injections programmées avant chaque résolution.
+ */
+public class BenchBus implements ACPFBus, DCPFBus {
+    private int number ;
+    private boolean slack ;
+    private double scheduledMw ;
+    private double scheduledMvar ;
+    private double voltage ;
+    private double angle ;
+    private double busMw ;
+    private double busMvar ;
+
+    /**
+     * @param number
+     * @param slack
+     * @param scheduledMw puissance active injectée en per unit, négative pour une charge
+     * @param scheduledMvar puissance réactive injectée en per unit
+     */
+    public BenchBus(int number, boolean slack, double scheduledMw, double scheduledMvar){
+        this.number = number ;
+        this.slack = slack ;
+        this.scheduledMw = scheduledMw ;
+        this.scheduledMvar = scheduledMvar ;
+        this.reset();
+    }
+
+    public void reset(){
+        this.voltage = 1 ;
+        this.angle = 0 ;
+        this.busMw = this.scheduledMw ;
+        this.busMvar = this.scheduledMvar ;
+    }
+
+    public int getNumber() {
+        return this.number;
+    }
+
+    public double getVoltage() {
+        return this.voltage;
+    }
+
+    public double getAngle() {
+        return this.angle;
+    }
+
+    public double getBusMw() {
+        return this.busMw;
+    }
+
+    public double getBusMvar() {
+        return this.busMvar;
+    }
+
+    public double getSusceptance() {
+        return 0;
+    }
+
+    public boolean isGenerationBus() {
+        return this.slack;
+    }
+
+    public boolean isSlackBus() {
+        return this.slack;
+    }
+
+    public boolean isAVR() {
+        return false;
+    }
+
+    public boolean checkGenMvarOutput(double busMvar, boolean adjust) {
+        return true;
+    }
+
+    public void setVoltage(double voltage) {
+        this.voltage = voltage;
+    }
+
+    public void setAngle(double angle) {
+        this.angle = angle;
+    }
+
+    public void setBusMw(double busMw) {
+        this.busMw = busMw;
+    }
+
+    public void setBusMvar(double busMvar) {
+        this.busMvar = busMvar;
+    }
+}
@@ -0,0 +1,44 @@
+package bench.network;
+
+import snl.ccss.jpowerflow.PFPowerSystem;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Réseau de test fait de BenchBus et de BenchBranch
+ */
+public class BenchSystem implements PFPowerSystem {
+    private ArrayList<BenchBus> buses ;
+    private ArrayList<BenchBranch> branches ;
+
+    public BenchSystem(){
+        this.buses = new ArrayList<BenchBus>() ;
+        this.branches = new ArrayList<BenchBranch>() ;
+    }
+
+    public void addBus(BenchBus bus){
+        this.buses.add(bus);
+    }
+
+    public void addBranch(BenchBranch branch){
+        this.branches.add(branch);
+    }
+
+    /**
+     * Remet tous les bus dans leur état initial
+     */
+    public void reset(){
+        for(BenchBus bus : this.buses){
+            bus.reset();
+        }
+    }
+
+    public List getBusList() {
+        return this.buses;
+    }
+
+    public List getEnergizedBranchList() {
+        return this.branches;
+    }
+}
@@ -0,0 +1,75 @@
+package bench.network;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+/**
+ * Réseaux synthétiques reproductibles pour les benchmarks.
+ *
+ * Le bus 1 est le slack, chaque autre bus est rattaché à un bus déjà créé tiré au hasard, ce qui donne
+ * un arbre de profondeur logarithmique. Un réseau maillé ajoute une ligne pour quatre bus entre
+ * des bus proches dans l'arbre : comme sur un vrai réseau les boucles restent locales, et la factorisation
+ * de la matrice B ne se remplit pas comme elle le ferait avec des lignes tirées entre deux bus quelconques. Les charges totalisent environ 1 per unit pour que les solveurs AC convergent
+ * quelle que soit la taille.
+ */
+public class NetworkFactory {
+    public static final String RADIAL = "radial" ;
+    public static final String MESHED = "meshed" ;
+
+    private static final double RESISTANCE = 0.01 ;
+    private static final double REACTANCE = 0.1 ;
+
+    /**
+     * @param topology RADIAL ou MESHED
+     * @param size nombre de bus
+     * @param seed
+     * @return
+     */
+    public static BenchSystem create(String topology, int size, long seed){
+        if(RADIAL.equals(topology))
+            return radial(size, seed);
+        if(MESHED.equals(topology))
+            return meshed(size, seed);
+        throw new IllegalArgumentException("Topologie inconnue : "+topology);
+    }
+
+    public static BenchSystem radial(int size, long seed){
+        return build(size, 0, new Random(seed));
+    }
+
+    public static BenchSystem meshed(int size, long seed){
+        return build(size, size / 4, new Random(seed));
+    }
+
+    private static BenchSystem build(int size, int chords, Random random){
+        BenchSystem system = new BenchSystem() ;
+        int[] parent = new int[size] ;
+        List<List<Integer>> children = new ArrayList<List<Integer>>(size) ;
+        system.addBus(new BenchBus(1, true, 0, 0));
+        children.add(new ArrayList<Integer>());
+        for (int i = 1; i < size; i++) {
+            double load = (0.5 + random.nextDouble()) / size ;
+            parent[i] = random.nextInt(i) ;
+            children.add(new ArrayList<Integer>());
+            children.get(parent[i]).add(i);
+            system.addBus(new BenchBus(i + 1, false, -load, -0.3 * load));
+            system.addBranch(new BenchBranch(i + 1, parent[i] + 1, RESISTANCE, REACTANCE));
+        }
+        for (int c = 0; c < chords && size > 2; c++) {
+            // boucle locale : un bus et un autre petit-enfant de son grand-parent, ou le grand-parent lui-même
+            int from = 1 + random.nextInt(size - 1) ;
+            if(parent[from] == 0)
+                continue ;
+            int ancestor = parent[parent[from]] ;
+            List<Integer> uncles = children.get(ancestor) ;
+            int to = ancestor ;
+            List<Integer> cousins = children.get(uncles.get(random.nextInt(uncles.size()))) ;
+            if(!cousins.isEmpty())
+                to = cousins.get(random.nextInt(cousins.size())) ;
+            if(to != from)
+                system.addBranch(new BenchBranch(from + 1, to + 1, RESISTANCE, REACTANCE));
+        }
+        return system ;
+    }
+}
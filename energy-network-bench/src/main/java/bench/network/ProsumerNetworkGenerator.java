@@ -0,0 +1,190 @@
+package bench.network;
+
+import modele.Link;
+import modele.Node;
+import modele.Prosumer;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Random;
+
+/**
+ * Réseaux de prosumers reproductibles, du même genre que les fichiers arbre*.xml mais de n'importe quelle taille.
+ *
+ * Les prosumers sont les feuilles d'un arbre de noeuds : ils sont mélangés puis regroupés par fanOut sous un noeud,
+ * et ainsi de suite jusqu'à la racine. La capacité d'un lien est proportionnelle au nombre de prosumers en aval.
+ * Un réseau maillé ajoute des lignes entre deux enfants d'un même noeud, les boucles restent donc locales.
+ * Les besoins et les productions sont tirés uniformément et arrondis au dixième comme dans les fichiers xml,
+ * le même germe donne toujours le même réseau.
+ */
+public class ProsumerNetworkGenerator {
+    private int depth ;
+    private int fanOut ;
+    private double meshRatio ;
+    private int capacity ;
+    private int jouleMin ;
+    private int jouleMax ;
+    private double needMin ;
+    private double needMax ;
+    private double generatedMin ;
+    private double generatedMax ;
+
+    public ProsumerNetworkGenerator(){
+        this.depth = 0 ;
+        this.fanOut = 4 ;
+        this.meshRatio = 0 ;
+        this.capacity = 10 ;
+        this.jouleMin = 1 ;
+        this.jouleMax = 1 ;
+        this.needMin = 2 ;
+        this.needMax = 16 ;
+        this.generatedMin = 2 ;
+        this.generatedMax = 16 ;
+    }
+
+    /**
+     * @param topology NetworkFactory.RADIAL ou NetworkFactory.MESHED, avec une ligne de plus pour quatre liens
+     * @return
+     */
+    public static ProsumerNetworkGenerator create(String topology){
+        ProsumerNetworkGenerator generator = new ProsumerNetworkGenerator() ;
+        if(NetworkFactory.MESHED.equals(topology))
+            generator.setMeshRatio(0.25);
+        else if(!NetworkFactory.RADIAL.equals(topology))
+            throw new IllegalArgumentException("Topologie inconnue : "+topology);
+        return generator ;
+    }
+
+    /**
+     * @param prosumers nombre de prosumers
+     * @param seed
+     * @return la racine, à donner à EnergyNegociation
+     */
+    public Node generate(int prosumers, long seed){
+        if(prosumers < 1)
+            throw new IllegalArgumentException("Il faut au moins un prosumer");
+        Random random = new Random(seed) ;
+        int id = 1 ;
+        List<Node> level = new ArrayList<Node>(prosumers) ;
+        for (int i = 0; i < prosumers; i++) {
+            Prosumer prosumer = new Prosumer() ;
+            prosumer.setId(id++);
+            prosumer.setEnergyNeed(this.draw(random, this.needMin, this.needMax));
+            prosumer.setEnergyGenerated(this.draw(random, this.generatedMin, this.generatedMax));
+            level.add(prosumer);
+        }
+        List<Integer> downstream = new ArrayList<Integer>(Collections.nCopies(prosumers, 1)) ;
+
+        int group = this.depth > 0 ? Math.max(2, (int)Math.ceil(Math.pow(prosumers, 1.0 / this.depth))) : this.fanOut ;
+        List<Link> siblings = new ArrayList<Link>() ; // liens vers les enfants d'un même noeud, pour les lignes du maillage
+        List<Integer> families = new ArrayList<Integer>() ; // début de chaque fratrie dans siblings
+        do {
+            List<Integer> order = new ArrayList<Integer>(level.size()) ;
+            for (int i = 0; i < level.size(); i++) {
+                order.add(i);
+            }
+            Collections.shuffle(order, random);
+            List<Node> parents = new ArrayList<Node>() ;
+            List<Integer> parentsDownstream = new ArrayList<Integer>() ;
+            for (int start = 0; start < order.size(); start += group) {
+                Node parent = new Node() ;
+                parent.setId(id++);
+                families.add(siblings.size());
+                int count = 0 ;
+                for (int k = start; k < Math.min(start + group, order.size()); k++) {
+                    int child = order.get(k) ;
+                    siblings.add(this.connect(level.get(child), parent, downstream.get(child), random));
+                    count += downstream.get(child) ;
+                }
+                parents.add(parent);
+                parentsDownstream.add(count);
+            }
+            level = parents ;
+            downstream = parentsDownstream ;
+        } while (level.size() > 1);
+
+        families.add(siblings.size());
+        int chords = (int)Math.round(this.meshRatio * siblings.size()) ;
+        HashSet<Long> pairs = new HashSet<Long>() ;
+        for (int attempt = 0; chords > 0 && attempt < 10 * chords; attempt++) {
+            int family = random.nextInt(families.size() - 1) ;
+            int first = families.get(family) ;
+            int size = families.get(family + 1) - first ;
+            if(size < 2)
+                continue ;
+            Link a = siblings.get(first + random.nextInt(size)) ;
+            Link b = siblings.get(first + random.nextInt(size)) ;
+            long key = ((long)Math.min(a.getFromBus(), b.getFromBus()) << 32) | Math.max(a.getFromBus(), b.getFromBus()) ;
+            if(a == b || !pairs.add(key))
+                continue ;
+            this.connect(a.getFirstNode(), b.getFirstNode(), Math.min(a.getCapacity(), b.getCapacity()) / Math.max(1, this.capacity), random);
+            chords-- ;
+        }
+        return level.get(0) ;
+    }
+
+    /**
+     * Lien de child vers parent, enregistré des deux cotés comme le fait la lecture d'un fichier xml
+     */
+    private Link connect(Node child, Node parent, int downstream, Random random){
+        Link link = new Link() ;
+        link.setJoule(this.jouleMin + random.nextInt(this.jouleMax - this.jouleMin + 1));
+        link.setCapacity(Math.max(1, this.capacity * downstream));
+        link.setCongestion(0);
+        link.setFirstNode(child);
+        link.setSecondNode(parent);
+        parent.addLink(link);
+        return link ;
+    }
+
+    private double draw(Random random, double min, double max){
+        return Math.round(10 * (min + random.nextDouble() * (max - min))) / 10.0 ;
+    }
+
+    /**
+     * @param depth nombre de niveaux de noeuds au dessus des prosumers, 0 pour le déduire de fanOut
+     */
+    public void setDepth(int depth) {
+        this.depth = depth;
+    }
+
+    /**
+     * @param fanOut nombre d'enfants de chaque noeud, utilisé si depth vaut 0
+     */
+    public void setFanOut(int fanOut) {
+        if(fanOut < 2)
+            throw new IllegalArgumentException("Un noeud doit avoir au moins deux enfants");
+        this.fanOut = fanOut;
+    }
+
+    /**
+     * @param meshRatio nombre de lignes ajoutées par lien de l'arbre
+     */
+    public void setMeshRatio(double meshRatio) {
+        this.meshRatio = meshRatio;
+    }
+
+    /**
+     * @param capacity capacité d'un lien par prosumer en aval
+     */
+    public void setCapacity(int capacity) {
+        this.capacity = capacity;
+    }
+
+    public void setJoule(int jouleMin, int jouleMax) {
+        this.jouleMin = jouleMin;
+        this.jouleMax = jouleMax;
+    }
+
+    public void setEnergyNeed(double needMin, double needMax) {
+        this.needMin = needMin;
+        this.needMax = needMax;
+    }
+
+    public void setEnergyGenerated(double generatedMin, double generatedMax) {
+        this.generatedMin = generatedMin;
+        this.generatedMax = generatedMax;
+    }
+}
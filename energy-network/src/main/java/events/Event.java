@@ -0,0 +1,53 @@
+package events;
+
+/**
+ * Evénement relu dans un fichier écrit par EventLog
+ */
+public class Event {
+    private long time ;
+    private EventType type ;
+    private int first ;
+    private int second ;
+    private double firstValue ;
+    private double secondValue ;
+
+    public Event(long time, EventType type, int first, int second, double firstValue, double secondValue){
+        this.time = time ;
+        this.type = type ;
+        this.first = first ;
+        this.second = second ;
+        this.firstValue = firstValue ;
+        this.secondValue = secondValue ;
+    }
+
+    /**
+     * @return System.nanoTime() au moment de l'événement
+     */
+    public long getTime() {
+        return time;
+    }
+
+    public EventType getType() {
+        return type;
+    }
+
+    public int getFirst() {
+        return first;
+    }
+
+    public int getSecond() {
+        return second;
+    }
+
+    public double getFirstValue() {
+        return firstValue;
+    }
+
+    public double getSecondValue() {
+        return secondValue;
+    }
+
+    public String toString(){
+        return this.time+" "+this.type+" "+this.first+" "+this.second+" "+this.firstValue+" "+this.secondValue ;
+    }
+}
@@ -0,0 +1,240 @@
+package events;
+
+import metrics.Counter;
+import metrics.MetricsRegistry;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Trace structurée des négociations, à la place des println.
+ *
+ * Un événement n'est que deux identifiants et deux valeurs : tant que le journal est fermé, emit s'arrête
+ * sur la comparaison des niveaux, sans rien construire. Ouvert, emit copie l'événement dans un tampon
+ * circulaire préalloué et un thread l'écrit dans un fichier binaire, les négociations n'attendent donc
+ * jamais le disque. Si le thread d'écriture prend trop de retard, les événements sont perdus plutôt
+ * que d'attendre, et comptés dans events.dropped.
+ *
+ * Le fichier commence par MAGIC et VERSION puis contient des enregistrements de RECORD_SIZE octets :
+ * temps (long), type (int), deux identifiants (int), deux valeurs (double). EventReader le relit.
+ */
+public class EventLog {
+    public static final int OFF = 0 ;
+    public static final int INFO = 1 ;
+    public static final int DEBUG = 2 ;
+
+    static final int MAGIC = 0x454e4556 ;
+    static final int VERSION = 1 ;
+    static final int RECORD_SIZE = 36 ;
+
+    private static final EventLog DEFAULT = new EventLog() ;
+    private static final Counter DROPPED = MetricsRegistry.getDefault().counter("events.dropped") ;
+
+    private int level ;
+    private Ring ring ;
+    private Writer writer ;
+
+    public EventLog(){
+        this.level = OFF ;
+    }
+
+    /**
+     * @return journal utilisé par la négociation
+     */
+    public static EventLog getDefault(){
+        return DEFAULT ;
+    }
+
+    /**
+     * @param file
+     * @param level INFO ou DEBUG
+     * @throws IOException
+     * @see #open(File, int, int)
+     */
+    public void open(File file, int level) throws IOException {
+        this.open(file, level, 1 << 16);
+    }
+
+    /**
+     * Commence à écrire les événements de niveau inférieur ou égal à level.
+     * A appeler avant la négociation, le niveau n'est pas synchronisé avec les threads qui la préparent.
+     * @param file
+     * @param level INFO ou DEBUG
+     * @param capacity nombre d'événements en attente d'écriture, arrondi à une puissance de deux
+     * @throws IOException
+     */
+    public synchronized void open(File file, int level, int capacity) throws IOException {
+        this.close();
+        FileChannel channel = new FileOutputStream(file).getChannel() ;
+        ByteBuffer header = ByteBuffer.allocate(8) ;
+        header.putInt(MAGIC).putInt(VERSION).flip();
+        channel.write(header);
+        this.ring = new Ring(Integer.highestOneBit(Math.max(2, capacity - 1)) << 1) ;
+        this.writer = new Writer(this.ring, channel) ;
+        this.writer.start();
+        this.level = level ;
+    }
+
+    /**
+     * Arrête l'enregistrement, écrit les événements en attente et ferme le fichier
+     */
+    public synchronized void close(){
+        this.level = OFF ;
+        if(this.writer == null)
+            return ;
+        this.writer.finish();
+        this.writer = null ;
+    }
+
+    public boolean isEnabled(int level){
+        return level <= this.level ;
+    }
+
+    /**
+     * @param type
+     * @param first premier identifiant, voir EventType
+     * @param second second identifiant
+     * @param firstValue
+     * @param secondValue
+     */
+    public void emit(EventType type, int first, int second, double firstValue, double secondValue){
+        if(type.getLevel() > this.level)
+            return ;
+        Ring ring = this.ring ;
+        if(ring != null && !ring.publish(type, first, second, firstValue, secondValue))
+            DROPPED.increment();
+    }
+
+    /**
+     * Tampon circulaire à plusieurs producteurs et un consommateur : un producteur réserve une place
+     * en avançant claimed, la remplit puis la publie en y notant son numéro
+     */
+    private static class Ring {
+        private final int capacity ;
+        private final int mask ;
+        private final long[] times ;
+        private final int[] types ;
+        private final int[] firsts ;
+        private final int[] seconds ;
+        private final double[] firstValues ;
+        private final double[] secondValues ;
+        private final AtomicLongArray published ;
+        private final AtomicLong claimed ;
+        private volatile long consumed ;
+
+        private Ring(int capacity){
+            this.capacity = capacity ;
+            this.mask = capacity - 1 ;
+            this.times = new long[capacity] ;
+            this.types = new int[capacity] ;
+            this.firsts = new int[capacity] ;
+            this.seconds = new int[capacity] ;
+            this.firstValues = new double[capacity] ;
+            this.secondValues = new double[capacity] ;
+            this.published = new AtomicLongArray(capacity) ;
+            this.claimed = new AtomicLong() ;
+        }
+
+        private boolean publish(EventType type, int first, int second, double firstValue, double secondValue){
+            long sequence ;
+            do {
+                sequence = this.claimed.get() ;
+                if(sequence - this.consumed >= this.capacity)
+                    return false ; // plein
+            } while (!this.claimed.compareAndSet(sequence, sequence + 1));
+            int slot = (int)(sequence & this.mask) ;
+            this.times[slot] = System.nanoTime() ;
+            this.types[slot] = type.ordinal() ;
+            this.firsts[slot] = first ;
+            this.seconds[slot] = second ;
+            this.firstValues[slot] = firstValue ;
+            this.secondValues[slot] = secondValue ;
+            this.published.lazySet(slot, sequence + 1);
+            return true ;
+        }
+
+        /**
+         * Copie dans buffer les événements publiés, dans l'ordre, tant qu'il y a de la place
+         * @param buffer
+         * @return nombre d'événements copiés
+         */
+        private int drain(ByteBuffer buffer){
+            long next = this.consumed ;
+            int count = 0 ;
+            while(buffer.remaining() >= RECORD_SIZE){
+                int slot = (int)(next & this.mask) ;
+                if(this.published.get(slot) != next + 1)
+                    break ;
+                buffer.putLong(this.times[slot]).putInt(this.types[slot]).putInt(this.firsts[slot]).putInt(this.seconds[slot])
+                        .putDouble(this.firstValues[slot]).putDouble(this.secondValues[slot]);
+                next++ ;
+                count++ ;
+            }
+            this.consumed = next ;
+            return count ;
+        }
+    }
+
+    /**
+     * Thread qui vide le tampon dans le fichier
+     */
+    private static class Writer extends Thread {
+        private Ring ring ;
+        private FileChannel channel ;
+        private ByteBuffer buffer ;
+        private volatile boolean running ;
+
+        private Writer(Ring ring, FileChannel channel){
+            super("event-log-writer");
+            this.setDaemon(true);
+            this.ring = ring ;
+            this.channel = channel ;
+            this.buffer = ByteBuffer.allocateDirect(1024 * RECORD_SIZE) ;
+            this.running = true ;
+        }
+
+        public void run(){
+            try {
+                while(this.running){
+                    if(this.flush() == 0)
+                        LockSupport.parkNanos(1000000);
+                }
+                while(this.flush() > 0) ;
+            } catch (IOException e) {
+                e.printStackTrace();
+            } finally {
+                try {
+                    this.channel.close();
+                } catch (IOException e) {
+                    e.printStackTrace();
+                }
+            }
+        }
+
+        private int flush() throws IOException {
+            int count = this.ring.drain(this.buffer) ;
+            this.buffer.flip();
+            while(this.buffer.hasRemaining()){
+                this.channel.write(this.buffer);
+            }
+            this.buffer.clear();
+            return count ;
+        }
+
+        private void finish(){
+            this.running = false ;
+            LockSupport.unpark(this);
+            try {
+                this.join();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+    }
+}
@@ -0,0 +1,47 @@
+package events;
+
+import java.io.BufferedInputStream;
+import java.io.DataInputStream;
+import java.io.EOFException;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Relecture des fichiers écrits par EventLog.
+ *
+ * java -cp energy-network.jar events.EventReader events.bin affiche un événement par ligne
+ */
+public class EventReader {
+
+    public static List<Event> read(File file) throws IOException {
+        ArrayList<Event> events = new ArrayList<Event>() ;
+        DataInputStream input = new DataInputStream(new BufferedInputStream(new FileInputStream(file))) ;
+        try {
+            if(input.readInt() != EventLog.MAGIC || input.readInt() != EventLog.VERSION)
+                throw new IOException(file+" n'est pas un journal d'événements");
+            EventType[] types = EventType.values() ;
+            while(true){
+                long time ;
+                try {
+                    time = input.readLong() ;
+                } catch (EOFException e) {
+                    break ;
+                }
+                EventType type = types[input.readInt()] ;
+                events.add(new Event(time, type, input.readInt(), input.readInt(), input.readDouble(), input.readDouble()));
+            }
+        } finally {
+            input.close();
+        }
+        return events ;
+    }
+
+    public static void main(String[] args) throws IOException {
+        for(Event event : read(new File(args[0]))){
+            System.out.println(event);
+        }
+    }
+}
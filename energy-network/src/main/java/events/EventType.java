@@ -0,0 +1,42 @@
+package events;
+
+/**
+ * Evénements d'une négociation, avec le niveau à partir duquel ils sont enregistrés
+ * et le sens des deux identifiants et des deux valeurs de chaque enregistrement
+ */
+public enum EventType {
+    /** proposant, destinataire, quantité, tarif */
+    OFFER_MADE(EventLog.DEBUG),
+    /** proposant, destinataire, quantité demandée, tarif : le vendeur ne peut rien envoyer */
+    OFFER_REJECTED(EventLog.INFO),
+    /** prosumer, partenaire, nouvelle quantité, nouveau tarif */
+    CONCESSION(EventLog.DEBUG),
+    /** acheteur, vendeur, indice de Zeuthen de l'acheteur, indice du vendeur */
+    ZEUTHEN_INDEX(EventLog.DEBUG),
+    /** acheteur, vendeur, quantité, tarif */
+    DEAL_ACCEPTED(EventLog.INFO),
+    /** acheteur, vendeur */
+    PARTNERSHIP_STOPPED(EventLog.INFO),
+    /** prosumer */
+    NEGOCIATION_STOPPED(EventLog.INFO),
+    /** prosumer qui a conclu l'accord faisant redémarrer les négociations */
+    NEGOCIATION_RESTARTED(EventLog.INFO),
+    /** prosumer, partenaire, tarif, 0 : concession hors des bornes de tarif */
+    TARIF_OUT_OF_RANGE(EventLog.INFO),
+    /** étape, prosumers qui négocient encore */
+    ROUND_END(EventLog.INFO),
+    /** premier noeud, second noeud : lien de capacité nulle, erreur dans le fichier du réseau */
+    ZERO_CAPACITY_LINK(EventLog.INFO),
+    /** prosumer, partenaires possibles, énergie à répartir : aucune répartition de la concession possible */
+    ALLOCATION_FAILED(EventLog.INFO);
+
+    private int level ;
+
+    EventType(int level){
+        this.level = level ;
+    }
+
+    public int getLevel() {
+        return level;
+    }
+}
@@ -1,5 +1,7 @@
 package main;
 
+import events.EventLog;
+import metrics.MetricsRegistry;
 import strategy.negociationStrategy;
 import strategy.zeuten;
 
@@ -11,14 +13,22 @@ import java.io.InputStreamReader;
 
 public class App 
 {
-    public static void main( String[] args ) throws InterruptedException {
+    public static void main( String[] args ) throws InterruptedException, IOException {
         int numberProsumer = 21 ;
         File describe = new File("src/main/resources/arbre"+numberProsumer+".xml") ;
+        String network = System.getProperty("network") ; // -Dnetwork=fichier.net pour partir d'une copie binaire, voir NetworkSnapshot
+        if(network != null)
+            describe = new File(network) ;
         File result = new File("src/main/results/result-arbre"+numberProsumer+".dot") ;
         negociationStrategy strategy = new zeuten(0.01, 100, 0.01) ;
         EnergyNegociation energyNegociation=new EnergyNegociation(describe, strategy);
+        String events = System.getProperty("events") ; // -Devents=fichier pour garder la trace des négociations
+        if(events != null)
+            EventLog.getDefault().open(new File(events), EventLog.DEBUG);
         energyNegociation.initNegociation();
+        EventLog.getDefault().close();
         energyNegociation.printResult();
         energyNegociation.checkResult(result);
+        MetricsRegistry.getDefault().snapshot().write(new File("src/main/results/metrics-arbre"+numberProsumer+".csv"));
     }
 }
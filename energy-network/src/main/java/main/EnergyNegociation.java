@@ -1,48 +1,84 @@
 package main;
 
+import events.EventLog;
+import events.EventType;
+import metrics.Counter;
+import metrics.MetricsRegistry;
+import metrics.Timer;
 import modele.*;
 import snl.ccss.jpowerflow.dc.DCSolver;
 import strategy.negociationStrategy;
 import vue.Graph;
 
-import javax.xml.bind.JAXBContext;
-import javax.xml.bind.JAXBException;
-import javax.xml.bind.Unmarshaller;
+import javax.xml.stream.XMLStreamException;
 import java.io.File;
+import java.io.IOException;
 import java.util.ArrayList;
-import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
 
 public class EnergyNegociation {
+    private static final Timer ESTIMATE_TIMER = MetricsRegistry.getDefault().timer("negociation.estimate") ;
+    private static final Timer PARTNERS_TIMER = MetricsRegistry.getDefault().timer("negociation.partners") ;
+    private static final Timer FIRST_PROPOSALS_TIMER = MetricsRegistry.getDefault().timer("negociation.firstProposals") ;
+    private static final Timer CONCESSIONS_TIMER = MetricsRegistry.getDefault().timer("negociation.concessions") ;
+    private static final Timer END_TIMER = MetricsRegistry.getDefault().timer("negociation.end") ;
+    private static final EventLog EVENTS = EventLog.getDefault() ;
+    private static final Counter ROUNDS = MetricsRegistry.getDefault().counter("negociation.rounds") ;
 
     private PowerSystem powerSystem ;
     private List<Link> links ; // all the links
     private List<Node> bus ; // all the nodes
     private ArrayList<Prosumer> prosumers ;
     private ArrayList<Prosumer> initProsumers ;
-    private HashMap<Link, Double> hm ;
     private negociationStrategy strategy ;
+    private int parallelism ;
+    private int partnerRadius ;
+    private PartnerIndex partnerIndex ;
+    private ExecutorService executor ;
+    private int rounds ;
 
 
+    /**
+     * @param init réseau au format xml, ou copie binaire écrite par NetworkSnapshot si son nom finit par .net
+     * @param strategy
+     */
     public EnergyNegociation(File init, negociationStrategy strategy){
+        this(load(init), strategy) ;
+    }
+
+    /**
+     * Négociation sur un réseau déjà construit, par exemple généré plutôt que lu dans un fichier xml
+     * @param root noeud auquel le slack est rattaché
+     * @param strategy
+     */
+    public EnergyNegociation(Node root, negociationStrategy strategy){
+        this(NetworkLoader.collect(root), strategy) ;
+    }
+
+    /**
+     * @param powerSystem réseau dont le premier bus est celui auquel le slack est rattaché
+     * @param strategy
+     */
+    private EnergyNegociation(PowerSystem powerSystem, negociationStrategy strategy){
         this.strategy = strategy ;
+        this.parallelism = 1 ;
+        this.partnerRadius = PartnerIndex.UNLIMITED ;
+        this.powerSystem = powerSystem ;
+        this.links=this.powerSystem.getEnergizedBranchList();
+        this.bus=this.powerSystem.getBusList() ;
         this.prosumers =new ArrayList<Prosumer>();
-        Node root = new Node();
-        try {
-            JAXBContext jc = JAXBContext.newInstance(Node.class);
-            Unmarshaller unmarshaller = jc.createUnmarshaller();
-            root = (Node) unmarshaller.unmarshal(init);
-        }catch (JAXBException e) {
-            e.printStackTrace();
-            System.exit(0);
+        for(Node node : this.bus){
+            if(node instanceof Prosumer)
+                this.prosumers.add((Prosumer)node);
         }
-        this.powerSystem = new PowerSystem() ;
-        this.createLists(root);
         strategy.setPowerSystem(this.powerSystem);
-        this.links=this.powerSystem.getEnergizedBranchList();
-        this.bus=this.powerSystem.getBusList() ;
-        Slack s = new Slack(root, this.links , this.bus) ; // On met le slack pour que powerflow fonctionne bien
+        Slack s = new Slack(this.bus.get(0), this.powerSystem) ; // On met le slack pour que powerflow fonctionne bien
 
         for( Prosumer prosumer : this.prosumers){
             prosumer.setStrategy(strategy);
@@ -51,37 +87,65 @@ public class EnergyNegociation {
 
     }
 
-    private void createLists(Node node){
-        if(node instanceof Prosumer)
-            this.prosumers.add((Prosumer)node);
-        this.powerSystem.addBus(node);
-        node.adjustLinksSecondNode(); // On ajoute les nodes parents de chaque lien, le fichier xml est hiérarchisé mais on veut pas qu'il le soit
-        for(Link l : node.getLinks()){
-            if(! this.powerSystem.getEnergizedBranchList().contains(l)) {
-                this.powerSystem.addLink(l);
-                this.createLists(l.getFirstNode());
-            }
+    private static PowerSystem load(File init){
+        try {
+            if(NetworkSnapshot.isSnapshot(init))
+                return NetworkSnapshot.load(init);
+            return NetworkLoader.load(init);
+        }catch (IOException e) {
+            e.printStackTrace();
+        }catch (XMLStreamException e) {
+            e.printStackTrace();
         }
+        System.exit(0);
+        return null ;
+    }
+
+    /**
+     * Nombre de threads qui préparent en parallèle les offres et les concessions de chaque étape.
+     * Les prosumers les font ensuite un par un dans le même ordre, les accords sont donc les mêmes qu'avec un seul thread
+     * @param parallelism
+     */
+    public void setParallelism(int parallelism){
+        this.parallelism = parallelism ;
+    }
+
+    /**
+     * Limite les partenaires d'un prosumer à ceux qui sont à moins de radius liens de lui
+     * @param radius nombre de liens, PartnerIndex.UNLIMITED par défaut
+     */
+    public void setPartnerRadius(int radius){
+        this.partnerRadius = radius ;
     }
 
     public void initNegociation(){
         strategy.setProsumers(this.prosumers); // On lui donne l'ensemble des prosumers.
+        if(this.parallelism > 1)
+            this.executor = Executors.newFixedThreadPool(this.parallelism);
 
         // ON détermine si le prosumer est un vendeur ou acheteur
+        long start = ESTIMATE_TIMER.start() ;
         for (Prosumer prosumer : this.prosumers) {
             prosumer.estimateState();
         }
+        ESTIMATE_TIMER.stop(start);
 
         //Recherche des partenaires de négociation
+        start = PARTNERS_TIMER.start() ;
+        this.partnerIndex = new PartnerIndex(this.partnerRadius) ;
         for ( Prosumer prosumer : this.prosumers){
-            prosumer.lookForPartners(this.prosumers);
+            this.partnerIndex.add(prosumer);
         }
+        this.partnerIndex.lookForPartners();
+        PARTNERS_TIMER.stop(start);
 
         //Envoi des premières offrs
+        start = FIRST_PROPOSALS_TIMER.start() ;
+        this.prepare(true);
         for ( Prosumer prosumer : this.prosumers){
             prosumer.sendFirstProposals();
         }
-        System.out.println("Fin d'envoi des premières offres\n");
+        FIRST_PROPOSALS_TIMER.stop(start);
         int i=0 ;
         ArrayList<Prosumer> prosumerFinished = new ArrayList<Prosumer>();
         boolean noEnd=false ;
@@ -89,33 +153,85 @@ public class EnergyNegociation {
             for(Prosumer prosumer : this.prosumers){ // ON récupéère tous les prosumers qui ont terminé de négocier
                 if( prosumer.isTerminate() ){
                     prosumerFinished.add(prosumer);
+                    this.partnerIndex.remove(prosumer);
                 }
             }
             this.prosumers.removeAll(prosumerFinished); // On enlève des prosumers négociants tous ceux qui ont terminé
             if(noEnd) {
                 //Recherche des partenaires de négociation
-                for ( Prosumer prosumer : this.prosumers){
-                    prosumer.lookForPartners(this.prosumers);
-                }
-                System.out.println("send the first proposals");
+                start = PARTNERS_TIMER.start() ;
+                this.partnerIndex.lookForPartners();
+                PARTNERS_TIMER.stop(start);
                 //Envoi des premières offrs
+                start = FIRST_PROPOSALS_TIMER.start() ;
+                this.prepare(true);
                 for (Prosumer prosumer : this.prosumers) {
                     prosumer.sendFirstProposals();
                 }
+                FIRST_PROPOSALS_TIMER.stop(start);
                 noEnd=false ;
             }
-            System.out.println("concession the partners");
+            start = CONCESSIONS_TIMER.start() ;
+            this.prepare(false);
             for(Prosumer prosumer : this.prosumers) {
                 noEnd = prosumer.ChoosePartnersConcession(); // Si les négociations ont redémarré, on veut renvoyer les propositions initiales
                 if (noEnd) {
                     break;
                 }
             }
+            CONCESSIONS_TIMER.stop(start);
+            ROUNDS.increment();
+            EVENTS.emit(EventType.ROUND_END, i, this.prosumers.size(), 0, 0);
             i++ ;
-            System.out.println("Fin d'une étape de concession--------------------------------------- \n");
         }
         System.out.println("fin du programme : "+i);
+        this.rounds = i ;
+        if(this.executor != null) {
+            this.executor.shutdown();
+            this.executor = null ;
+        }
+        start = END_TIMER.start() ;
         strategy.afterEnd();
+        END_TIMER.stop(start);
+    }
+
+    /**
+     * En mode parallèle, chaque prosumer prépare ses premières offres ou ses concessions sur l'état actuel du réseau
+     * @param firstProposals
+     */
+    private void prepare(final boolean firstProposals){
+        if(this.executor == null)
+            return ;
+        ArrayList<Callable<Void>> tasks = new ArrayList<Callable<Void>>();
+        for(final Prosumer prosumer : this.prosumers){
+            if(!firstProposals && prosumer.isTerminate())
+                continue ;
+            tasks.add(new Callable<Void>() {
+                public Void call() {
+                    if(firstProposals)
+                        strategy.prepareFirstProposals(prosumer);
+                    else
+                        strategy.prepareConcessions(prosumer);
+                    return null;
+                }
+            });
+        }
+        try {
+            for(Future<Void> task : this.executor.invokeAll(tasks)){
+                task.get();
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } catch (ExecutionException e) {
+            throw new RuntimeException(e.getCause());
+        }
+    }
+
+    /**
+     * @return nombre d'étapes de concession de la dernière négociation
+     */
+    public int getRounds(){
+        return this.rounds ;
     }
 
     /**
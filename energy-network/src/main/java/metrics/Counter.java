@@ -0,0 +1,36 @@
+package metrics;
+
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Compteur partagé entre les threads, l'incrément ne se dispute pas de verrou
+ */
+public class Counter {
+    private String name ;
+    private LongAdder value ;
+
+    Counter(String name){
+        this.name = name ;
+        this.value = new LongAdder() ;
+    }
+
+    public void increment(){
+        this.value.increment();
+    }
+
+    public void add(long amount){
+        this.value.add(amount);
+    }
+
+    public long get(){
+        return this.value.sum() ;
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    void reset(){
+        this.value.reset();
+    }
+}
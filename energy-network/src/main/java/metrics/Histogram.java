@@ -0,0 +1,128 @@
+package metrics;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Distribution de valeurs entières positives, enregistrées sans verrou et sans allocation.
+ *
+ * Comme dans HdrHistogram les compteurs sont log-linéaires : les valeurs inférieures à 2*SUB_BUCKETS
+ * ont chacune leur compteur, au dessus chaque puissance de deux est découpée en SUB_BUCKETS compteurs.
+ * L'erreur relative sur une valeur lue est donc inférieure à 1/SUB_BUCKETS, avec un tableau de taille fixe
+ * qui couvre tous les long.
+ */
+public class Histogram {
+    static final int SUB_BUCKET_BITS = 7 ;
+    static final int SUB_BUCKETS = 1 << SUB_BUCKET_BITS ;
+
+    private String name ;
+    private AtomicLongArray counts ;
+    private AtomicLong count ;
+    private AtomicLong sum ;
+    private AtomicLong min ;
+    private AtomicLong max ;
+
+    Histogram(String name){
+        this.name = name ;
+        this.counts = new AtomicLongArray((65 - SUB_BUCKET_BITS) * SUB_BUCKETS) ;
+        this.count = new AtomicLong() ;
+        this.sum = new AtomicLong() ;
+        this.min = new AtomicLong(Long.MAX_VALUE) ;
+        this.max = new AtomicLong(Long.MIN_VALUE) ;
+    }
+
+    /**
+     * @param value valeur positive, les valeurs négatives sont comptées comme 0
+     */
+    public void record(long value){
+        if(value < 0)
+            value = 0 ;
+        this.counts.incrementAndGet(index(value));
+        this.count.incrementAndGet();
+        this.sum.addAndGet(value);
+        long current ;
+        while(value < (current = this.min.get()) && !this.min.compareAndSet(current, value)) ;
+        while(value > (current = this.max.get()) && !this.max.compareAndSet(current, value)) ;
+    }
+
+    static int index(long value){
+        if(value < 2 * SUB_BUCKETS)
+            return (int)value ;
+        int shift = 63 - Long.numberOfLeadingZeros(value) - SUB_BUCKET_BITS ;
+        return (shift + 1) * SUB_BUCKETS + (int)(value >>> shift) - SUB_BUCKETS ;
+    }
+
+    /**
+     * @param index
+     * @return plus petite valeur comptée par le compteur index
+     */
+    static long lowestValue(int index){
+        if(index < 2 * SUB_BUCKETS)
+            return index ;
+        int shift = index / SUB_BUCKETS - 1 ;
+        return (long)(index % SUB_BUCKETS + SUB_BUCKETS) << shift ;
+    }
+
+    /**
+     * @param index
+     * @return plus grande valeur comptée par le compteur index
+     */
+    static long highestValue(int index){
+        if(index < 2 * SUB_BUCKETS)
+            return index ;
+        return lowestValue(index) + (1L << (index / SUB_BUCKETS - 1)) - 1 ;
+    }
+
+    /**
+     * @param percentile entre 0 et 100
+     * @return borne haute du compteur qui contient le centile, bornée par le maximum, 0 si rien n'a été enregistré
+     */
+    public long getValueAtPercentile(double percentile){
+        long total = this.count.get() ;
+        if(total == 0)
+            return 0 ;
+        long rank = Math.max(1, (long)Math.ceil(percentile / 100 * total)) ;
+        long seen = 0 ;
+        for (int i = 0; i < this.counts.length(); i++) {
+            seen += this.counts.get(i) ;
+            if(seen >= rank)
+                return Math.min(highestValue(i), this.getMax()) ;
+        }
+        return this.getMax() ;
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public long getCount(){
+        return this.count.get() ;
+    }
+
+    public long getSum(){
+        return this.sum.get() ;
+    }
+
+    public long getMin(){
+        return this.count.get() == 0 ? 0 : this.min.get() ;
+    }
+
+    public long getMax(){
+        return this.count.get() == 0 ? 0 : this.max.get() ;
+    }
+
+    public double getMean(){
+        long count = this.count.get() ;
+        return count == 0 ? 0 : (double)this.sum.get() / count ;
+    }
+
+    void reset(){
+        for (int i = 0; i < this.counts.length(); i++) {
+            this.counts.set(i, 0);
+        }
+        this.count.set(0);
+        this.sum.set(0);
+        this.min.set(Long.MAX_VALUE);
+        this.max.set(Long.MIN_VALUE);
+    }
+}
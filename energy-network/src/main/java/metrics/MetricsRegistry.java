@@ -0,0 +1,93 @@
+package metrics;
+
+import java.util.ArrayList;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Ensemble des compteurs, chronomètres et histogrammes, identifiés par leur nom.
+ *
+ * Les classes instrumentées gardent leur métrique dans un champ statique créé une fois sur le registre par défaut,
+ * l'enregistrement ne passe donc pas par la table des noms. snapshot peut être appelé pendant une négociation
+ * depuis n'importe quel thread, reset remet les valeurs à zéro sans invalider les métriques déjà créées.
+ */
+public class MetricsRegistry {
+    private static final MetricsRegistry DEFAULT = new MetricsRegistry() ;
+
+    private ConcurrentHashMap<String, Counter> counters ;
+    private ConcurrentHashMap<String, Timer> timers ;
+    private ConcurrentHashMap<String, Histogram> histograms ;
+
+    public MetricsRegistry(){
+        this.counters = new ConcurrentHashMap<String, Counter>() ;
+        this.timers = new ConcurrentHashMap<String, Timer>() ;
+        this.histograms = new ConcurrentHashMap<String, Histogram>() ;
+    }
+
+    /**
+     * @return registre utilisé par la négociation et les solveurs
+     */
+    public static MetricsRegistry getDefault(){
+        return DEFAULT ;
+    }
+
+    public Counter counter(String name){
+        Counter counter = this.counters.get(name);
+        if(counter == null){
+            this.counters.putIfAbsent(name, new Counter(name));
+            counter = this.counters.get(name);
+        }
+        return counter ;
+    }
+
+    public Timer timer(String name){
+        Timer timer = this.timers.get(name);
+        if(timer == null){
+            this.timers.putIfAbsent(name, new Timer(name));
+            timer = this.timers.get(name);
+        }
+        return timer ;
+    }
+
+    public Histogram histogram(String name){
+        Histogram histogram = this.histograms.get(name);
+        if(histogram == null){
+            this.histograms.putIfAbsent(name, new Histogram(name));
+            histogram = this.histograms.get(name);
+        }
+        return histogram ;
+    }
+
+    /**
+     * @return valeurs actuelles de toutes les métriques, triées par nom
+     */
+    public MetricsSnapshot snapshot(){
+        TreeMap<String, MetricsSnapshot.Entry> entries = new TreeMap<String, MetricsSnapshot.Entry>() ;
+        for(Map.Entry<String, Counter> counter : this.counters.entrySet()){
+            entries.put(counter.getKey(), new MetricsSnapshot.Entry(counter.getKey(), counter.getValue().get()));
+        }
+        for(Map.Entry<String, Timer> timer : this.timers.entrySet()){
+            entries.put(timer.getKey(), new MetricsSnapshot.Entry(timer.getKey(), MetricsSnapshot.TIMER, timer.getValue().getDurations()));
+        }
+        for(Map.Entry<String, Histogram> histogram : this.histograms.entrySet()){
+            entries.put(histogram.getKey(), new MetricsSnapshot.Entry(histogram.getKey(), MetricsSnapshot.HISTOGRAM, histogram.getValue()));
+        }
+        return new MetricsSnapshot(new ArrayList<MetricsSnapshot.Entry>(entries.values())) ;
+    }
+
+    /**
+     * Remet toutes les métriques à zéro, par exemple entre deux négociations
+     */
+    public void reset(){
+        for(Counter counter : this.counters.values()){
+            counter.reset();
+        }
+        for(Timer timer : this.timers.values()){
+            timer.reset();
+        }
+        for(Histogram histogram : this.histograms.values()){
+            histogram.reset();
+        }
+    }
+}
@@ -0,0 +1,174 @@
+package metrics;
+
+import java.io.File;
+import java.io.FileNotFoundException;
+import java.io.PrintWriter;
+import java.util.Collections;
+import java.util.List;
+import java.util.Locale;
+
+/**
+ * Valeurs des métriques à un instant, exportables en JSON ou en CSV.
+ * Les durées des chronomètres sont en nanosecondes.
+ */
+public class MetricsSnapshot {
+    public static final String COUNTER = "counter" ;
+    public static final String TIMER = "timer" ;
+    public static final String HISTOGRAM = "histogram" ;
+
+    private static final String[] COLUMNS = {"name", "type", "count", "sum", "min", "mean", "p50", "p90", "p99", "max"} ;
+
+    private List<Entry> entries ;
+
+    MetricsSnapshot(List<Entry> entries){
+        this.entries = Collections.unmodifiableList(entries) ;
+    }
+
+    public List<Entry> getEntries() {
+        return entries;
+    }
+
+    /**
+     * @param name
+     * @return la métrique de ce nom, null s'il n'y en a pas
+     */
+    public Entry get(String name){
+        for(Entry entry : this.entries){
+            if(entry.getName().equals(name))
+                return entry ;
+        }
+        return null ;
+    }
+
+    public String toCsv(){
+        StringBuilder csv = new StringBuilder() ;
+        for (int c = 0; c < COLUMNS.length; c++) {
+            csv.append(c == 0 ? "" : ",").append(COLUMNS[c]);
+        }
+        csv.append('\n');
+        for(Entry entry : this.entries){
+            Object[] values = entry.values() ;
+            for (int c = 0; c < values.length; c++) {
+                csv.append(c == 0 ? "" : ",").append(format(values[c]));
+            }
+            csv.append('\n');
+        }
+        return csv.toString() ;
+    }
+
+    public String toJson(){
+        StringBuilder json = new StringBuilder("[") ;
+        for (int e = 0; e < this.entries.size(); e++) {
+            Object[] values = this.entries.get(e).values() ;
+            json.append(e == 0 ? "\n  {" : ",\n  {");
+            for (int c = 0; c < values.length; c++) {
+                json.append(c == 0 ? "" : ", ").append('"').append(COLUMNS[c]).append("\": ");
+                if(values[c] instanceof String)
+                    json.append('"').append(((String)values[c]).replace("\\", "\\\\").replace("\"", "\\\"")).append('"');
+                else
+                    json.append(format(values[c]));
+            }
+            json.append('}');
+        }
+        return json.append("\n]\n").toString() ;
+    }
+
+    /**
+     * Ecrit le snapshot en JSON si le nom du fichier finit par .json, en CSV sinon
+     * @param file
+     * @throws FileNotFoundException
+     */
+    public void write(File file) throws FileNotFoundException {
+        PrintWriter writer = new PrintWriter(file) ;
+        try {
+            writer.print(file.getName().endsWith(".json") ? this.toJson() : this.toCsv());
+        } finally {
+            writer.close();
+        }
+    }
+
+    private static String format(Object value){
+        if(value instanceof Double)
+            return String.format(Locale.ROOT, "%.1f", (Double)value) ;
+        return String.valueOf(value) ;
+    }
+
+    /**
+     * Valeur d'une métrique, pour un compteur seul count est renseigné
+     */
+    public static class Entry {
+        private String name ;
+        private String type ;
+        private long count ;
+        private long sum ;
+        private long min ;
+        private double mean ;
+        private long p50 ;
+        private long p90 ;
+        private long p99 ;
+        private long max ;
+
+        Entry(String name, long count){
+            this.name = name ;
+            this.type = COUNTER ;
+            this.count = count ;
+        }
+
+        Entry(String name, String type, Histogram histogram){
+            this.name = name ;
+            this.type = type ;
+            this.count = histogram.getCount() ;
+            this.sum = histogram.getSum() ;
+            this.min = histogram.getMin() ;
+            this.mean = histogram.getMean() ;
+            this.p50 = histogram.getValueAtPercentile(50) ;
+            this.p90 = histogram.getValueAtPercentile(90) ;
+            this.p99 = histogram.getValueAtPercentile(99) ;
+            this.max = histogram.getMax() ;
+        }
+
+        private Object[] values(){
+            return new Object[]{ this.name, this.type, this.count, this.sum, this.min, this.mean, this.p50, this.p90, this.p99, this.max } ;
+        }
+
+        public String getName() {
+            return name;
+        }
+
+        public String getType() {
+            return type;
+        }
+
+        public long getCount() {
+            return count;
+        }
+
+        public long getSum() {
+            return sum;
+        }
+
+        public long getMin() {
+            return min;
+        }
+
+        public double getMean() {
+            return mean;
+        }
+
+        public long getP50() {
+            return p50;
+        }
+
+        public long getP90() {
+            return p90;
+        }
+
+        public long getP99() {
+            return p99;
+        }
+
+        public long getMax() {
+            return max;
+        }
+    }
+}
@@ -0,0 +1,39 @@
+package metrics;
+
+/**
+ * Durées d'un appel, en nanosecondes :
+ * long start = timer.start() ; try { ... } finally { timer.stop(start) ; }
+ */
+public class Timer {
+    private Histogram durations ;
+
+    Timer(String name){
+        this.durations = new Histogram(name) ;
+    }
+
+    public long start(){
+        return System.nanoTime() ;
+    }
+
+    /**
+     * @param start valeur renvoyée par start
+     */
+    public void stop(long start){
+        this.durations.record(System.nanoTime() - start);
+    }
+
+    public String getName() {
+        return this.durations.getName() ;
+    }
+
+    /**
+     * @return distribution des durées en nanosecondes
+     */
+    public Histogram getDurations() {
+        return durations;
+    }
+
+    void reset(){
+        this.durations.reset();
+    }
+}
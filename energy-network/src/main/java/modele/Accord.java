@@ -6,6 +6,7 @@ public class Accord {
     private Partner partner ;
 
     public Accord(Offer offer, Partner partner){
+        offer.setAgreed(true); // L'offre ne doit plus être réutilisée
         this.setOffer(offer);
         this.setPartner(partner);
     }
@@ -18,6 +18,9 @@ public class Link implements DCPFBranch{
     @XmlTransient
     private Node secondNode;
 
+    @XmlTransient
+    private PowerSystem powerSystem ; // réseau auquel le lien a été ajouté, prévenu quand le lien change
+
     public Link(){
         this.susceptance = 0.5;
     }
@@ -35,6 +38,11 @@ public class Link implements DCPFBranch{
         return this.susceptance;
     }
 
+    public void setSusceptance(double susceptance) {
+        this.susceptance = susceptance;
+        this.changed();
+    }
+
     public double getCongestion() {
         return congestion;
     }
@@ -51,6 +59,7 @@ public class Link implements DCPFBranch{
     @XmlElement(name="capacity")
     public void setCapacity(int capacity) {
         this.capacity = capacity;
+        this.changed();
     }
 
     public int getJoule() {
@@ -60,6 +69,7 @@ public class Link implements DCPFBranch{
     @XmlElement(name="joule")
     public void setJoule(int joule) {
         this.joule = joule;
+        this.changed();
     }
 
     public Node getFirstNode() {
@@ -74,6 +84,7 @@ public class Link implements DCPFBranch{
     public void setFirstNode(Node firstNode) {
         this.firstNode = firstNode;
         firstNode.addLink(this);
+        this.changed();
     }
 
     public Node getSecondNode() {
@@ -82,6 +93,19 @@ public class Link implements DCPFBranch{
 
     public void setSecondNode(Node secondNode) {
         this.secondNode = secondNode;
+        this.changed();
+    }
+
+    void setPowerSystem(PowerSystem powerSystem) {
+        this.powerSystem = powerSystem;
+    }
+
+    /**
+     * Les extrémités, la susceptance, la capacité et l'effet joule sont copiés dans la forme compilée du réseau
+     */
+    private void changed(){
+        if(this.powerSystem != null)
+            this.powerSystem.networkChanged();
     }
 
     public String toString(){
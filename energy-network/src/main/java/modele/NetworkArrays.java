@@ -0,0 +1,140 @@
+package modele;
+
+import events.EventLog;
+import events.EventType;
+import snl.ccss.jpowerflow.dc.DCTopology;
+
+/**
+ * Données du réseau utilisées par les calculs de flux, rangées dans des tableaux de primitifs
+ * indexés comme les listes du PowerSystem : les boucles des solveurs et de l'évaluation des transferts
+ * parcourent ces tableaux au lieu d'appeler getBPrime, getCapacity ou getBusMw sur chaque objet.
+ *
+ * La partie fixe (extrémités, susceptance, capacité et effet joule des liens) est compilée une fois,
+ * voir PowerSystem.getArrays. Seules les injections changent pendant la négociation,
+ * elles sont relues sur les bus par updateInjections.
+ *
+ * Un lien de capacité nulle rend infini le cout de congestion de tout transfert qui le traverse,
+ * il est signalé une fois ici plutôt qu'à chaque évaluation.
+ */
+public class NetworkArrays {
+    private static final EventLog EVENTS = EventLog.getDefault() ;
+
+    private DCTopology topology ;
+    private Node[] bus ;
+    private Link[] links ;
+    private int[] from ;
+    private int[] to ;
+    private double[] bPrime ;
+    private double[] capacity ;
+    private double[] joule ;
+    private double[] injection ;
+
+    NetworkArrays(PowerSystem powerSystem){
+        this.topology = new DCTopology(powerSystem) ;
+        int busCount = this.topology.getBusCount() ;
+        int linkCount = this.topology.getBranchCount() ;
+        this.bus = new Node[busCount] ;
+        for(int i = 0 ; i < busCount ; i++){
+            this.bus[i] = (Node)this.topology.getBus(i) ;
+        }
+        this.links = new Link[linkCount] ;
+        this.capacity = new double[linkCount] ;
+        this.joule = new double[linkCount] ;
+        for(int l = 0 ; l < linkCount ; l++){
+            Link link = (Link)this.topology.getBranch(l) ;
+            this.links[l] = link ;
+            this.capacity[l] = link.getCapacity() ;
+            this.joule[l] = link.getJoule() ;
+            if(this.capacity[l] == 0) // erreur dans le fichier du réseau
+                EVENTS.emit(EventType.ZERO_CAPACITY_LINK, link.getFromBus(), link.getToBus(), 0, 0);
+        }
+        this.from = this.topology.getFrom() ;
+        this.to = this.topology.getTo() ;
+        this.bPrime = this.topology.getBPrime() ;
+        this.injection = new double[busCount] ;
+    }
+
+    /**
+     * Relit l'injection de chaque bus
+     * @return getInjection()
+     */
+    public synchronized double[] updateInjections(){
+        this.readInjections(this.injection);
+        return this.injection ;
+    }
+
+    /**
+     * Copie l'injection actuelle de chaque bus dans power, sans toucher à getInjection()
+     * @param power
+     */
+    public void readInjections(double[] power){
+        Node[] bus = this.bus ;
+        for(int i = 0 ; i < bus.length ; i++){
+            power[i] = bus[i].getBusMw() ;
+        }
+    }
+
+    /**
+     * @return topologie DC construite sur les mêmes listes, partagée avec les solveurs
+     */
+    public DCTopology getTopology() {
+        return topology;
+    }
+
+    public int getBusCount() {
+        return this.bus.length ;
+    }
+
+    public int getLinkCount() {
+        return this.links.length ;
+    }
+
+    public Node getBus(int index) {
+        return this.bus[index] ;
+    }
+
+    public Link getLink(int index) {
+        return this.links[index] ;
+    }
+
+    /**
+     * @return position du firstNode de chaque lien dans la liste des bus, -1 s'il n'y est pas
+     */
+    public int[] getFrom() {
+        return from;
+    }
+
+    /**
+     * @return position du secondNode de chaque lien dans la liste des bus, -1 s'il n'y est pas
+     */
+    public int[] getTo() {
+        return to;
+    }
+
+    public double[] getBPrime() {
+        return bPrime;
+    }
+
+    public double[] getCapacity() {
+        return capacity;
+    }
+
+    public double[] getJoule() {
+        return joule;
+    }
+
+    /**
+     * @return injection de chaque bus lors du dernier appel à updateInjections
+     */
+    public double[] getInjection() {
+        return injection;
+    }
+
+    /**
+     * @param index position du lien
+     * @return faux si un des bus du lien n'est pas dans le réseau
+     */
+    public boolean isEnergized(int index){
+        return this.from[index] != -1 && this.to[index] != -1 ;
+    }
+}
@@ -0,0 +1,154 @@
+package modele;
+
+import javax.xml.stream.XMLInputFactory;
+import javax.xml.stream.XMLStreamConstants;
+import javax.xml.stream.XMLStreamException;
+import javax.xml.stream.XMLStreamReader;
+import java.io.BufferedInputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.ArrayDeque;
+
+/**
+ * Construction du PowerSystem d'un réseau, sans récursion pour supporter les départs très profonds.
+ *
+ * Les bus et les liens sont rangés dans l'ordre d'un parcours en profondeur depuis la racine,
+ * qui est le premier bus : pour un fichier xml c'est l'ordre des balises node, prosumer et link,
+ * le fichier est donc lu en une seule passe, sans le garder en mémoire ni passer par JAXB.
+ */
+public class NetworkLoader {
+    private static final String XSI = "http://www.w3.org/2001/XMLSchema-instance" ;
+
+    /**
+     * Lit un fichier décrivant le réseau comme arbre*.xml :
+     * un node ou prosumer racine dont chaque link contient le noeud suivant
+     * @param file
+     * @return
+     * @throws IOException
+     * @throws XMLStreamException
+     */
+    public static PowerSystem load(File file) throws IOException, XMLStreamException {
+        InputStream input = new BufferedInputStream(new FileInputStream(file), 1 << 16) ;
+        try {
+            return load(input);
+        } finally {
+            input.close();
+        }
+    }
+
+    public static PowerSystem load(InputStream input) throws XMLStreamException {
+        XMLInputFactory factory = XMLInputFactory.newInstance() ;
+        factory.setProperty(XMLInputFactory.SUPPORT_DTD, false);
+        factory.setProperty(XMLInputFactory.IS_SUPPORTING_EXTERNAL_ENTITIES, false);
+        XMLStreamReader reader = factory.createXMLStreamReader(input) ;
+        PowerSystem powerSystem = new PowerSystem() ;
+        ArrayDeque<Object> open = new ArrayDeque<Object>() ; // noeuds et liens ouverts, le plus profond en tête
+        try {
+            while(reader.hasNext()){
+                int event = reader.next() ;
+                if(event == XMLStreamConstants.START_ELEMENT){
+                    String name = reader.getLocalName() ;
+                    if("node".equals(name) || "prosumer".equals(name)){
+                        if(!open.isEmpty() && !(open.peek() instanceof Link))
+                            throw new XMLStreamException("<"+name+"> doit être la racine ou dans un <link>", reader.getLocation());
+                        Node node = "node".equals(name) ? new Node() : new Prosumer() ;
+                        String id = reader.getAttributeValue(null, "id") ;
+                        if(id != null)
+                            node.setId(Integer.parseInt(id.trim()));
+                        powerSystem.addBus(node);
+                        open.push(node);
+                    }else if("link".equals(name)){
+                        if(!(open.peek() instanceof Node))
+                            throw new XMLStreamException("<link> doit être dans un <node> ou un <prosumer>", reader.getLocation());
+                        Link link = new Link() ;
+                        link.setSecondNode((Node)open.peek());
+                        powerSystem.addLink(link);
+                        open.push(link);
+                    }else if(open.peek() instanceof Link){
+                        readLinkElement(reader, name, (Link)open.peek());
+                    }else if(open.peek() instanceof Prosumer){
+                        readProsumerElement(reader, name, (Prosumer)open.peek());
+                    }
+                }else if(event == XMLStreamConstants.END_ELEMENT){
+                    String name = reader.getLocalName() ;
+                    if("node".equals(name) || "prosumer".equals(name)){
+                        Node node = (Node)open.pop() ;
+                        if(!open.isEmpty())
+                            ((Link)open.peek()).setFirstNode(node); // ajoute aussi le lien au noeud
+                    }else if("link".equals(name)){
+                        Link link = (Link)open.pop() ;
+                        if(link.getFirstNode() == null)
+                            throw new XMLStreamException("<link> sans noeud", reader.getLocation());
+                        link.getSecondNode().addLink(link);
+                    }
+                }
+            }
+        } finally {
+            reader.close();
+        }
+        if(powerSystem.getBusList().isEmpty())
+            throw new XMLStreamException("Aucun noeud dans le fichier");
+        return powerSystem ;
+    }
+
+    private static void readLinkElement(XMLStreamReader reader, String name, Link link) throws XMLStreamException {
+        if("joule".equals(name))
+            link.setJoule(Integer.parseInt(reader.getElementText().trim()));
+        else if("capacity".equals(name))
+            link.setCapacity(Integer.parseInt(reader.getElementText().trim()));
+        else if("congestion".equals(name))
+            link.setCongestion(Double.parseDouble(reader.getElementText().trim()));
+    }
+
+    private static void readProsumerElement(XMLStreamReader reader, String name, Prosumer prosumer) throws XMLStreamException {
+        if("energyNeed".equals(name))
+            prosumer.setEnergyNeed(readNillableDouble(reader));
+        else if("energyGenerated".equals(name))
+            prosumer.setEnergyGenerated(readNillableDouble(reader));
+    }
+
+    private static Double readNillableDouble(XMLStreamReader reader) throws XMLStreamException {
+        boolean nil = "true".equals(reader.getAttributeValue(XSI, "nil")) ;
+        String text = reader.getElementText().trim() ;
+        return nil || text.isEmpty() ? null : Double.valueOf(text) ;
+    }
+
+    /**
+     * Range dans un PowerSystem un réseau déjà construit, par exemple généré.
+     * Le lien vers le parent de chaque noeud est complété comme à la lecture d'un fichier,
+     * un noeud atteint par plusieurs liens n'est ajouté qu'une fois si le réseau est maillé.
+     * @param root
+     * @return
+     */
+    public static PowerSystem collect(Node root){
+        PowerSystem powerSystem = new PowerSystem() ;
+        ArrayDeque<Node> nodes = new ArrayDeque<Node>() ;
+        ArrayDeque<int[]> positions = new ArrayDeque<int[]>() ; // prochain lien à parcourir de chaque noeud de la pile
+        visit(root, powerSystem, nodes, positions);
+        while(!nodes.isEmpty()){
+            Node node = nodes.peek() ;
+            int[] position = positions.peek() ;
+            if(position[0] == node.getLinks().size()){
+                nodes.pop();
+                positions.pop();
+                continue ;
+            }
+            Link l = node.getLinks().get(position[0]++) ;
+            if(powerSystem.addLink(l)) {
+                Node other = l.getFirstNode() == node ? l.getSecondNode() : l.getFirstNode() ;
+                if(!powerSystem.containsBus(other))
+                    visit(other, powerSystem, nodes, positions);
+            }
+        }
+        return powerSystem ;
+    }
+
+    private static void visit(Node node, PowerSystem powerSystem, ArrayDeque<Node> nodes, ArrayDeque<int[]> positions){
+        powerSystem.addBus(node);
+        node.adjustLinksSecondNode(); // On ajoute les nodes parents de chaque lien, le fichier xml est hiérarchisé mais on veut pas qu'il le soit
+        nodes.push(node);
+        positions.push(new int[]{0});
+    }
+}
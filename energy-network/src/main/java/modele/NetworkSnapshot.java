@@ -0,0 +1,210 @@
+package modele;
+
+import javax.xml.stream.XMLStreamException;
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Copie binaire d'un réseau chargé, relue sans analyse xml pour démarrer plus vite les exécutions répétées
+ * sur le même réseau.
+ *
+ * Le fichier commence par MAGIC, VERSION, le nombre de bus et le nombre de liens, puis contient :
+ * - pour chaque lien : position dans la liste des bus du noeud fils (firstNode) et du parent (secondNode),
+ *   capacity, joule (int), congestion et susceptance (double) ;
+ * - pour chaque bus : id (int), NODE ou PROSUMER (int), energyNeed et energyGenerated (double, NaN si absent),
+ *   le nombre de ses liens puis leur position dans la liste des liens, dans l'ordre de Node.getLinks().
+ * Bus et liens gardent leur ordre dans le PowerSystem, le réseau relu est donc négocié exactement comme l'original.
+ *
+ * Le slack est ajouté par la négociation : un PowerSystem qui en contient déjà un ne peut pas être copié.
+ * Usage : NetworkSnapshot arbre21.xml arbre21.net
+ */
+public class NetworkSnapshot {
+    public static final String EXTENSION = ".net" ;
+
+    static final int MAGIC = 0x454e4554 ;
+    static final int VERSION = 1 ;
+    static final int NODE = 0 ;
+    static final int PROSUMER = 1 ;
+
+    private static final int HEADER_SIZE = 16 ;
+    private static final int LINK_SIZE = 32 ;
+    private static final int BUS_SIZE = 28 ;
+
+    /**
+     * @param file
+     * @return true si le fichier porte l'extension des copies binaires
+     */
+    public static boolean isSnapshot(File file){
+        return file.getName().endsWith(EXTENSION) ;
+    }
+
+    /**
+     * @param powerSystem réseau sans slack, tel que rendu par NetworkLoader
+     * @param file
+     * @throws IOException
+     */
+    public static void write(PowerSystem powerSystem, File file) throws IOException {
+        List<Node> bus = powerSystem.getBusList() ;
+        List<Link> links = powerSystem.getEnergizedBranchList() ;
+        long size = HEADER_SIZE + (long)LINK_SIZE * links.size() + (long)BUS_SIZE * bus.size() ;
+        for(Node node : bus){
+            if(node instanceof Slack)
+                throw new IllegalArgumentException("Le réseau contient déjà un slack");
+            size += 4L * node.getLinks().size() ;
+        }
+        if(size > Integer.MAX_VALUE)
+            throw new IllegalArgumentException("Réseau trop grand pour une copie binaire");
+
+        ByteBuffer buffer = ByteBuffer.allocate((int)size) ;
+        buffer.putInt(MAGIC).putInt(VERSION).putInt(bus.size()).putInt(links.size());
+        for(Link link : links){
+            buffer.putInt(indexOf(powerSystem, link.getFirstNode())).putInt(indexOf(powerSystem, link.getSecondNode()))
+                    .putInt(link.getCapacity()).putInt(link.getJoule())
+                    .putDouble(link.getCongestion()).putDouble(link.getBPrime());
+        }
+        for(Node node : bus){
+            buffer.putInt(node.getId());
+            if(node instanceof Prosumer){
+                Prosumer prosumer = (Prosumer)node ;
+                buffer.putInt(PROSUMER).putDouble(valueOf(prosumer.getEnergyNeed())).putDouble(valueOf(prosumer.getEnergyGenerated()));
+            }else{
+                buffer.putInt(NODE).putDouble(Double.NaN).putDouble(Double.NaN);
+            }
+            buffer.putInt(node.getLinks().size());
+            for(Link link : node.getLinks()){
+                int index = powerSystem.indexOfLink(link) ;
+                if(index == -1)
+                    throw new IllegalArgumentException("Un lien du bus "+node.getId()+" n'est pas dans le réseau");
+                buffer.putInt(index);
+            }
+        }
+        buffer.flip();
+
+        RandomAccessFile output = new RandomAccessFile(file, "rw") ;
+        try {
+            FileChannel channel = output.getChannel() ;
+            channel.truncate(0);
+            while(buffer.hasRemaining()){
+                channel.write(buffer);
+            }
+        } finally {
+            output.close();
+        }
+    }
+
+    /**
+     * Relit une copie en projetant le fichier en mémoire
+     * @param file
+     * @return réseau sans slack, comme NetworkLoader.load
+     * @throws IOException si le fichier n'est pas une copie de cette version ou est tronqué
+     */
+    public static PowerSystem load(File file) throws IOException {
+        RandomAccessFile input = new RandomAccessFile(file, "r") ;
+        try {
+            FileChannel channel = input.getChannel() ;
+            MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size()) ;
+            return read(buffer) ;
+        } catch (BufferUnderflowException e) {
+            throw new IOException(file+" est tronqué", e);
+        } catch (IndexOutOfBoundsException e) {
+            throw new IOException(file+" fait référence à un bus ou un lien absent", e);
+        } finally {
+            input.close();
+        }
+    }
+
+    private static PowerSystem read(ByteBuffer buffer) throws IOException {
+        if(buffer.remaining() < HEADER_SIZE || buffer.getInt() != MAGIC)
+            throw new IOException("Ce fichier n'est pas une copie binaire de réseau");
+        int version = buffer.getInt() ;
+        if(version != VERSION)
+            throw new IOException("Version "+version+" de copie non supportée");
+        int busCount = buffer.getInt() ;
+        int linkCount = buffer.getInt() ;
+        if(busCount < 0 || linkCount < 0 || (long)LINK_SIZE * linkCount + (long)BUS_SIZE * busCount > buffer.remaining())
+            throw new BufferUnderflowException();
+
+        Link[] links = new Link[linkCount] ;
+        int[] firsts = new int[linkCount] ;
+        int[] seconds = new int[linkCount] ;
+        for(int l = 0 ; l < linkCount ; l++){
+            Link link = new Link() ;
+            firsts[l] = buffer.getInt() ;
+            seconds[l] = buffer.getInt() ;
+            link.setCapacity(buffer.getInt());
+            link.setJoule(buffer.getInt());
+            link.setCongestion(buffer.getDouble());
+            link.setSusceptance(buffer.getDouble());
+            links[l] = link ;
+        }
+
+        PowerSystem powerSystem = new PowerSystem() ;
+        Node[] bus = new Node[busCount] ;
+        List<List<Link>> busLinks = new ArrayList<List<Link>>(busCount) ;
+        for(int b = 0 ; b < busCount ; b++){
+            int id = buffer.getInt() ;
+            int kind = buffer.getInt() ;
+            double energyNeed = buffer.getDouble() ;
+            double energyGenerated = buffer.getDouble() ;
+            Node node ;
+            if(kind == PROSUMER){
+                Prosumer prosumer = new Prosumer() ;
+                prosumer.setEnergyNeed(Double.isNaN(energyNeed) ? null : energyNeed);
+                prosumer.setEnergyGenerated(Double.isNaN(energyGenerated) ? null : energyGenerated);
+                node = prosumer ;
+            }else if(kind == NODE){
+                node = new Node() ;
+            }else{
+                throw new IOException("Type de bus inconnu : "+kind);
+            }
+            node.setId(id);
+            int count = buffer.getInt() ;
+            List<Link> nodeLinks = new ArrayList<Link>(count) ;
+            for(int i = 0 ; i < count ; i++){
+                nodeLinks.add(links[buffer.getInt()]);
+            }
+            busLinks.add(nodeLinks);
+            bus[b] = node ;
+            powerSystem.addBus(node);
+        }
+        for(int l = 0 ; l < linkCount ; l++){
+            links[l].setSecondNode(bus[seconds[l]]);
+            links[l].setFirstNode(bus[firsts[l]]);
+            powerSystem.addLink(links[l]);
+        }
+        for(int b = 0 ; b < busCount ; b++){
+            bus[b].setLinks(busLinks.get(b)); // remplace les liens ajoutés par setFirstNode, dans l'ordre d'origine
+        }
+        return powerSystem ;
+    }
+
+    private static int indexOf(PowerSystem powerSystem, Node node){
+        int index = powerSystem.indexOfBus(node) ;
+        if(index == -1)
+            throw new IllegalArgumentException("Un lien relie un bus qui n'est pas dans le réseau");
+        return index ;
+    }
+
+    private static double valueOf(Double value){
+        return value == null ? Double.NaN : value ;
+    }
+
+    public static void main(String[] args) throws IOException, XMLStreamException {
+        if(args.length != 2){
+            System.err.println("Usage : NetworkSnapshot <réseau.xml> <réseau"+EXTENSION+">");
+            System.exit(1);
+        }
+        long start = System.nanoTime() ;
+        PowerSystem powerSystem = NetworkLoader.load(new File(args[0])) ;
+        write(powerSystem, new File(args[1]));
+        System.out.println(powerSystem.getBusList().size()+" bus, "+powerSystem.getEnergizedBranchList().size()+" liens copiés en "
+                +(System.nanoTime() - start) / 1000000+" ms");
+    }
+}
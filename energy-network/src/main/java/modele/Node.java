@@ -68,6 +68,15 @@ public class Node implements DCPFBus {
         return this.getId() == n.getId() ;
     }
 
+    /**
+     * Les tables de partenaires sont parcourues dans l'ordre des identifiants et non des adresses,
+     * ce qui rend les négociations reproductibles d'une exécution à l'autre
+     * @return l'identifiant du noeud
+     */
+    public int hashCode(){
+        return this.getId() ;
+    }
+
     public String toString(){
         return Integer.toString(this.getId());
     }
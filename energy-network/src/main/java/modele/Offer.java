@@ -1,29 +1,41 @@
 package modele;
 
+/**
+ * Les offres sont obtenues auprès de l'OfferPool de la négociation, qui leur donne un identifiant unique
+ */
 public class Offer {
-    private static int compteur=0 ;
-    private int id ;
-    private Double amount ;
+    private long id ;
+    private double amount ;
     private double quantity ;
     private double losses ;
     private double congestion_cost ;
     private double totalQuantity ;
     private boolean evaluate ; // Si l'offre a été étudiée
+    private boolean agreed ; // Si l'offre fait partie d'un accord
 
-    public Offer(Double amount, double quantity){
+    Offer(long id, double amount, double quantity){
+        this.reset(id, amount, quantity);
+    }
+
+    /**
+     * Remet l'offre à neuf pour qu'elle soit réutilisée sous un nouvel identifiant
+     */
+    void reset(long id, double amount, double quantity){
+        this.id = id ;
         this.setAmount(amount);
         this.setQuantity(quantity);
+        this.losses = 0 ;
+        this.congestion_cost = 0 ;
+        this.totalQuantity = 0 ;
         this.evaluate = false ;
-        this.compteur++ ;
-        this.id = this.compteur ;
-
+        this.agreed = false ;
     }
 
-    public Double getAmount() {
+    public double getAmount() {
         return amount;
     }
 
-    public void setAmount(Double amount) {
+    public void setAmount(double amount) {
         this.amount = amount;
     }
 
@@ -67,7 +79,15 @@ public class Offer {
         this.evaluate = evaluate;
     }
 
-    public int getId(){
+    public boolean isAgreed() {
+        return agreed;
+    }
+
+    public void setAgreed(boolean agreed) {
+        this.agreed = agreed;
+    }
+
+    public long getId(){
         return this.id ;
     }
 
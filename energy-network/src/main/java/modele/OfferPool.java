@@ -0,0 +1,49 @@
+package modele;
+
+import java.util.ArrayDeque;
+
+/**
+ * Offres d'une négociation.
+ *
+ * Chaque offre reçoit un identifiant de la séquence de la négociation, ce qui permet de mener
+ * plusieurs négociations en même temps. Les offres remplacées par une nouvelle proposition sont
+ * rendues au pool et réutilisées, pour ne pas créer un objet par proposition.
+ */
+public class OfferPool {
+    private long sequence ;
+    private ArrayDeque<Offer> free ;
+
+    public OfferPool(){
+        this.free = new ArrayDeque<Offer>() ;
+    }
+
+    /**
+     * @param amount
+     * @param quantity
+     * @return une offre avec un nouvel identifiant
+     */
+    public synchronized Offer acquire(double amount, double quantity){
+        long id = ++this.sequence ;
+        Offer offer = this.free.poll() ;
+        if(offer == null)
+            return new Offer(id, amount, quantity) ;
+        offer.reset(id, amount, quantity);
+        return offer ;
+    }
+
+    /**
+     * Rend une offre qui n'est plus référencée, les offres d'un accord sont gardées
+     * @param offer
+     */
+    public synchronized void release(Offer offer){
+        if(offer != null && !offer.isAgreed())
+            this.free.push(offer);
+    }
+
+    /**
+     * @return nombre d'offres créées par la négociation
+     */
+    public synchronized long getCreated(){
+        return this.sequence ;
+    }
+}
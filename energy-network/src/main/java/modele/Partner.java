@@ -20,6 +20,21 @@ public class Partner {
         this.setToConsider(true);
     }
 
+    /**
+     * Oublie les propositions échangées, comme un partenariat qui vient d'être créé
+     * @param offers pool auquel les propositions sont rendues
+     */
+    public void reset(OfferPool offers){
+        offers.release(this.buyerProposition);
+        offers.release(this.sellerProposition);
+        this.buyerProposition = null ;
+        this.sellerProposition = null ;
+        this.lastProposition = null ;
+        this.buyerData = null ;
+        this.sellerData = null ;
+        this.setToConsider(true);
+    }
+
     public Offer getBuyerProposition() {
         return buyerProposition;
     }
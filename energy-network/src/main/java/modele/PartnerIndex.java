@@ -0,0 +1,123 @@
+package modele;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+
+/**
+ * Acheteurs et vendeurs qui négocient encore, pour trouver les partenaires d'un prosumer
+ * sans parcourir tous les prosumers.
+ *
+ * Un prosumer est ajouté une fois son état estimé et retiré dès qu'il a terminé.
+ * Ses partenaires possibles sont les prosumers de rôle opposé encore présents, éventuellement limités
+ * à ceux qui sont à moins de radius liens de lui : ce voisinage ne dépend que du réseau,
+ * il est calculé une fois par prosumer.
+ */
+public class PartnerIndex {
+    public static final int UNLIMITED = Integer.MAX_VALUE ;
+
+    private LinkedHashSet<Prosumer> buyers ;
+    private LinkedHashSet<Prosumer> sellers ;
+    private int radius ;
+    private HashMap<Prosumer, List<Prosumer>> neighbours ;
+
+    public PartnerIndex(){
+        this(UNLIMITED);
+    }
+
+    /**
+     * @param radius nombre maximal de liens entre deux partenaires, UNLIMITED pour tout le réseau
+     */
+    public PartnerIndex(int radius){
+        this.buyers = new LinkedHashSet<Prosumer>() ;
+        this.sellers = new LinkedHashSet<Prosumer>() ;
+        this.radius = radius ;
+        this.neighbours = new HashMap<Prosumer, List<Prosumer>>() ;
+    }
+
+    /**
+     * @param prosumer prosumer dont le rôle est fixé, voir Prosumer.estimateState
+     */
+    public void add(Prosumer prosumer){
+        if(prosumer.isBuyer())
+            this.buyers.add(prosumer);
+        else
+            this.sellers.add(prosumer);
+    }
+
+    /**
+     * @param prosumer prosumer qui a terminé de négocier
+     */
+    public void remove(Prosumer prosumer){
+        this.buyers.remove(prosumer);
+        this.sellers.remove(prosumer);
+    }
+
+    public boolean contains(Prosumer prosumer){
+        return this.buyers.contains(prosumer) || this.sellers.contains(prosumer) ;
+    }
+
+    /**
+     * @param prosumer
+     * @return prosumers de rôle opposé qui négocient encore, à portée du prosumer
+     */
+    public Collection<Prosumer> getCandidates(Prosumer prosumer){
+        LinkedHashSet<Prosumer> others = prosumer.isBuyer() ? this.sellers : this.buyers ;
+        if(this.radius == UNLIMITED)
+            return others ;
+        ArrayList<Prosumer> candidates = new ArrayList<Prosumer>() ;
+        for(Prosumer neighbour : this.neighbours(prosumer)){
+            if(others.contains(neighbour))
+                candidates.add(neighbour);
+        }
+        return candidates ;
+    }
+
+    /**
+     * (Re)crée les partenariats de tous les prosumers présents, depuis le coté le moins nombreux
+     * pour que chaque paire ne soit vue qu'une fois
+     */
+    public void lookForPartners(){
+        LinkedHashSet<Prosumer> side = this.buyers.size() <= this.sellers.size() ? this.buyers : this.sellers ;
+        for(Prosumer prosumer : side){
+            prosumer.lookForPartners(this);
+        }
+    }
+
+    /**
+     * Prosumers à moins de radius liens, dans l'ordre du parcours en largeur
+     * @param prosumer
+     * @return
+     */
+    private List<Prosumer> neighbours(Prosumer prosumer){
+        List<Prosumer> result = this.neighbours.get(prosumer) ;
+        if(result != null)
+            return result ;
+        result = new ArrayList<Prosumer>() ;
+        IdentityHashMap<Node, Integer> distances = new IdentityHashMap<Node, Integer>() ;
+        ArrayDeque<Node> queue = new ArrayDeque<Node>() ;
+        distances.put(prosumer, 0);
+        queue.add(prosumer);
+        while(!queue.isEmpty()){
+            Node node = queue.poll() ;
+            int distance = distances.get(node) ;
+            if(node != prosumer && node instanceof Prosumer)
+                result.add((Prosumer)node);
+            if(distance == this.radius)
+                continue ;
+            for(Link link : node.getLinks()){
+                Node other = link.getFirstNode() == node ? link.getSecondNode() : link.getFirstNode() ;
+                if(other != null && !distances.containsKey(other)){
+                    distances.put(other, distance + 1);
+                    queue.add(other);
+                }
+            }
+        }
+        this.neighbours.put(prosumer, result);
+        return result ;
+    }
+}
@@ -1,34 +1,148 @@
 package modele;
 
 
-import snl.ccss.jpowerflow.PFPowerSystem;
+import snl.ccss.jpowerflow.dc.DCArraySystem;
+import snl.ccss.jpowerflow.dc.DCTopology;
+import snl.ccss.jpowerflow.util.IntIntHashMap;
 
 import java.util.ArrayList;
+import java.util.Collections;
+import java.util.IdentityHashMap;
 import java.util.List;
 
-public class PowerSystem implements PFPowerSystem {
+/**
+ * Bus et liens du réseau, dans l'ordre où ils sont ajoutés.
+ *
+ * Chaque liste est doublée d'un index : un lien ou un bus déjà présent n'est pas ajouté une seconde fois,
+ * et on retrouve en temps constant la position d'un lien ou d'un bus à partir de son id,
+ * ce qui garde le chargement linéaire même pour des réseaux de plusieurs centaines de milliers de liens.
+ * Les listes rendues ne sont pas modifiables, tout ajout passe par addLink et addBus.
+ *
+ * Les solveurs DC et l'évaluation des transferts lisent le réseau dans sa forme compilée, getArrays,
+ * refaite au premier appel qui suit un ajout ou la modification d'un lien du réseau. Les id des bus y sont
+ * aussi copiés : s'ils sont modifiés après le premier calcul de flux, il faut appeler networkChanged.
+ */
+public class PowerSystem implements DCArraySystem {
     private List<Link> links ;
     private List<Node> bus ;
+    private IdentityHashMap<Link, Integer> linkIndexes ;
+    private IdentityHashMap<Node, Integer> busIndexes ;
+    private IntIntHashMap busIds ; // id -> position du dernier bus ajouté avec cet id, comme BusIndex
+    private List<Link> linkView ;
+    private List<Node> busView ;
+    private NetworkArrays arrays ;
 
     public PowerSystem(){
         super() ;
         this.links = new ArrayList<Link>() ;
         this.bus = new ArrayList<Node>() ;
+        this.linkIndexes = new IdentityHashMap<Link, Integer>() ;
+        this.busIndexes = new IdentityHashMap<Node, Integer>() ;
+        this.busIds = new IntIntHashMap(16, -1) ;
+        this.linkView = Collections.unmodifiableList(this.links) ;
+        this.busView = Collections.unmodifiableList(this.bus) ;
     }
 
-    public void addLink(Link link){
+    /**
+     * @param link
+     * @return false si le lien était déjà dans le réseau
+     */
+    public boolean addLink(Link link){
+        if(this.linkIndexes.containsKey(link))
+            return false ;
+        this.linkIndexes.put(link, this.links.size());
         this.links.add(link);
+        link.setPowerSystem(this);
+        this.networkChanged();
+        return true ;
     }
 
-    public void addBus(Node bus){
+    /**
+     * @param bus
+     * @return false si le bus était déjà dans le réseau
+     */
+    public boolean addBus(Node bus){
+        if(this.busIndexes.containsKey(bus))
+            return false ;
+        this.busIndexes.put(bus, this.bus.size());
+        this.busIds.put(bus.getId(), this.bus.size());
         this.bus.add(bus);
+        this.networkChanged();
+        return true ;
+    }
+
+    public boolean containsLink(Link link){
+        return this.linkIndexes.containsKey(link) ;
+    }
+
+    public boolean containsBus(Node bus){
+        return this.busIndexes.containsKey(bus) ;
+    }
+
+    /**
+     * @param link
+     * @return position du lien dans getEnergizedBranchList(), -1 s'il n'y est pas
+     */
+    public int indexOfLink(Link link){
+        Integer index = this.linkIndexes.get(link) ;
+        return index == null ? -1 : index ;
+    }
+
+    /**
+     * @param bus
+     * @return position du bus dans getBusList(), -1 s'il n'y est pas
+     */
+    public int indexOfBus(Node bus){
+        Integer index = this.busIndexes.get(bus) ;
+        return index == null ? -1 : index ;
+    }
+
+    /**
+     * @param id
+     * @return position dans getBusList() du bus ayant cet id, -1 s'il n'y en a pas
+     */
+    public int indexOfBus(int id){
+        return this.busIds.get(id) ;
+    }
+
+    /**
+     * @param id
+     * @return bus ayant cet id, null s'il n'y en a pas
+     */
+    public Node getBus(int id){
+        int index = this.busIds.get(id) ;
+        return index == -1 ? null : this.bus.get(index) ;
+    }
+
+    /**
+     * @return forme compilée du réseau actuel, la même tant qu'il ne change pas
+     */
+    public synchronized NetworkArrays getArrays(){
+        if(this.arrays == null)
+            this.arrays = new NetworkArrays(this) ;
+        return this.arrays ;
+    }
+
+    /**
+     * Oublie la forme compilée, à appeler si des bus du réseau ont été modifiés, les liens le font eux-mêmes
+     */
+    public synchronized void networkChanged(){
+        this.arrays = null ;
+    }
+
+    public DCTopology getDCTopology() {
+        return this.getArrays().getTopology();
+    }
+
+    public void getBusMw(double[] power) {
+        this.getArrays().readInjections(power);
     }
 
     public List getBusList() {
-        return bus;
+        return busView;
     }
 
     public List getEnergizedBranchList() {
-        return links;
+        return linkView;
     }
 }
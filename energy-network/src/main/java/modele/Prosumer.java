@@ -1,5 +1,7 @@
 package modele;
 
+import events.EventLog;
+import events.EventType;
 import javafx.util.Pair;
 import strategy.negociationStrategy;
 
@@ -10,6 +12,8 @@ import java.util.Map;
 
 @XmlRootElement(name="prosumer")
 public class Prosumer extends Node {
+    private static final EventLog EVENTS = EventLog.getDefault() ;
+
     private Double energyNeed ; // énergie nécessaire au prosumer
     private Double energyGenerated ; // énergie produite par le prosumer
     private boolean buyer ;// S'il achète ou vend
@@ -52,52 +56,40 @@ public class Prosumer extends Node {
     }
 
     /**
-     * Recherche de partenaires
-     * @param prosumers
+     * Recherche de partenaires parmi les candidats que l'index propose.
+     * Un partenariat qui existe déjà est remis à zéro plutôt que recréé, l'autre prosumer n'a donc pas à refaire la recherche
+     * @param index
      */
-    public void lookForPartners(ArrayList<Prosumer> prosumers){
-        this.getPartners().clear();
-        for(Prosumer prosumer : prosumers){
-            if(prosumer  != this) {// Il ne se regarde pas lui même
-                if (!getPartners().containsKey(prosumer)) { // S'ils le sont pas déjà
-                    if (strategy.arePotentialPartner(this, prosumer)) { // Si la stratégie les veut partenaires
-                        Partner newPartner ;
-                        if(this.buyer) {
-                            newPartner = new Partner(this, prosumer);
-                        }else{
-                            newPartner = new Partner(prosumer, this);
-                        }
-
-                        getPartners().put(prosumer, newPartner);
-                        prosumer.getPartners().put(this, newPartner);
-                    }
+    public void lookForPartners(PartnerIndex index){
+        for(Prosumer prosumer : index.getCandidates(this)){
+            if (strategy.arePotentialPartner(this, prosumer)) { // Si la stratégie les veut partenaires
+                Partner partner = getPartners().get(prosumer) ;
+                if(partner != null){
+                    strategy.resetPartnership(partner);
+                    continue ;
                 }
+                if(this.buyer) {
+                    partner = new Partner(this, prosumer);
+                }else{
+                    partner = new Partner(prosumer, this);
+                }
+                getPartners().put(prosumer, partner);
+                prosumer.getPartners().put(this, partner);
             }
         }
     }
 
     public boolean ChoosePartnersConcession(){
-        if(this.isBuyer()){
-            System.out.println("\nbuyer -- need "+this.energyLeft());
-        }else {
-            System.out.println("\nseller -- need "+this.energyLeft());
-        }
         int end = this.strategy.checkEnd(this);
         if(end==1) {
-            System.out.println("Negociations restart");
             return true; // redémarrage des négociations
         }else if(end == 0){
-            System.out.println("Passe mon tour");
             return false ; // Il passe juste son tour en attendant que la topographie change
         }else{
-            if(this.isTerminate()){ // il ne négocie plus du tout
-                System.out.println("nothing else to do");
-            }else{
-                System.out.println("Look for concessions"); // Il fait les concessions
+            if(!this.isTerminate()){ // s'il négocie encore, il fait les concessions
                 ArrayList<Pair<Prosumer, Double>> choose ;
                 choose = this.isBuyer() ? strategy.chooseSellerPartnerConcession(this) : strategy.chooseBuyerPartnerConcession(this) ;// ON choisit les partenaires
                 if(choose != null) {
-                    System.out.println(this.getId()+" make concessions à "+choose.size()+" prosumers");
                     for (Pair<Prosumer, Double> ite : choose) {
                         strategy.makeConcession(this, ite.getKey(), ite.getValue()); // On fait les concessions
                     }
@@ -128,7 +120,7 @@ public class Prosumer extends Node {
      * @return
      */
     public void stopNegociations(){
-        System.out.println("stop négociations");
+        EVENTS.emit(EventType.NEGOCIATION_STOPPED, this.getId(), 0, 0, 0);
         for( Map.Entry<Prosumer, Partner> ite : this.getPartners().entrySet()){
             ite.getKey().getPartners().remove(this) ;
         }
@@ -1,10 +1,8 @@
 package modele;
 
-import java.util.List;
-
 public class Slack extends Node {
 
-    public Slack(Node root, List<Link> links , List<Node> bus ){
+    public Slack(Node root, PowerSystem powerSystem){
         super() ;
         this.setId(0) ;
         Link l = new Link() ;
@@ -14,8 +12,8 @@ public class Slack extends Node {
         l.setCapacity(1000);
         l.setJoule(2);
         this.addLink(l);
-        links.add(l);
-        bus.add(this);
+        powerSystem.addLink(l);
+        powerSystem.addBus(this);
     }
     public boolean isSlackBus() {
         return true;
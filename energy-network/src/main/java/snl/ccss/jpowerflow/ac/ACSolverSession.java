@@ -0,0 +1,206 @@
+package snl.ccss.jpowerflow.ac;
+
+import java.util.List;
+
+import snl.ccss.jpowerflow.PFPowerSystem;
+import snl.ccss.jpowerflow.util.BusIndex;
+
+/**
+ * This class runs consecutive AC power flow analyses of one power
+ * system whose buses and branches stay the same, only the bus
+ * injections changing from one solve to the next.
+ *
+ * The session keeps the yBus and the symbolic factorization of its
+ * solver, the scheduled injection of every bus and the voltages and
+ * angles of the last converged solve.  Every solve starts from these
+ * voltages and angles, so a small change of the injections converges
+ * in a couple of iterations.  As the solver writes the computed power
+ * of every bus into the bus objects, the session writes the scheduled
+ * injections back into them before each solve.
+ *
+ * Call branchesChanged when a branch is switched or its admittance
+ * changes, the yBus is then built again at the next solve.
+ *
+ * The session turns off the export of the Jacobian of its solver, which
+ * would otherwise copy a dense Jacobian into Utilities after every
+ * converged solve.
+ */
+public class ACSolverSession {
+
+	private FullNewton solver;
+	private PFPowerSystem powerSystem;
+
+	private List busList;
+	private int busCount;
+	private BusIndex busIndex;
+
+	private double[] scheduledMw;
+	private double[] scheduledMvar;
+	private double[] voltages;
+	private double[] angles;
+
+	private boolean keepYBus;
+	private boolean converged;
+	private int iterations;
+	private int totalIterations;
+	private int solveCount;
+
+	/**
+	 * Constructor for ACSolverSession class.  The scheduled injections and the
+	 * starting voltages and angles are read from the bus objects, and the solver
+	 * no longer exports its Jacobian.
+	 *
+	 * @param solver FullNewton or FastDecoupledNewton used for every solve
+	 * @param powerSystem PFPowerSystem that implements the required getBusList and getEnergizedBranchList methods
+	 */
+	public ACSolverSession(FullNewton solver, PFPowerSystem powerSystem) {
+		this.solver = solver;
+		this.solver.setExportJacobian(false);
+		this.powerSystem = powerSystem;
+
+		busList = powerSystem.getBusList();
+		busCount = busList.size();
+		int[] busNumbers = new int[busCount];
+		scheduledMw = new double[busCount];
+		scheduledMvar = new double[busCount];
+		voltages = new double[busCount];
+		angles = new double[busCount];
+		for (int i = 0; i < busCount; i++) {
+			ACPFBus bus = (ACPFBus)busList.get(i);
+			busNumbers[i] = bus.getNumber();
+			scheduledMw[i] = bus.getBusMw();
+			scheduledMvar[i] = bus.getBusMvar();
+			voltages[i] = bus.getVoltage();
+			angles[i] = bus.getAngle();
+		}
+		busIndex = new BusIndex(busNumbers);
+	}
+
+	/**
+	 * This method solves the power system with the scheduled injections, starting
+	 * from the voltages and angles of the last converged solve.
+	 *
+	 * @return true if simulation converged within maximum number of iterations
+	 */
+	public boolean solve() {
+		for (int i = 0; i < busCount; i++) {
+			ACPFBus bus = (ACPFBus)busList.get(i);
+			bus.setBusMw(scheduledMw[i]);
+			bus.setBusMvar(scheduledMvar[i]);
+			bus.setVoltage(voltages[i]);
+			bus.setAngle(angles[i]);
+		}
+
+		solver.keepYBus = keepYBus;
+		try {
+			converged = solver.solve(powerSystem);
+		} finally {
+			solver.keepYBus = false;
+		}
+		keepYBus = true;
+
+		iterations = solver.getIterations();
+		totalIterations += iterations;
+		solveCount++;
+
+		if (converged) {
+			for (int i = 0; i < busCount; i++) {
+				ACPFBus bus = (ACPFBus)busList.get(i);
+				voltages[i] = bus.getVoltage();
+				angles[i] = bus.getAngle();
+			}
+		}
+		return converged;
+	}
+
+	/**
+	 * This method adds a change to the scheduled injection of a bus, taken
+	 * into account by the next solve.
+	 *
+	 * @param busNumber ID number of the bus
+	 * @param deltaMw Change of the real power injected into the system
+	 * @param deltaMvar Change of the reactive power injected into the system
+	 */
+	public void addInjection(int busNumber, double deltaMw, double deltaMvar) {
+		int i = indexOf(busNumber);
+		scheduledMw[i] += deltaMw;
+		scheduledMvar[i] += deltaMvar;
+	}
+
+	/**
+	 * This method sets the scheduled injection of a bus, taken into account
+	 * by the next solve.
+	 *
+	 * @param busNumber ID number of the bus
+	 * @param mw Real power injected into the system
+	 * @param mvar Reactive power injected into the system
+	 */
+	public void setInjection(int busNumber, double mw, double mvar) {
+		int i = indexOf(busNumber);
+		scheduledMw[i] = mw;
+		scheduledMvar[i] = mvar;
+	}
+
+	/**
+	 * This method sets the voltage a bus starts from at the next solve, which is
+	 * also its set point if it is a slack or voltage regulated bus.
+	 *
+	 * @param busNumber ID number of the bus
+	 * @param voltage Voltage magnitude
+	 */
+	public void setVoltage(int busNumber, double voltage) {
+		voltages[indexOf(busNumber)] = voltage;
+	}
+
+	/**
+	 * This method is called when a branch is switched or its admittance changes,
+	 * the yBus is then built again at the next solve.
+	 */
+	public void branchesChanged() {
+		keepYBus = false;
+	}
+
+	private int indexOf(int busNumber) {
+		int i = busIndex.indexOf(busNumber);
+		if (i == -1)
+			throw new IllegalArgumentException("Bus is not in the system");
+		return i;
+	}
+
+	public double getScheduledMw(int busNumber) {
+		return scheduledMw[indexOf(busNumber)];
+	}
+
+	public double getScheduledMvar(int busNumber) {
+		return scheduledMvar[indexOf(busNumber)];
+	}
+
+	/**
+	 * @return true if the last solve converged
+	 */
+	public boolean isConverged() {
+		return converged;
+	}
+
+	/**
+	 * @return number of iterations of the last solve
+	 */
+	public int getIterations() {
+		return iterations;
+	}
+
+	/**
+	 * @return number of iterations of all the solves of the session
+	 */
+	public int getTotalIterations() {
+		return totalIterations;
+	}
+
+	public int getSolveCount() {
+		return solveCount;
+	}
+
+	public FullNewton getSolver() {
+		return solver;
+	}
+}
@@ -0,0 +1,216 @@
+package snl.ccss.jpowerflow.ac;
+
+import java.util.Arrays;
+import java.util.List;
+
+import flanagan.complex.Complex;
+
+/**
+ * This class holds the yBus of a power system in compressed sparse
+ * row format, the real and imaginary parts of each entry being
+ * stored in primitive arrays along with its magnitude and angle, so
+ * the Newton solvers read them without any Complex object or any
+ * atan2 or square root in their iterations.
+ *
+ * The pattern holds the diagonal of every bus and the two buses of
+ * every branch, it only depends on the bus indexes of the branches
+ * and is built once for them.  The values are read from the branches
+ * by update, once per solve.
+ */
+public class AdmittanceMatrix {
+
+	private int busCount;
+	private int[] branchFrom;
+	private int[] branchTo;
+
+	private int[] rowPointers;
+	private int[] columns;
+	private int[] diagonal;
+	private int[] branchPositions;
+
+	private double[] real;
+	private double[] imag;
+	private double[] magnitude;
+	private double[] angle;
+
+	/**
+	 * Constructor for AdmittanceMatrix class, builds the pattern.
+	 *
+	 * @param busCount Number of buses
+	 * @param branchFrom Index of the "from" bus of each branch, -1 if it is not in the system
+	 * @param branchTo Index of the "to" bus of each branch, -1 if it is not in the system
+	 */
+	public AdmittanceMatrix(int busCount, int[] branchFrom, int[] branchTo) {
+		this.busCount = busCount;
+		this.branchFrom = branchFrom.clone();
+		this.branchTo = branchTo.clone();
+		int branchCount = branchFrom.length;
+
+		/*
+		 * Rows are sorted, each position being given once even for parallel branches.
+		 */
+		int[] count = new int[busCount + 1];
+		for (int i = 0; i < busCount; i++)
+			count[i + 1] = 1;
+		for (int i = 0; i < branchCount; i++) {
+			int from = branchFrom[i];
+			int to = branchTo[i];
+			if (from != -1 && to != -1 && from != to) {
+				count[from + 1]++;
+				count[to + 1]++;
+			}
+		}
+		for (int i = 0; i < busCount; i++)
+			count[i + 1] += count[i];
+		int[] next = new int[busCount];
+		int[] entries = new int[count[busCount]];
+		for (int i = 0; i < busCount; i++) {
+			entries[count[i]] = i;
+			next[i] = count[i] + 1;
+		}
+		for (int i = 0; i < branchCount; i++) {
+			int from = branchFrom[i];
+			int to = branchTo[i];
+			if (from != -1 && to != -1 && from != to) {
+				entries[next[from]++] = to;
+				entries[next[to]++] = from;
+			}
+		}
+		rowPointers = new int[busCount + 1];
+		int nonZeroCount = 0;
+		for (int i = 0; i < busCount; i++) {
+			Arrays.sort(entries, count[i], count[i + 1]);
+			for (int p = count[i]; p < count[i + 1]; p++) {
+				if (p == count[i] || entries[p] != entries[p - 1])
+					entries[nonZeroCount++] = entries[p];
+			}
+			rowPointers[i + 1] = nonZeroCount;
+		}
+		columns = Arrays.copyOf(entries, nonZeroCount);
+
+		diagonal = new int[busCount];
+		for (int i = 0; i < busCount; i++)
+			diagonal[i] = indexOf(i, i);
+
+		/*
+		 * Positions of the four entries each branch adds to, from-from, from-to, to-from and to-to.
+		 */
+		branchPositions = new int[branchCount * 4];
+		for (int i = 0; i < branchCount; i++) {
+			int from = branchFrom[i];
+			int to = branchTo[i];
+			if (from != -1 && to != -1) {
+				branchPositions[4 * i] = diagonal[from];
+				branchPositions[4 * i + 1] = indexOf(from, to);
+				branchPositions[4 * i + 2] = indexOf(to, from);
+				branchPositions[4 * i + 3] = diagonal[to];
+			}
+		}
+
+		real = new double[nonZeroCount];
+		imag = new double[nonZeroCount];
+		magnitude = new double[nonZeroCount];
+		angle = new double[nonZeroCount];
+	}
+
+	/**
+	 * @return true if this pattern was built for the same buses and branch indexes
+	 */
+	public boolean hasTopology(int busCount, int[] branchFrom, int[] branchTo) {
+		return this.busCount == busCount && Arrays.equals(this.branchFrom, branchFrom) && Arrays.equals(this.branchTo, branchTo);
+	}
+
+	/**
+	 * This method reads the admittances of the branches, in the order
+	 * given at construction, and computes the magnitude and angle of
+	 * every entry.
+	 *
+	 * @param branchList List of ACPFBranch objects
+	 */
+	public void update(List branchList) {
+		Arrays.fill(real, 0);
+		Arrays.fill(imag, 0);
+		for (int i = 0; i < branchFrom.length; i++) {
+			if (branchFrom[i] != -1 && branchTo[i] != -1) {
+				Complex[][] miniYBus = ((ACPFBranch)branchList.get(i)).getYBus();
+				add(branchPositions[4 * i], miniYBus[0][0]);
+				add(branchPositions[4 * i + 1], miniYBus[0][1]);
+				add(branchPositions[4 * i + 2], miniYBus[1][0]);
+				add(branchPositions[4 * i + 3], miniYBus[1][1]);
+			}
+		}
+
+		Complex entry = new Complex();
+		for (int p = 0; p < real.length; p++) {
+			entry.reset(real[p], imag[p]);
+			magnitude[p] = entry.abs();
+			angle[p] = entry.arg();
+		}
+	}
+
+	private void add(int position, Complex value) {
+		real[position] += value.getReal();
+		imag[position] += value.getImag();
+	}
+
+	/**
+	 * @return position of entry (i, j) in the value arrays, -1 if it is not in the pattern
+	 */
+	public int indexOf(int i, int j) {
+		int p = Arrays.binarySearch(columns, rowPointers[i], rowPointers[i + 1], j);
+		return p < 0 ? -1 : p;
+	}
+
+	/**
+	 * @return entry (i, j) as a new Complex, zero if it is not in the pattern
+	 */
+	public Complex getElement(int i, int j) {
+		int p = indexOf(i, j);
+		return p == -1 ? new Complex(0, 0) : new Complex(real[p], imag[p]);
+	}
+
+	public int getBusCount() {
+		return busCount;
+	}
+
+	public int getNonZeroCount() {
+		return columns.length;
+	}
+
+	/**
+	 * @return start of each row in the column and value arrays, of size busCount + 1
+	 */
+	public int[] getRowPointers() {
+		return rowPointers;
+	}
+
+	/**
+	 * @return sorted column of each entry
+	 */
+	public int[] getColumns() {
+		return columns;
+	}
+
+	/**
+	 * @return position of the diagonal entry of each bus
+	 */
+	public int[] getDiagonal() {
+		return diagonal;
+	}
+
+	public double[] getReal() {
+		return real;
+	}
+
+	public double[] getImag() {
+		return imag;
+	}
+
+	public double[] getMagnitude() {
+		return magnitude;
+	}
+
+	public double[] getAngle() {
+		return angle;
+	}
+}
@@ -0,0 +1,422 @@
+package snl.ccss.jpowerflow.ac;
+
+import java.util.Arrays;
+import java.util.List;
+
+import flanagan.complex.Complex;
+import snl.ccss.jpowerflow.AbstractPFSolver;
+import snl.ccss.jpowerflow.PFPowerSystem;
+import snl.ccss.jpowerflow.util.BusIndex;
+
+/**
+ * This class performs a steady-state AC power flow analysis on
+ * radial (tree shaped) power systems such as distribution feeders,
+ * with the backward/forward sweep technique.
+ *
+ * Each iteration walks the tree rooted at the slack bus twice.  The
+ * backward sweep goes from the leaves to the slack bus and sums, for
+ * every branch, the currents drawn by the buses on its far side at
+ * their present voltages.  The forward sweep goes from the slack bus
+ * to the leaves and computes the voltage at the far end of every
+ * branch from the voltage at its near end and its current.  Both are
+ * linear in the number of buses, and no matrix is built or factorized,
+ * so high R/X ratios do not hurt the convergence as they do with the
+ * decoupled Jacobians.
+ *
+ * Branches are described by their 2x2 yBus, so shunt admittances and
+ * transformers are taken into account.  All buses but the slack bus
+ * have fixed real and reactive power: generation buses are not voltage
+ * regulated by this solver.  The system has converged when no voltage
+ * changes by more than the convergence error during an iteration.
+ *
+ * Each solve starts from the voltages and angles of the bus objects,
+ * which are the results of the previous solve, so consecutive solves
+ * with close injections converge in a few iterations; see setFlatStart.
+ * When the energized branches do not form a tree spanning all buses
+ * from a single slack bus the solve is delegated to FullNewton.  The
+ * tree is kept between solves while the branches connect the same buses.
+ */
+public class BackwardForwardSweepSolver
+	   extends
+	   AbstractPFSolver {
+
+	private int maxIterations;
+	private double convergeError;
+	private boolean flatStart;
+
+	private List busList;
+	private List branchList;
+	private int busCount;
+	private int branchCount;
+	private int iterations;
+
+	/*
+	 * Tree built from the slack bus: buses in breadth-first order,
+	 * parent bus and parent branch of each bus and whether the bus is
+	 * on the "from" side of its parent branch.
+	 */
+	private int[] branchFrom;
+	private int[] branchTo;
+	private int slackBusIndex;
+	private int[] order;
+	private int[] parent;
+	private int[] parentBranch;
+	private boolean[] fromSide;
+	private boolean radial;
+
+	/*
+	 * For the parent branch of bus i, with Ic the current entering the branch at bus i:
+	 * the current entering it at the parent bus is Ip = a Ic + b V[i], and the voltage
+	 * of bus i is V[i] = c Ic + d V[parent].  Complex values are split in real and
+	 * imaginary arrays indexed by bus.
+	 */
+	private double[] aRe, aIm, bRe, bIm, cRe, cIm, dRe, dIm;
+	private double[] vRe, vIm;
+	private double[] childRe, childIm;
+	private double[] currentRe, currentIm;
+	private double[] branchLosses;
+	private double losses;
+
+	private FullNewton meshedSolver;
+
+	/**
+	 * Constructor for BackwardForwardSweepSolver class.
+	 *
+	 * @param maxIterations Maximum number of iterations to perform
+	 * @param convergeError Largest change of a per unit voltage, in magnitude, once the system has converged
+	 */
+	public BackwardForwardSweepSolver(int maxIterations, double convergeError) {
+		this.maxIterations = maxIterations;
+		this.convergeError = convergeError;
+		this.meshedSolver = new FullNewton(maxIterations, convergeError, convergeError, false);
+	}
+
+	/**
+	 * Main method for performing an AC power flow analysis.
+	 * This method checks that the system is radial and sweeps
+	 * its tree until the voltages stop changing.
+	 *
+	 * @param powerSystem PFPowerSystem that implements the required getBusList and getEnergizedBranchList methods
+	 * @return true if simulation converged within maximum number of iterations
+	 */
+	public boolean solve(PFPowerSystem powerSystem) {
+		busList = powerSystem.getBusList();
+		branchList = powerSystem.getEnergizedBranchList();
+		busCount = busList.size();
+		branchCount = branchList.size();
+		iterations = 0;
+
+		prepare();
+		if (!radial) {
+			boolean converged = meshedSolver.solve(powerSystem);
+			iterations = meshedSolver.getIterations();
+			losses = 0;
+			for (int i = 0; i < busCount; i++)
+				losses += ((ACPFBus)busList.get(i)).getBusMw();
+			branchLosses = null;
+			return converged;
+		}
+
+		readBranches();
+		ACPFBus slack = (ACPFBus)busList.get(slackBusIndex);
+		double slackRe = slack.getVoltage() * Math.cos(slack.getAngle());
+		double slackIm = slack.getVoltage() * Math.sin(slack.getAngle());
+		for (int i = 0; i < busCount; i++) {
+			ACPFBus bus = (ACPFBus)busList.get(i);
+			if (flatStart || bus.getVoltage() == 0) {
+				vRe[i] = slackRe;
+				vIm[i] = slackIm;
+			} else {
+				vRe[i] = bus.getVoltage() * Math.cos(bus.getAngle());
+				vIm[i] = bus.getVoltage() * Math.sin(bus.getAngle());
+			}
+		}
+		vRe[slackBusIndex] = slackRe;
+		vIm[slackBusIndex] = slackIm;
+
+		boolean converged = false;
+		while (!converged && iterations < maxIterations) {
+			iterations++;
+			backwardSweep();
+			converged = forwardSweep() <= convergeError;
+		}
+
+		/*
+		 * Currents at the final voltages give the slack bus power and the branch losses.  As in
+		 * FullNewton the reactive power of the slack bus is the one it injects into the branches.
+		 */
+		backwardSweep();
+		losses = 0;
+		for (int k = 1; k < busCount; k++) {
+			int i = order[k];
+			int p = parent[i];
+			double ipRe = aRe[i] * currentRe[i] - aIm[i] * currentIm[i] + bRe[i] * vRe[i] - bIm[i] * vIm[i];
+			double ipIm = aRe[i] * currentIm[i] + aIm[i] * currentRe[i] + bRe[i] * vIm[i] + bIm[i] * vRe[i];
+			branchLosses[parentBranch[i]] = vRe[p] * ipRe + vIm[p] * ipIm + vRe[i] * currentRe[i] + vIm[i] * currentIm[i];
+			losses += branchLosses[parentBranch[i]];
+		}
+		double slackMw = vRe[slackBusIndex] * childRe[slackBusIndex] + vIm[slackBusIndex] * childIm[slackBusIndex];
+		double slackMvar = vIm[slackBusIndex] * childRe[slackBusIndex] - vRe[slackBusIndex] * childIm[slackBusIndex];
+		slack.setBusMw(slackMw);
+		slack.setBusMvar(slackMvar);
+
+		for (int i = 0; i < busCount; i++) {
+			if (i == slackBusIndex)
+				continue;
+			ACPFBus bus = (ACPFBus)busList.get(i);
+			bus.setVoltage(Math.sqrt(vRe[i] * vRe[i] + vIm[i] * vIm[i]));
+			bus.setAngle(Math.atan2(vIm[i], vRe[i]));
+		}
+
+		if (DEBUG) {
+			if (converged)
+				System.out.println("System converged after " + iterations + " iterations.");
+			else
+				System.out.println("System did not converge before the maximum number of iterations were performed.");
+		}
+		return converged;
+	}
+
+	/*
+	 * Backward sweep: leaves first, each bus adds the current entering its parent branch at
+	 * the parent side to the currents drawn by its parent.  currentRe/Im[i] is left with the
+	 * current entering the parent branch of bus i at bus i.
+	 */
+	private void backwardSweep() {
+		Arrays.fill(childRe, 0);
+		Arrays.fill(childIm, 0);
+		for (int k = busCount - 1; k > 0; k--) {
+			int i = order[k];
+			ACPFBus bus = (ACPFBus)busList.get(i);
+
+			/*
+			 * Current injected by the bus, conj(S / V), the susceptance adding b |V|^2 of
+			 * reactive power as in the mismatch of FullNewton.
+			 */
+			double v2 = vRe[i] * vRe[i] + vIm[i] * vIm[i];
+			double sRe = bus.getBusMw();
+			double sIm = bus.getBusMvar() + v2 * bus.getSusceptance();
+			double injectedRe = (sRe * vRe[i] + sIm * vIm[i]) / v2;
+			double injectedIm = (sRe * vIm[i] - sIm * vRe[i]) / v2;
+
+			currentRe[i] = injectedRe - childRe[i];
+			currentIm[i] = injectedIm - childIm[i];
+			int p = parent[i];
+			childRe[p] += aRe[i] * currentRe[i] - aIm[i] * currentIm[i] + bRe[i] * vRe[i] - bIm[i] * vIm[i];
+			childIm[p] += aRe[i] * currentIm[i] + aIm[i] * currentRe[i] + bRe[i] * vIm[i] + bIm[i] * vRe[i];
+		}
+	}
+
+	/*
+	 * Forward sweep: from the slack bus, the voltage of each bus follows from the voltage of
+	 * its parent and the current of its parent branch.  Returns the largest voltage change.
+	 */
+	private double forwardSweep() {
+		double largest = 0;
+		for (int k = 1; k < busCount; k++) {
+			int i = order[k];
+			int p = parent[i];
+			double re = cRe[i] * currentRe[i] - cIm[i] * currentIm[i] + dRe[i] * vRe[p] - dIm[i] * vIm[p];
+			double im = cRe[i] * currentIm[i] + cIm[i] * currentRe[i] + dRe[i] * vIm[p] + dIm[i] * vRe[p];
+			largest = Math.max(largest, Math.abs(re - vRe[i]) + Math.abs(im - vIm[i]));
+			vRe[i] = re;
+			vIm[i] = im;
+		}
+		return largest;
+	}
+
+	/*
+	 * This method computes the sweep coefficients of every parent branch from its yBus.
+	 */
+	private void readBranches() {
+		for (int k = 1; k < busCount; k++) {
+			int i = order[k];
+			Complex[][] yBus = ((ACPFBranch)branchList.get(parentBranch[i])).getYBus();
+			int c = fromSide[i] ? 0 : 1;
+			int p = 1 - c;
+			Complex ycc = yBus[c][c];
+			Complex ycp = yBus[c][p];
+			Complex ypc = yBus[p][c];
+			Complex ypp = yBus[p][p];
+
+			Complex a = ypp.over(ycp);
+			Complex b = ypc.minus(ypp.times(ycc).over(ycp));
+			Complex cc = ycc.inverse();
+			Complex d = ycp.over(ycc).negate();
+			aRe[i] = a.getReal();
+			aIm[i] = a.getImag();
+			bRe[i] = b.getReal();
+			bIm[i] = b.getImag();
+			cRe[i] = cc.getReal();
+			cIm[i] = cc.getImag();
+			dRe[i] = d.getReal();
+			dIm[i] = d.getImag();
+		}
+	}
+
+	/*
+	 * This method resolves the bus indexes of the branches and builds the tree when they
+	 * changed since the last solve.
+	 */
+	private void prepare() {
+		int[] busNumbers = new int[busCount];
+		for (int i = 0; i < busCount; i++)
+			busNumbers[i] = ((ACPFBus)busList.get(i)).getNumber();
+		BusIndex busIndex = new BusIndex(busNumbers);
+		int[] fromBusNumbers = new int[branchCount];
+		int[] toBusNumbers = new int[branchCount];
+		for (int i = 0; i < branchCount; i++) {
+			ACPFBranch branch = (ACPFBranch)branchList.get(i);
+			fromBusNumbers[i] = branch.getFromBus();
+			toBusNumbers[i] = branch.getToBus();
+		}
+		int[] from = new int[branchCount];
+		int[] to = new int[branchCount];
+		busIndex.resolveBranches(fromBusNumbers, toBusNumbers, from, to);
+
+		int slack = -1;
+		for (int i = 0; i < busCount; i++) {
+			if (((ACPFBus)busList.get(i)).isSlackBus()) {
+				slack = slack == -1 ? i : -2;
+			}
+		}
+		if (order != null && slack == slackBusIndex && Arrays.equals(from, branchFrom) && Arrays.equals(to, branchTo))
+			return;
+
+		branchFrom = from;
+		branchTo = to;
+		slackBusIndex = slack;
+		radial = buildTree();
+		if (radial) {
+			aRe = new double[busCount];
+			aIm = new double[busCount];
+			bRe = new double[busCount];
+			bIm = new double[busCount];
+			cRe = new double[busCount];
+			cIm = new double[busCount];
+			dRe = new double[busCount];
+			dIm = new double[busCount];
+			vRe = new double[busCount];
+			vIm = new double[busCount];
+			childRe = new double[busCount];
+			childIm = new double[busCount];
+			currentRe = new double[busCount];
+			currentIm = new double[busCount];
+			branchLosses = new double[branchCount];
+		}
+
+		if (DEBUG) {
+			System.out.println();
+			System.out.println("Number of buses = " + busCount);
+			System.out.println("Number of branches = " + branchCount);
+			System.out.println("Radial system = " + radial);
+			System.out.println();
+		}
+	}
+
+	/*
+	 * This method walks the system from the slack bus and records the parent branch of every bus,
+	 * as RadialDCSolver does.  It returns false as soon as the system is found not to be a tree
+	 * spanning all the buses from a single slack bus.
+	 */
+	private boolean buildTree() {
+		order = new int[busCount];
+		if (slackBusIndex < 0)
+			return false;
+
+		int[] degree = new int[busCount + 1];
+		int edges = 0;
+		for (int i = 0; i < branchCount; i++) {
+			if (branchFrom[i] != -1 && branchTo[i] != -1) {
+				if (branchFrom[i] == branchTo[i])
+					return false;
+				degree[branchFrom[i] + 1]++;
+				degree[branchTo[i] + 1]++;
+				edges++;
+			}
+		}
+		if (edges != busCount - 1)
+			return false;
+		for (int i = 0; i < busCount; i++)
+			degree[i + 1] += degree[i];
+		int[] adjacent = new int[2 * edges];
+		int[] fill = new int[busCount];
+		for (int i = 0; i < branchCount; i++) {
+			if (branchFrom[i] != -1 && branchTo[i] != -1) {
+				adjacent[degree[branchFrom[i]] + fill[branchFrom[i]]++] = i;
+				adjacent[degree[branchTo[i]] + fill[branchTo[i]]++] = i;
+			}
+		}
+
+		parent = new int[busCount];
+		parentBranch = new int[busCount];
+		fromSide = new boolean[busCount];
+		boolean[] visited = new boolean[busCount];
+		int head = 0;
+		int tail = 0;
+		order[tail++] = slackBusIndex;
+		visited[slackBusIndex] = true;
+		parentBranch[slackBusIndex] = -1;
+		while (head < tail) {
+			int bus = order[head++];
+			for (int k = degree[bus]; k < degree[bus + 1]; k++) {
+				int branch = adjacent[k];
+				if (branch == parentBranch[bus])
+					continue;
+				int other = branchFrom[branch] == bus ? branchTo[branch] : branchFrom[branch];
+				if (visited[other])
+					return false;
+				visited[other] = true;
+				parent[other] = bus;
+				parentBranch[other] = branch;
+				fromSide[other] = branchFrom[branch] == other;
+				order[tail++] = other;
+			}
+		}
+
+		return tail == busCount;
+	}
+
+	/**
+	 * @param flatStart Set to true to start every solve from the slack bus voltage instead of the bus voltages
+	 */
+	public void setFlatStart(boolean flatStart) {
+		this.flatStart = flatStart;
+	}
+
+	public void setMaxIterations(int maxIterations) {
+		this.maxIterations = maxIterations;
+		this.meshedSolver.setMaxIterations(maxIterations);
+	}
+
+	public void setConvergeError(double convergeError) {
+		this.convergeError = convergeError;
+		this.meshedSolver.setAdjustError(convergeError);
+		this.meshedSolver.setConvergeError(convergeError);
+	}
+
+	public int getIterations() {
+		return iterations;
+	}
+
+	/**
+	 * @return total real power losses of the last solve, in per unit
+	 */
+	public double getLosses() {
+		return losses;
+	}
+
+	/**
+	 * @return real power losses of each branch of the last solve, in branch list order, null if the system was not radial
+	 */
+	public double[] getBranchLosses() {
+		return radial ? branchLosses : null;
+	}
+
+	/**
+	 * @return true if the last solve swept the tree, false if it was delegated to FullNewton
+	 */
+	public boolean isRadial() {
+		return radial;
+	}
+}
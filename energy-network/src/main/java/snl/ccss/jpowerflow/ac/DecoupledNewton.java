@@ -22,7 +22,6 @@
 
 package snl.ccss.jpowerflow.ac;
 
-import flanagan.complex.Complex;
 import flanagan.math.Matrix;
 import snl.ccss.jpowerflow.PFPowerSystem;
 import snl.ccss.jpowerflow.util.Utilities;
@@ -103,7 +102,7 @@ public class DecoupledNewton
 			System.out.println("Y-Bus Matrix:");
 			for (int i = 0; i < busCount; i++) {
 				for (int j = 0; j < busCount; j++) {
-					System.out.print(yBus[i][j] + "  ");
+					System.out.print(yBus.getElement(i, j) + "  ");
 				}
 				System.out.println();
 			}
@@ -227,12 +226,16 @@ public class DecoupledNewton
 		deltaReal = new double[busCount];
 		deltaReact = new double[busCount];
 
+		int[] yRowPointers = yBus.getRowPointers();
+		int[] yColumns = yBus.getColumns();
+		double[] yMagnitude = yBus.getMagnitude();
+		double[] yAngle = yBus.getAngle();
 		for (int i = 0; i < busCount; i++) {
 			ACPFBus iBus = (ACPFBus)busList.get(i);
-			for (int j = 0; j < busCount; j++) {
-				ACPFBus jBus = (ACPFBus)busList.get(j);
-				realPower[i] += iBus.getVoltage() * Complex.abs(yBus[i][j]) * jBus.getVoltage() * Math.cos(iBus.getAngle() - jBus.getAngle() - Complex.arg(yBus[i][j]));
-				reactPower[i] += iBus.getVoltage() * Complex.abs(yBus[i][j]) * jBus.getVoltage() * Math.sin(iBus.getAngle() - jBus.getAngle() - Complex.arg(yBus[i][j]));
+			for (int p = yRowPointers[i]; p < yRowPointers[i + 1]; p++) {
+				ACPFBus jBus = (ACPFBus)busList.get(yColumns[p]);
+				realPower[i] += iBus.getVoltage() * yMagnitude[p] * jBus.getVoltage() * Math.cos(iBus.getAngle() - jBus.getAngle() - yAngle[p]);
+				reactPower[i] += iBus.getVoltage() * yMagnitude[p] * jBus.getVoltage() * Math.sin(iBus.getAngle() - jBus.getAngle() - yAngle[p]);
 			}
 			double actualSusceptance = iBus.getVoltage() * iBus.getVoltage() * iBus.getSusceptance();
 			deltaReal[i] = iBus.getBusMw() - realPower[i];
@@ -244,12 +247,20 @@ public class DecoupledNewton
 		J1 = new double[busCount][busCount];
 		J4 = new double[busCount][busCount];
 
+		int[] yRowPointers = yBus.getRowPointers();
+		int[] yColumns = yBus.getColumns();
+		double[] yReal = yBus.getReal();
+		double[] yImag = yBus.getImag();
 		for (int i = 0; i < busCount; i++) {
-			for (int j = 0; j < busCount; j++) {
+			for (int p = yRowPointers[i]; p < yRowPointers[i + 1]; p++) {
+				int j = yColumns[p];
 				if (i != j) {
-					if (!Complex.isEqual(yBus[i][j], new Complex(0,0))) {
-						J1[i][j] = (1 / (Complex.inverse(yBus[i][j]).getImag()));
-						J4[i][j] = -yBus[i][j].getImag();
+					if (yReal[p] != 0 || yImag[p] != 0) {
+						/*
+						 * Imaginary part of 1 / y is -imag / |y|^2.
+						 */
+						J1[i][j] = 1 / (-yImag[p] / (yReal[p] * yReal[p] + yImag[p] * yImag[p]));
+						J4[i][j] = -yImag[p];
 					
 						J1[i][i] += -J1[i][j];
 						J4[i][i] += -J4[i][j];
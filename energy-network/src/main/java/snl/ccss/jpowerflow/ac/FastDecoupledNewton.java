@@ -0,0 +1,330 @@
+package snl.ccss.jpowerflow.ac;
+
+import java.util.Arrays;
+
+import flanagan.complex.Complex;
+import flanagan.math.Matrix;
+import snl.ccss.jpowerflow.PFPowerSystem;
+import snl.ccss.jpowerflow.util.Ordering;
+import snl.ccss.jpowerflow.util.SparseLU;
+import snl.ccss.jpowerflow.util.SparseMatrix;
+import snl.ccss.jpowerflow.util.Utilities;
+
+/**
+ * This class extends FullNewton and performs the fast decoupled
+ * steady-state power flow analysis.
+ *
+ * The angles are corrected with B' and the voltages with B'', two
+ * constant matrices built on the yBus pattern and factorized with a
+ * sparse LU, so every iteration only computes the power mismatches
+ * and solves with the factors.  Each iteration is a half iteration on
+ * the angles followed by a half iteration on the voltages, the
+ * mismatches being computed again in between.
+ *
+ * In the XB scheme B' ignores the branch resistances and B'' is the
+ * imaginary part of the yBus; in the BX scheme B' is the series
+ * susceptance of the branches and B'' ignores their resistances.  The
+ * factors are kept for all iterations and all subsequent solves, they
+ * are only computed again when the admittances of the branches or the
+ * slack and voltage regulated buses change.
+ */
+public class FastDecoupledNewton
+	   extends
+	   FullNewton {
+
+	public static final int XB = 0;
+	public static final int BX = 1;
+
+	private int scheme;
+
+	/*
+	 * B' and B'' on the yBus pattern, without and with the rows and columns of the
+	 * fixed angles and voltages replaced by a large diagonal entry, as in zeroJac.
+	 */
+	private double[] bPrime;
+	private double[] bDoublePrime;
+	private double[] fixedValues;
+	private SparseLU bPrimeLU;
+	private SparseLU bDoublePrimeLU;
+
+	/*
+	 * Admittances and fixed variables the factors were computed for.
+	 */
+	private AdmittanceMatrix factorYBus;
+	private double[] factorReal;
+	private double[] factorImag;
+	private boolean[] factorFixed;
+
+	private boolean[] fixed;
+	private double[] rhs;
+	private double[] correction;
+	private double[] work;
+
+	/**
+	 * Default constructor for FastDecoupledNewton class, with the XB scheme.
+	 *
+	 * Required parameters will need to be set using the get/set
+	 * methods if this constructor is used.
+	 */
+	public FastDecoupledNewton() {
+		super();
+		this.scheme = XB;
+	}
+
+	/**
+	 * Argument-accepting constructor for FastDecoupledNewton class.
+	 *
+	 * @param maxIterations Maximum number of iterations to perform
+	 * @param adjustError Value of power mismatch that determines when generator reactive power limits should be examined
+	 * @param convergeError Value of power mismatch that determines the system has converged
+	 * @param enforceGenMvarLimits Set to true if reactive power limits of generators should be enforced
+	 * @param scheme XB or BX
+	 */
+	public FastDecoupledNewton(int maxIterations, double adjustError, double convergeError, boolean enforceGenMvarLimits, int scheme) {
+		super(maxIterations, adjustError, convergeError, enforceGenMvarLimits);
+		this.scheme = scheme;
+	}
+
+	/**
+	 * Main method for performing an AC power flow analysis.
+	 * This method fills the yBus for the system, factorizes B'
+	 * and B'' if they changed, and iterates with the factors.
+	 *
+	 * @param powerSystem PFPowerSystem that implements the required getBusList and getEnergizedBranchList methods
+	 * @return true if simulation converged within maximum number of iterations
+	 */
+	public boolean solve(PFPowerSystem powerSystem) {
+		busList = powerSystem.getBusList();
+		branchList = powerSystem.getEnergizedBranchList();
+
+		busCount = busList.size();
+		branchCount = branchList.size();
+
+		if (DEBUG) {
+			System.out.println();
+			System.out.println("Number of buses = " + busCount);
+			System.out.println("Number of branches = " + branchCount);
+			System.out.println();
+		}
+
+		iterations = 0;
+
+		/*
+		 * A singular B' or B'' means that some buses are not connected to a slack bus.
+		 */
+		if (!keepYBus || yBus == null)
+			buildYBus();
+		if (!factorize())
+			return false;
+
+		for (int z = 0; z < maxIterations; z++) {
+			iterations++;
+
+			if (DEBUG) {
+				System.out.println();
+				System.out.println("Iteration #" + iterations);
+				System.out.println();
+			}
+
+			calculatePower();
+			mismatchCheck();
+
+			if (convergeFlag || iterations == maxIterations) {
+				for (int i = 0; i < busCount; i++) {
+					ACPFBus bus = (ACPFBus)busList.get(i);
+					bus.setBusMw(power[i]);
+					bus.setBusMvar(power[i + busCount]);
+				}
+
+				if (exportJacobian) {
+					double[][] dense = new double[busCount][busCount];
+					int[] rowPointers = yBus.getRowPointers();
+					int[] columns = yBus.getColumns();
+					for (int i = 0; i < busCount; i++) {
+						for (int p = rowPointers[i]; p < rowPointers[i + 1]; p++)
+							dense[i][columns[p]] = bDoublePrime[p];
+					}
+					Utilities.jacobian = new Matrix(dense);
+					Utilities.createJacobianMap(busList);
+				}
+				break;
+			}
+
+			/*
+			 * Angle half iteration, then voltage half iteration on the mismatches of the new angles.
+			 */
+			for (int i = 0; i < busCount; i++) {
+				ACPFBus bus = (ACPFBus)busList.get(i);
+				rhs[i] = fixed[i] ? 0 : deltaPower[i] / bus.getVoltage();
+			}
+			bPrimeLU.solve(rhs, work, correction);
+			for (int i = 0; i < busCount; i++) {
+				ACPFBus bus = (ACPFBus)busList.get(i);
+				bus.setAngle(bus.getAngle() + correction[i]);
+			}
+
+			calculatePower();
+			for (int i = 0; i < busCount; i++) {
+				ACPFBus bus = (ACPFBus)busList.get(i);
+				rhs[i] = fixed[i + busCount] ? 0 : deltaPower[i + busCount] / bus.getVoltage();
+			}
+			bDoublePrimeLU.solve(rhs, work, correction);
+			for (int i = 0; i < busCount; i++) {
+				ACPFBus bus = (ACPFBus)busList.get(i);
+				bus.setVoltage(bus.getVoltage() + correction[i]);
+			}
+		}
+
+		if (iterations < maxIterations) {
+			System.out.println("System converged after " + iterations + " iterations.");
+			return true;
+		} else {
+			System.out.println("System did not converge before the maximum number of iterations were performed.");
+			return false;
+		}
+	}
+
+	/*
+	 * This method builds and factorizes B' and B'' unless the admittances and the fixed
+	 * variables are the ones of the last factorization.  Returns false if one is singular.
+	 */
+	protected boolean factorize() {
+		int nonZeroCount = yBus.getNonZeroCount();
+		if (yBus != factorYBus) {
+			int[] busOrder = Ordering.reverseCuthillMcKee(new SparseMatrix(busCount, yBus.getRowPointers(), yBus.getColumns(), yBus.getReal()));
+			bPrimeLU = new SparseLU(busCount, yBus.getRowPointers(), yBus.getColumns(), busOrder);
+			bDoublePrimeLU = new SparseLU(busCount, yBus.getRowPointers(), yBus.getColumns(), busOrder);
+			bPrime = new double[nonZeroCount];
+			bDoublePrime = new double[nonZeroCount];
+			fixedValues = new double[nonZeroCount];
+			fixed = new boolean[busCount * 2];
+			power = new double[busCount * 2];
+			deltaPower = new double[busCount * 2];
+			rhs = new double[busCount];
+			correction = new double[busCount];
+			work = new double[busCount];
+			factorReal = null;
+		}
+
+		/*
+		 * As in zeroJac, the angle of a slack bus and the voltage of a slack bus or of a bus
+		 * with generators available for Automatic Voltage Regulation (AVR) are fixed.
+		 */
+		for (int i = 0; i < busCount; i++) {
+			ACPFBus bus = (ACPFBus)busList.get(i);
+			fixed[i] = bus.isGenerationBus() && bus.isSlackBus();
+			fixed[i + busCount] = bus.isGenerationBus() && (bus.isSlackBus() || bus.isAVR());
+		}
+
+		if (factorReal != null && Arrays.equals(factorReal, yBus.getReal()) && Arrays.equals(factorImag, yBus.getImag()) && Arrays.equals(factorFixed, fixed))
+			return true;
+
+		buildMatrices();
+		if (!bPrimeLU.factorize(fixValues(bPrime, 0)))
+			return false;
+		if (!bDoublePrimeLU.factorize(fixValues(bDoublePrime, busCount)))
+			return false;
+
+		factorYBus = yBus;
+		factorReal = yBus.getReal().clone();
+		factorImag = yBus.getImag().clone();
+		factorFixed = fixed.clone();
+		return true;
+	}
+
+	/*
+	 * This method fills B' and B'' from the yBus of every branch.  The series admittance of a
+	 * branch is the opposite of its from-to entry, its shunts being what is left on the diagonal.
+	 */
+	private void buildMatrices() {
+		Arrays.fill(bPrime, 0);
+		Arrays.fill(bDoublePrime, 0);
+		int[] diagonal = yBus.getDiagonal();
+		for (int k = 0; k < branchCount; k++) {
+			int from = branchFrom[k];
+			int to = branchTo[k];
+			if (from == -1 || to == -1 || from == to)
+				continue;
+
+			Complex[][] miniYBus = ((ACPFBranch)branchList.get(k)).getYBus();
+			double seriesReal = -miniYBus[0][1].getReal();
+			double seriesImag = -miniYBus[0][1].getImag();
+
+			/*
+			 * Susceptance without the resistance, 1 / x, and series susceptance, x / (r^2 + x^2).
+			 */
+			double reactance = -seriesImag / (seriesReal * seriesReal + seriesImag * seriesImag);
+			double withoutResistance = 1 / reactance;
+			double series = -seriesImag;
+			double prime = scheme == XB ? withoutResistance : series;
+			double doublePrime = scheme == XB ? series : withoutResistance;
+
+			int fromTo = yBus.indexOf(from, to);
+			int toFrom = yBus.indexOf(to, from);
+			bPrime[fromTo] -= prime;
+			bPrime[toFrom] -= prime;
+			bPrime[diagonal[from]] += prime;
+			bPrime[diagonal[to]] += prime;
+
+			bDoublePrime[fromTo] -= doublePrime;
+			bDoublePrime[toFrom] -= doublePrime;
+			bDoublePrime[diagonal[from]] += doublePrime - (miniYBus[0][0].getImag() + miniYBus[0][1].getImag());
+			bDoublePrime[diagonal[to]] += doublePrime - (miniYBus[1][1].getImag() + miniYBus[1][0].getImag());
+		}
+	}
+
+	/*
+	 * This method returns a copy of the values with the rows and columns of the fixed
+	 * variables zeroed out, except for a large diagonal entry.  The offset is 0 for the
+	 * angles and busCount for the voltages.
+	 */
+	private double[] fixValues(double[] values, int offset) {
+		int[] rowPointers = yBus.getRowPointers();
+		int[] columns = yBus.getColumns();
+		for (int i = 0; i < busCount; i++) {
+			for (int p = rowPointers[i]; p < rowPointers[i + 1]; p++) {
+				int j = columns[p];
+				if (fixed[i + offset] || fixed[j + offset])
+					fixedValues[p] = i == j ? 1e+10 : 0;
+				else
+					fixedValues[p] = values[p];
+			}
+		}
+		return fixedValues;
+	}
+
+	/*
+	 * Power values and mismatches at the current voltages.
+	 */
+	protected void calculatePower() {
+		int[] rowPointers = yBus.getRowPointers();
+		int[] columns = yBus.getColumns();
+		double[] magnitude = yBus.getMagnitude();
+		double[] angle = yBus.getAngle();
+		for (int i = 0; i < busCount; i++) {
+			ACPFBus iBus = (ACPFBus)busList.get(i);
+			double realPower = 0;
+			double reactPower = 0;
+			for (int p = rowPointers[i]; p < rowPointers[i + 1]; p++) {
+				ACPFBus jBus = (ACPFBus)busList.get(columns[p]);
+				realPower += magnitude[p] * jBus.getVoltage() * Math.cos(iBus.getAngle() - jBus.getAngle() - angle[p]);
+				reactPower += magnitude[p] * jBus.getVoltage() * Math.sin(iBus.getAngle() - jBus.getAngle() - angle[p]);
+			}
+			power[i] = realPower * iBus.getVoltage();
+			power[i + busCount] = reactPower * iBus.getVoltage();
+
+			double actualSusceptance = iBus.getVoltage() * iBus.getVoltage() * iBus.getSusceptance();
+			deltaPower[i] = iBus.getBusMw() - power[i];
+			deltaPower[i + busCount] = iBus.getBusMvar() + actualSusceptance - power[i + busCount];
+		}
+	}
+
+	public int getScheme() {
+		return scheme;
+	}
+
+	public void setScheme(int scheme) {
+		this.scheme = scheme;
+		this.factorReal = null;
+	}
+}
@@ -22,12 +22,16 @@
 
 package snl.ccss.jpowerflow.ac;
 
+import java.util.Arrays;
 import java.util.List;
 
-import flanagan.complex.Complex;
 import flanagan.math.Matrix;
 import snl.ccss.jpowerflow.AbstractPFSolver;
 import snl.ccss.jpowerflow.PFPowerSystem;
+import snl.ccss.jpowerflow.util.BusIndex;
+import snl.ccss.jpowerflow.util.Ordering;
+import snl.ccss.jpowerflow.util.SparseLU;
+import snl.ccss.jpowerflow.util.SparseMatrix;
 import snl.ccss.jpowerflow.util.Utilities;
 
 /**
@@ -36,6 +40,12 @@ import snl.ccss.jpowerflow.util.Utilities;
  * 
  * This class uses the Full Newton-Raphson iterative technique
  * for solving the unknowns in the power system.
+ * 
+ * The Jacobian matrix is stored by rows (CSR), its entries being
+ * the ones coupling two buses linked by a branch.  Its pattern and
+ * the symbolic factorization are computed once and kept as long as
+ * the buses and branches are the same; every iteration only fills
+ * the values and factorizes them again with a sparse LU.
  *  
  * @author Bryan T. Richardson - Sandia National Laboratories
  */
@@ -56,12 +66,39 @@ public class FullNewton
 	
 	protected int iterations;
 	
-	protected Complex[][] yBus;
+	protected BusIndex busIndex;
+	protected int[] branchFrom;
+	protected int[] branchTo;
+	
+	protected AdmittanceMatrix yBus;
 	protected double[] power;
 	protected double[] deltaPower;
-	protected double[][] jac;
 	protected boolean adjustFlag;
 	protected boolean convergeFlag;
+	protected boolean exportJacobian = true;
+	
+	/*
+	 * Set by ACSolverSession while the branches are the ones of the last solve,
+	 * the yBus of the last solve is then used as is.
+	 */
+	boolean keepYBus;
+	
+	/*
+	 * The Jacobian rows of a bus hold the angle columns then the voltage columns of the buses
+	 * of its yBus row: with the yBus row pointers, row i starts at 2 * yRowPointers[i] and
+	 * row i + busCount at 2 * (yNonZeroCount + yRowPointers[i]).
+	 */
+	protected int[] jacRowPointers;
+	protected int[] jacColumns;
+	protected double[] jacValues;
+	protected SparseLU jacLU;
+	
+	private AdmittanceMatrix jacPatternYBus;
+	private double[] voltages;
+	private double[] angles;
+	private boolean[] fixedVariables;
+	private double[] deltaVoltage;
+	private double[] work;
 	
 	/**
 	 * Default constructor for FullNewton class.
@@ -112,16 +149,18 @@ public class FullNewton
 		iterations = 0;
 		
 		/*
-		 * Y-Bus matrix is built
+		 * Y-Bus matrix is built, unless a session keeps the one of the last solve
 		 */
-		buildYBus();
+		if (!keepYBus || yBus == null)
+			buildYBus();
+		buildJacobianPattern();
 		
 		if (DEBUG) {
 			System.out.println();
 			System.out.println("Y-Bus Matrix:");
 			for (int i = 0; i < busCount; i++) {
 				for (int j = 0; j < busCount; j++) {
-					System.out.print(yBus[i][j] + "  ");
+					System.out.print(yBus.getElement(i, j) + "  ");
 				}
 				System.out.println();
 			}
@@ -149,6 +188,7 @@ public class FullNewton
 			if (DEBUG) {
 				System.out.println();
 				System.out.println("Jacobian Matrix:");
+				double[][] jac = denseJacobian();
 				for (int i = 0; i < busCount * 2; i++) {
 					for (int j = 0; j < busCount * 2; j++) {
 						System.out.print(Utilities.roundDouble(jac[i][j], 2) + "  ");
@@ -174,8 +214,10 @@ public class FullNewton
 					bus.setBusMvar(power[i + busCount]);
 				}
 
-				Utilities.jacobian = new Matrix(jac);
-				Utilities.createJacobianMap(busList);
+				if (exportJacobian) {
+					Utilities.jacobian = new Matrix(denseJacobian());
+					Utilities.createJacobianMap(busList);
+				}
 
 				break;
 			}
@@ -211,10 +253,14 @@ public class FullNewton
 			zeroJac();
 			
 			/*
-			 * Change in voltage values are calculated using Gaussian elimination and back substitution.
+			 * Change in voltage values are calculated using a sparse LU factorization and
+			 * forward and back substitution.  Pivots are taken on the diagonal, should one
+			 * be too small the dense Gaussian elimination with pivoting is used instead.
 			 */
-			Matrix matrixJac = new Matrix(jac);
-			double[] deltaVoltage = matrixJac.solveLinearSet(deltaPower);
+			if (jacLU.factorize(jacValues))
+				jacLU.solve(deltaPower, work, deltaVoltage);
+			else
+				System.arraycopy(new Matrix(denseJacobian()).solveLinearSet(deltaPower), 0, deltaVoltage, 0, busCount * 2);
 			
 			/*
 			 * Voltage values for each object are updated every iteration for use in the next iteration.
@@ -236,89 +282,178 @@ public class FullNewton
 	}
 	
 	/*
-	 * This method uses data from each branch object to create yBus for the entire system.
+	 * This method uses data from each branch object to fill the yBus for the entire system.
+	 * The bus indexes at both ends of every branch are resolved first, through a bus
+	 * number index built once for the bus list, and the pattern of the yBus is kept as long
+	 * as they are the same.
+	 * 
+	 * In some programs, the user/coder may wish to make it possible for buses and branches to be disabled.
+	 * There should be a filter method of some sort when getting a list of bus and branch objects to send to 
+	 * this simulation so that only enabled objects are present in the lists.  A branch with a bus index of
+	 * "-1" on one or both ends, if a bus is disabled but the branch itself is still enabled, is left out.
 	 */
 	protected void buildYBus() {
-		yBus = Complex.twoDarray(busCount, busCount);
+		resolveBranches();
+		if (yBus == null || !yBus.hasTopology(busCount, branchFrom, branchTo))
+			yBus = new AdmittanceMatrix(busCount, branchFrom, branchTo);
+		yBus.update(branchList);
+	}
+	
+	/*
+	 * This method fills branchFrom and branchTo with the bus index on each side of every branch.
+	 */
+	protected void resolveBranches() {
+		int[] busNumbers = new int[busCount];
+		for (int i = 0; i < busCount; i++)
+			busNumbers[i] = ((ACPFBus)busList.get(i)).getNumber();
+		busIndex = new BusIndex(busNumbers);
 
+		int[] fromBusNumbers = new int[branchCount];
+		int[] toBusNumbers = new int[branchCount];
 		for (int i = 0; i < branchCount; i++) {
 			ACPFBranch branch = (ACPFBranch)branchList.get(i);
-			int fromBus = branch.getFromBus();
-			int toBus = branch.getToBus();
-			Complex[][] miniYBus = branch.getYBus();
-			int from = -1;
-			int to = -1;
-			
-			for (int j = 0; j < busCount; j++) {
-				ACPFBus bus = (ACPFBus)busList.get(j);
-				int busNumber = bus.getNumber();
-				if (fromBus == busNumber)
-					from = j;
-				else if (toBus == busNumber)
-					to = j;
-			}
-			
-			/*
-			 * In some programs, the user/coder may wish to make it possible for buses and branches to be disabled.
-			 * There should be a filter method of some sort when getting a list of bus and branch objects to send to 
-			 * this simulation so that only enabled objects are present in the lists.  The "-1" check is here incase
-			 * a bus on one or both ends of a branch is disabled, but the branch itself is still enabled.
-			 */
-			if (from != -1 && to != -1) {
-				yBus[from][from].plusEquals(miniYBus[0][0]);
-				yBus[from][to].plusEquals(miniYBus[0][1]);
-				yBus[to][from].plusEquals(miniYBus[1][0]);
-				yBus[to][to].plusEquals(miniYBus[1][1]);
+			fromBusNumbers[i] = branch.getFromBus();
+			toBusNumbers[i] = branch.getToBus();
+		}
+		branchFrom = new int[branchCount];
+		branchTo = new int[branchCount];
+		busIndex.resolveBranches(fromBusNumbers, toBusNumbers, branchFrom, branchTo);
+	}
+	
+	/*
+	 * This method builds the pattern of the Jacobian matrix from the pattern of the yBus, and
+	 * the symbolic factorization of the Jacobian.  They are kept as long as the yBus pattern is.
+	 */
+	protected void buildJacobianPattern() {
+		if (jacLU != null && jacPatternYBus == yBus)
+			return;
+		int[] yRowPointers = yBus.getRowPointers();
+		int[] yColumns = yBus.getColumns();
+		int nonZeroCount = yBus.getNonZeroCount();
+
+		/*
+		 * Jacobian rows, see jacRowPointers.
+		 */
+		jacRowPointers = new int[busCount * 2 + 1];
+		jacColumns = new int[nonZeroCount * 4];
+		for (int i = 0; i < busCount; i++) {
+			jacRowPointers[i + 1] = 2 * yRowPointers[i + 1];
+			jacRowPointers[i + busCount + 1] = 2 * (nonZeroCount + yRowPointers[i + 1]);
+		}
+		for (int i = 0; i < busCount; i++) {
+			int degree = yRowPointers[i + 1] - yRowPointers[i];
+			for (int p = yRowPointers[i]; p < yRowPointers[i + 1]; p++) {
+				int q = p - yRowPointers[i];
+				int j = yColumns[p];
+				jacColumns[jacRowPointers[i] + q] = j;
+				jacColumns[jacRowPointers[i] + degree + q] = j + busCount;
+				jacColumns[jacRowPointers[i + busCount] + q] = j;
+				jacColumns[jacRowPointers[i + busCount] + degree + q] = j + busCount;
 			}
 		}
+		jacValues = new double[nonZeroCount * 4];
+
+		/*
+		 * The buses are ordered on the yBus graph, the angle and voltage of a bus being kept
+		 * next to each other so that the diagonal blocks are eliminated together.
+		 */
+		int[] busOrder = Ordering.reverseCuthillMcKee(new SparseMatrix(busCount, yRowPointers, yColumns, yBus.getReal()));
+		int[] perm = new int[busCount * 2];
+		for (int k = 0; k < busCount; k++) {
+			perm[2 * k] = busOrder[k];
+			perm[2 * k + 1] = busOrder[k] + busCount;
+		}
+		jacLU = new SparseLU(busCount * 2, jacRowPointers, jacColumns, perm);
+
+		power = new double[busCount * 2];
+		deltaPower = new double[busCount * 2];
+		deltaVoltage = new double[busCount * 2];
+		work = new double[busCount * 2];
+		voltages = new double[busCount];
+		angles = new double[busCount];
+		fixedVariables = new boolean[busCount * 2];
+
+		jacPatternYBus = yBus;
 	}
 	
 	/*
 	 * Power and Jacobian values are calculated at the same time so as to minimize the number of for loops the simulation
-	 * must run each iteration.  The Jacobian matrix is created here.
+	 * must run each iteration.  Only the entries of the Jacobian pattern are computed, the diagonal ones
+	 * being sums over the same yBus row.
 	 */
 	protected void calculatePowerJac() {
-		power = new double[busCount * 2];
-		deltaPower = new double[busCount * 2];
-		jac = new double[busCount * 2][busCount * 2];
+		for (int i = 0; i < busCount; i++) {
+			ACPFBus bus = (ACPFBus)busList.get(i);
+			voltages[i] = bus.getVoltage();
+			angles[i] = bus.getAngle();
+		}
 
+		int[] yRowPointers = yBus.getRowPointers();
+		int[] yColumns = yBus.getColumns();
+		double[] yMagnitude = yBus.getMagnitude();
+		double[] yAngle = yBus.getAngle();
 		for (int i = 0; i < busCount; i++) {
 			ACPFBus iBus = (ACPFBus)busList.get(i);
-			for (int j = 0; j < busCount; j++) {
-				ACPFBus jBus = (ACPFBus)busList.get(j);
-				power[i] += Complex.abs(yBus[i][j]) * jBus.getVoltage() * Math.cos(iBus.getAngle() - jBus.getAngle() - Complex.arg(yBus[i][j]));
-				power[i + busCount] += Complex.abs(yBus[i][j]) * jBus.getVoltage() * Math.sin(iBus.getAngle() - jBus.getAngle() - Complex.arg(yBus[i][j]));
+			double iVoltage = voltages[i];
+			double iAngle = angles[i];
+			int start = yRowPointers[i];
+			int degree = yRowPointers[i + 1] - start;
+			int pRow = jacRowPointers[i];
+			int qRow = jacRowPointers[i + busCount];
+			int diagonal = -1;
+			double sumCos = 0;
+			double sumSin = 0;
+			double offSumSin = 0;
+			double offSumCos = 0;
+			for (int q = 0; q < degree; q++) {
+				int j = yColumns[start + q];
+				double abs = yMagnitude[start + q];
+				double arg = yAngle[start + q];
+				double cos = Math.cos(iAngle - angles[j] - arg);
+				double sin = Math.sin(iAngle - angles[j] - arg);
+				sumCos += abs * voltages[j] * cos;
+				sumSin += abs * voltages[j] * sin;
 				if (i != j) {
-					jac[i][j] = iBus.getVoltage() * Complex.abs(yBus[i][j]) * jBus.getVoltage() * Math.sin(iBus.getAngle() - jBus.getAngle() - Complex.arg(yBus[i][j]));
-					jac[i][j + busCount] = iBus.getVoltage() * Complex.abs(yBus[i][j]) * Math.cos(iBus.getAngle() - jBus.getAngle() - Complex.arg(yBus[i][j]));
-					jac[i + busCount][j] = -iBus.getVoltage() * Complex.abs(yBus[i][j]) * jBus.getVoltage() * Math.cos(iBus.getAngle() - jBus.getAngle() - Complex.arg(yBus[i][j]));
-					jac[i + busCount][j + busCount] = iBus.getVoltage() * Complex.abs(yBus[i][j]) * Math.sin(iBus.getAngle() - jBus.getAngle() - Complex.arg(yBus[i][j]));
+					offSumSin += abs * voltages[j] * sin;
+					offSumCos += abs * voltages[j] * cos;
+					jacValues[pRow + q] = iVoltage * abs * voltages[j] * sin;
+					jacValues[pRow + degree + q] = iVoltage * abs * cos;
+					jacValues[qRow + q] = -iVoltage * abs * voltages[j] * cos;
+					jacValues[qRow + degree + q] = iVoltage * abs * sin;
 				} else {
-					for (int k = 0; k < busCount; k++) {
-						ACPFBus kBus = (ACPFBus)busList.get(k);
-						jac[i][i + busCount] += Complex.abs(yBus[i][k]) * kBus.getVoltage() * Math.cos(iBus.getAngle() - kBus.getAngle() - Complex.arg(yBus[i][k]));
-						jac[i + busCount][i + busCount] += Complex.abs(yBus[i][k]) * kBus.getVoltage() * Math.sin(iBus.getAngle() - kBus.getAngle() - Complex.arg(yBus[i][k]));
-						if (i != k) {
-							jac[i][i] += Complex.abs(yBus[i][k]) * kBus.getVoltage() * Math.sin(iBus.getAngle() - kBus.getAngle() - Complex.arg(yBus[i][k]));
-							jac[i + busCount][i] += Complex.abs(yBus[i][k]) * kBus.getVoltage() * Math.cos(iBus.getAngle() - kBus.getAngle() - Complex.arg(yBus[i][k]));
-						}
-					}
-
-					jac[i][i] *= -iBus.getVoltage();
-					jac[i][i + busCount] += iBus.getVoltage() * Complex.abs(yBus[i][i]) * Math.cos(Complex.arg(yBus[i][i]));
-					jac[i + busCount][i] *= iBus.getVoltage();
-					jac[i + busCount][i + busCount] += -iBus.getVoltage() * Complex.abs(yBus[i][i]) * Math.sin(Complex.arg(yBus[i][i]));
+					diagonal = q;
 				}
 			}
-			power[i] *= iBus.getVoltage();
-			power[i + busCount] *= iBus.getVoltage();
+
+			double selfAbs = yMagnitude[start + diagonal];
+			double selfArg = yAngle[start + diagonal];
+			jacValues[pRow + diagonal] = offSumSin * -iVoltage;
+			jacValues[pRow + degree + diagonal] = sumCos + iVoltage * selfAbs * Math.cos(selfArg);
+			jacValues[qRow + diagonal] = offSumCos * iVoltage;
+			jacValues[qRow + degree + diagonal] = sumSin + -iVoltage * selfAbs * Math.sin(selfArg);
+
+			power[i] = sumCos * iVoltage;
+			power[i + busCount] = sumSin * iVoltage;
 			
-			double actualSusceptance = iBus.getVoltage() * iBus.getVoltage() * iBus.getSusceptance();
+			double actualSusceptance = iVoltage * iVoltage * iBus.getSusceptance();
 			deltaPower[i] = iBus.getBusMw() - power[i];
 			deltaPower[i + busCount] = iBus.getBusMvar() + actualSusceptance - power[i + busCount];
 		}
 	}
 	
+	/*
+	 * This method returns the Jacobian matrix as a dense array, for printing and for the
+	 * flanagan methods.
+	 */
+	protected double[][] denseJacobian() {
+		double[][] jac = new double[busCount * 2][busCount * 2];
+		for (int i = 0; i < busCount * 2; i++) {
+			for (int p = jacRowPointers[i]; p < jacRowPointers[i + 1]; p++)
+				jac[i][jacColumns[p]] = jacValues[p];
+		}
+		return jac;
+	}
+	
 	/*
 	 * Method for looking at power mismatch to determine if convergence and adjustment criteria have been met.
 	 */
@@ -403,6 +538,8 @@ public class FullNewton
 	protected void zeroJac() {
 		for (int i = 0; i < busCount; i++) {
 			ACPFBus bus = (ACPFBus)busList.get(i);
+			fixedVariables[i] = false;
+			fixedVariables[i + busCount] = false;
 			if (bus.isGenerationBus()) {
 
 				/*
@@ -410,18 +547,8 @@ public class FullNewton
 				 * so as to make real and reactive power generation variable.
 				 */
 				if (bus.isSlackBus()) {
-					for (int j = 0; j < busCount; j++) {
-						jac[i + busCount][j] = 0;
-						jac[i + busCount][j + busCount] = 0;
-						jac[j][i + busCount] = 0;
-						jac[j + busCount][i + busCount] = 0;
-						jac[i + busCount][i + busCount] = 1e+10;
-						jac[i][j] = 0;
-						jac[i][j + busCount] = 0;
-						jac[j][i] = 0;
-						jac[j + busCount][i] = 0;
-						jac[i][i] = 1e+10;
-					}
+					fixedVariables[i] = true;
+					fixedVariables[i + busCount] = true;
 
 				/*
 				 * A generation bus with generators available for Automatic Voltage
@@ -431,16 +558,31 @@ public class FullNewton
 				 * reactive power constant.
 				 */
 				} else if (bus.isAVR()) {
-					for (int j = 0; j < busCount; j++) {
-						jac[i + busCount][j] = 0;
-						jac[i + busCount][j + busCount] = 0;
-						jac[j][i + busCount] = 0;
-						jac[j + busCount][i + busCount] = 0;
-						jac[i + busCount][i + busCount] = 1e+10;
-					}
+					fixedVariables[i + busCount] = true;
 				}
 			}
 		}
+
+		/*
+		 * The row and column of a fixed value are zeroed, except for a large diagonal entry.
+		 */
+		for (int i = 0; i < busCount * 2; i++) {
+			for (int p = jacRowPointers[i]; p < jacRowPointers[i + 1]; p++) {
+				int j = jacColumns[p];
+				if (fixedVariables[i] || fixedVariables[j])
+					jacValues[p] = i == j ? 1e+10 : 0;
+			}
+		}
+	}
+
+	/**
+	 * The Jacobian matrix of the last solve is copied into Utilities as a dense matrix,
+	 * which takes memory in the square of the number of buses.
+	 * 
+	 * @param exportJacobian Set to false on large systems if Utilities.jacobian is not used
+	 */
+	public void setExportJacobian(boolean exportJacobian) {
+		this.exportJacobian = exportJacobian;
 	}
 
 	public void setAdjustError(double adjustError) {
@@ -0,0 +1,30 @@
+package snl.ccss.jpowerflow.dc;
+
+import snl.ccss.jpowerflow.PFPowerSystem;
+
+/**
+ * This interface may be implemented by power systems that keep
+ * their DC data compiled in primitive arrays.
+ *
+ * The solvers then take the topology from the system instead of
+ * building one from the bus and branch lists, and check that it
+ * is unchanged by comparing references rather than every bus and
+ * branch.  The injections are copied from the system's arrays
+ * instead of calling getBusMw on every bus.
+ */
+public interface DCArraySystem extends PFPowerSystem {
+
+	/**
+	 * This method should return the topology of the current buses and
+	 * branches, the same object as long as none of them changed.
+	 * @return topology of the system
+	 */
+	public DCTopology getDCTopology();
+
+	/**
+	 * This method should fill the given array with the real power
+	 * injected at each bus, in the bus order of getDCTopology.
+	 * @param power Array of length the number of buses
+	 */
+	public void getBusMw(double[] power);
+}
@@ -22,16 +22,33 @@
 
 package snl.ccss.jpowerflow.dc;
 
+import java.util.Arrays;
 import java.util.HashMap;
-import java.util.List;
 
-import flanagan.math.Matrix;
+import metrics.MetricsRegistry;
+import metrics.Timer;
 import snl.ccss.jpowerflow.AbstractPFSolver;
 import snl.ccss.jpowerflow.PFPowerSystem;
+import snl.ccss.jpowerflow.util.Ordering;
+import snl.ccss.jpowerflow.util.SparseLDL;
+import snl.ccss.jpowerflow.util.SparseMatrix;
 
 /**
  * This class holds all the methods necessary for
  * computing DC power flow on a power system.
+ *
+ * The bBus matrix is stored in compressed sparse column
+ * format and solved with a sparse LDL' factorization under
+ * a reverse Cuthill-McKee ordering, so memory grows with the
+ * number of branches rather than the square of the number
+ * of buses.
+ *
+ * The solve is split in two phases.  The topology phase
+ * builds and factorizes the bBus matrix, it is only run again
+ * when the buses, branches or susceptances of the system have
+ * changed since the last solve.  The injection phase is a
+ * forward and back substitution with the cached factors, see
+ * solveInjections.
  * 
  * @author Bryan T. Richardson - Sandia National Laboratories
  */
@@ -39,15 +56,25 @@ public class DCSolver
 	   extends
 	   AbstractPFSolver {
 	
-	private List busList;
-	private List branchList;
+	private static final Timer SOLVE_TIMER = MetricsRegistry.getDefault().timer("dc.solve");
+	private static final Timer FACTORIZE_TIMER = MetricsRegistry.getDefault().timer("dc.factorize");
 	
+	private DCTopology topology;
 	private int busCount;
 	private int branchCount;
 	
-	private double[][] bBus;
+	private SparseMatrix bBus;
+	private SparseLDL ldl;
+	private boolean factorized;
+	
+	/*
+	 * Arrays reused by every solve, allocated when the topology changes
+	 */
+	private double[] power;
+	private double[] work;
 	private double[] angle;
-	private HashMap mwFlows;
+	private double[] flows;
+	private FlowView flowView;
 	private double slackOutput;
 	
 
@@ -58,19 +85,58 @@ public class DCSolver
 	
 	/**
 	 * Main method for performing a DC power flow analysis.
-	 * This method builds the bBus matrix for the system and
+	 * This method builds the bBus matrix for the system, if
+	 * its topology changed since the last call, and
 	 * calculates real power flows on all branches in the
 	 * system.
 	 * 
 	 * @param powerSystem PFPowerSystem that implements the required getBusList and getEnergizedBranchList methods
-	 * @return true if solver was successful (in this case, always true)
+	 * @return true if solver was successful (false if the bBus matrix is singular)
 	 */
 	public boolean solve(PFPowerSystem powerSystem) {
-		busList = powerSystem.getBusList();
-		branchList = powerSystem.getEnergizedBranchList();
+		long start = SOLVE_TIMER.start();
+		try {
+			boolean solved = prepare(powerSystem);
+			
+			topology.getBusMw(powerSystem, power);
+			
+			if (factorized)
+				ldl.solve(power, work, angle);
+			else
+				Arrays.fill(angle, Double.NaN);
+			
+			/*
+			 * Line flows for each branch in the system are calculated
+			 */
+			calculateMwFlows();
+			
+			return solved;
+		} finally {
+			SOLVE_TIMER.stop(start);
+		}
+	}
+	
+	/**
+	 * This method runs the topology phase of the solver: the bBus
+	 * matrix of the system is built and factorized, unless the
+	 * cached factorization was computed for the same topology.
+	 * 
+	 * @param powerSystem PFPowerSystem that implements the required getBusList and getEnergizedBranchList methods
+	 * @return false if the bBus matrix is singular
+	 */
+	public boolean prepare(PFPowerSystem powerSystem) {
+		DCTopology current = DCTopology.update(topology, powerSystem);
+		if (current == topology)
+			return factorized;
 		
-		busCount = busList.size();
-		branchCount = branchList.size();
+		topology = current;
+		busCount = topology.getBusCount();
+		branchCount = topology.getBranchCount();
+		power = new double[busCount];
+		work = new double[busCount];
+		angle = new double[busCount];
+		flows = new double[branchCount];
+		flowView = new FlowView(topology, flows);
 		
 		if (DEBUG) {
 			System.out.println();
@@ -82,15 +148,17 @@ public class DCSolver
 		/*
 		 * bBus matrix is built
 		 */
-		bBus = new double[busCount][busCount];
 		buildBBus();
 		
 		if (DEBUG) {
 			System.out.println();
-			System.out.println("B-Bus Matrix:");
-			for (int i = 0; i < busCount; i++) {
-				for (int j = 0; j < busCount; j++) {
-					System.out.print(bBus[i][j] + "  ");
+			System.out.println("B-Bus Matrix (" + bBus.getNonZeroCount() + " nonzeros):");
+			int[] colPointers = bBus.getColPointers();
+			int[] rowIndices = bBus.getRowIndices();
+			double[] values = bBus.getValues();
+			for (int j = 0; j < busCount; j++) {
+				for (int p = colPointers[j]; p < colPointers[j + 1]; p++) {
+					System.out.print("(" + rowIndices[p] + "," + j + ") " + values[p] + "  ");
 				}
 				System.out.println();
 			}
@@ -103,81 +171,137 @@ public class DCSolver
 		 */
 		zeroBBus();
 		
-		double[] power = new double[busCount];
-		for (int i = 0; i < busCount; i++) {
-			DCPFBus bus = (DCPFBus)busList.get(i);
-			power[i] = bus.getBusMw();
-		}
-		
 		/*
-		 * Bus voltage angle values are calculated using Gaussian elimination and back substitution
+		 * The bBus matrix is factorized with a sparse LDL' factorization,
+		 * the buses being ordered to limit the fill-in of the factor.
 		 */
-		Matrix matrixBBus = new Matrix(bBus);
-		angle = matrixBBus.solveLinearSet(power);
-		
-		/*
-		 * Line flows for each branch in the system are calculated
-		 */
-		mwFlows = new HashMap();
-		calculateMwFlows();
-		
-		return true;
+		long start = FACTORIZE_TIMER.start();
+		ldl = new SparseLDL(bBus, Ordering.reverseCuthillMcKee(bBus));
+		factorized = ldl.factorize(bBus);
+		FACTORIZE_TIMER.stop(start);
+		if (!factorized && DEBUG)
+			System.out.println("Attempted LDL factorization of a singular B-Bus matrix in DCSolver");
+		return factorized;
+	}
+	
+	/**
+	 * This method runs the injection phase of the solver on the
+	 * system given to the last call of solve or prepare: bus voltage
+	 * angles are obtained by forward and back substitution with the
+	 * cached factors of the bBus matrix.  It does not change the
+	 * state of the solver and may be called from several threads.
+	 * 
+	 * @param power Real power injected at each bus, in bus list order
+	 * @return voltage angle of each bus, NaN if the bBus matrix is singular
+	 */
+	public double[] solveInjections(double[] power) {
+		if (!factorized) {
+			double[] nan = new double[busCount];
+			Arrays.fill(nan, Double.NaN);
+			return nan;
+		}
+		return ldl.solve(power);
+	}
+	
+	/**
+	 * This method computes the real power flow on every branch for the
+	 * given bus injections, see solveInjections.
+	 * 
+	 * @param power Real power injected at each bus, in bus list order
+	 * @return real power flow of each branch from its "from" to its "to" bus, in branch list order
+	 */
+	public double[] solveMwFlows(double[] power) {
+		double[] busAngle = solveInjections(power);
+		int[] from = topology.getFrom();
+		int[] to = topology.getTo();
+		double[] bPrimes = topology.getBPrime();
+		double[] flows = new double[branchCount];
+		for (int i = 0; i < branchCount; i++) {
+			if (from[i] != -1 && to[i] != -1)
+				flows[i] = -bPrimes[i] * (busAngle[from[i]] - busAngle[to[i]]);
+		}
+		return flows;
+	}
+	
+	/**
+	 * This method drops the cached topology and factorization, so that
+	 * the next solve rebuilds them.  Changes to the system are detected
+	 * by solve, this is only needed to release memory.
+	 */
+	public void invalidate() {
+		topology = null;
+		power = null;
+		work = null;
+		angle = null;
+		flows = null;
+		flowView = null;
+		bBus = null;
+		ldl = null;
+		factorized = false;
 	}
 	
 	/*
 	 * This method uses data from each branch object to create bBus for the entire system.
+	 * Entries are collected as (row, column, value) triplets, parallel branches adding up,
+	 * and a diagonal entry is kept for every bus.
 	 */
 	private void buildBBus() {
+		int[] from = topology.getFrom();
+		int[] to = topology.getTo();
+		double[] bPrimes = topology.getBPrime();
+		
+		int count = 0;
+		int[] rows = new int[busCount + 4 * branchCount];
+		int[] cols = new int[busCount + 4 * branchCount];
+		double[] vals = new double[busCount + 4 * branchCount];
+		for (int i = 0; i < busCount; i++) {
+			rows[count] = i;
+			cols[count] = i;
+			vals[count++] = 0;
+		}
+		
 		for (int i = 0; i < branchCount; i++) {
-			DCPFBranch branch = (DCPFBranch)branchList.get(i);
-			int fromBus = branch.getFromBus();
-			int toBus = branch.getToBus();
-			int from = -1;
-			int to = -1;
-			
-			for (int j = 0; j < busCount; j++) {
-				DCPFBus bus = (DCPFBus)busList.get(j);
-				int busNumber = bus.getNumber();
-				if (fromBus == busNumber)
-					from = j;
-				else if (toBus == busNumber)
-					to = j;
-			}
-			
 			/*
 			 * In some programs, the user/coder may wish to make it possible for buses and branches to be disabled.
 			 * There should be a filter method of some sort when getting a list of bus and branch objects to send to 
 			 * this simulation so that only enabled objects are present in the lists.  The "-1" check is here incase
 			 * a bus on one or both ends of a branch is disabled, but the branch itself is still enabled.
 			 */
-			if (from != -1 && to != -1) {
-				double bPrime = branch.getBPrime();
-				bBus[from][to] = bPrime;
-								
-				bBus[to][from] = bPrime;
+			if (from[i] != -1 && to[i] != -1) {
+				double bPrime = bPrimes[i];
+				rows[count] = from[i];
+				cols[count] = to[i];
+				vals[count++] = bPrime;
 				
-				bPrime = bBus[from][from];
-				bBus[from][from] = (bPrime + -branch.getBPrime());
+				rows[count] = to[i];
+				cols[count] = from[i];
+				vals[count++] = bPrime;
 				
-				bPrime = bBus[to][to];
-				bBus[to][to] = (bPrime + -branch.getBPrime());
+				rows[count] = from[i];
+				cols[count] = from[i];
+				vals[count++] = -bPrime;
+				
+				rows[count] = to[i];
+				cols[count] = to[i];
+				vals[count++] = -bPrime;
 			}
 		}
+		bBus = SparseMatrix.fromTriplets(busCount, count, rows, cols, vals);
 	}
 	
 	/*
-	 * This method zeroes out rows and colums of the Jacobian matrix that correspond to
+	 * This method zeroes out rows and colums of the bBus matrix that correspond to
 	 * the system swing bus.
 	 */
 	private void zeroBBus() {
-		for (int i = 0; i < busCount; i++) {
-			DCPFBus bus = (DCPFBus)busList.get(i);
-			if (bus.isSlackBus()) {
-				for (int j = 0; j < busCount; j++) {
-					bBus[i][j] = 0;
-					bBus[j][i] = 0;
-					bBus[i][i] = 1e+10;
-				}
+		int[] colPointers = bBus.getColPointers();
+		int[] rowIndices = bBus.getRowIndices();
+		double[] values = bBus.getValues();
+		for (int j = 0; j < busCount; j++) {
+			for (int p = colPointers[j]; p < colPointers[j + 1]; p++) {
+				int i = rowIndices[p];
+				if (topology.isSlack(i) || topology.isSlack(j))
+					values[p] = (i == j) ? 1e+10 : 0;
 			}
 		}
 	}
@@ -187,51 +311,66 @@ public class DCSolver
 	 * the total amount of real power leaving the system swing bus.
 	 */
 	private void calculateMwFlows() {
-		double[] busOutput = new double[busCount];
-		int slackBusIndex = -1;
+		int[] from = topology.getFrom();
+		int[] to = topology.getTo();
+		double[] bPrimes = topology.getBPrime();
+		int slack = topology.getSlackBusIndex();
+		slackOutput = 0;
 		for (int i = 0; i < branchCount; i++) {
-			DCPFBranch branch = (DCPFBranch)branchList.get(i);
-			int fromBus = branch.getFromBus();
-			int toBus = branch.getToBus();
-			int from = -1;
-			int to = -1;
-			
-			for (int j = 0; j < busCount; j++) {
-				DCPFBus bus = (DCPFBus)busList.get(j);
-				if (slackBusIndex == -1)
-					if (bus.isSlackBus())
-						slackBusIndex = j;
-				int busNumber = bus.getNumber();
-				if (fromBus == busNumber)
-					from = j;
-				else if (toBus == busNumber)
-					to = j;
-			}
-			
 			/*
-			 * In some programs, the user/coder may wish to make it possible for busList and branchList to be disabled.
-			 * There should be a filter method of some sort when getting a list of bus and branch objects to send to 
-			 * this simulation so that only enabled objects are present in the lists.  The "-1" check is here incase
-			 * a bus on one or both ends of a branch is disabled, but the branch itself is still enabled.
+			 * The "-1" check is here incase a bus on one or both ends of a branch is disabled,
+			 * but the branch itself is still enabled.
 			 */
-			if (from != -1 && to != -1) {
-				double mw = -branch.getBPrime() * (angle[from] - angle[to]);
-				mwFlows.put(branch, new Double(mw));
-				busOutput[from] += mw;
+			if (from[i] != -1 && to[i] != -1) {
+				double mw = -bPrimes[i] * (angle[from[i]] - angle[to[i]]);
+				flows[i] = mw;
+				if (from[i] == slack)
+					slackOutput += mw;
 				
-				mw = -branch.getBPrime() * (angle[to] - angle[from]);
-				busOutput[to] += mw;
+				mw = -bPrimes[i] * (angle[to[i]] - angle[from[i]]);
+				if (to[i] == slack)
+					slackOutput += mw;
 			}
 		}
-		
-		slackOutput = busOutput[slackBusIndex];
 	}
 
+	/**
+	 * @return flows of the last solve, overwritten by the next one
+	 */
+	public FlowView getFlows() {
+		return flowView;
+	}
+
+	/**
+	 * This method copies the flows of the last solve into a map from
+	 * branch object to Double, for callers of the original interface.
+	 * It allocates on every call, getFlows does not.
+	 *
+	 * @return real power flow of every energized branch
+	 */
 	public HashMap getMwFlows() {
+		return toMap(flowView);
+	}
+
+	static HashMap toMap(FlowView flows) {
+		HashMap mwFlows = new HashMap();
+		if (flows == null)
+			return mwFlows;
+		for (int i = 0; i < flows.getBranchCount(); i++) {
+			if (flows.isEnergized(i))
+				mwFlows.put(flows.getBranch(i), new Double(flows.getMw(i)));
+		}
 		return mwFlows;
 	}
 
 	public double getSlackOutput() {
 		return slackOutput;
 	}
+
+	/**
+	 * @return topology of the last system solved, null before the first solve
+	 */
+	public DCTopology getTopology() {
+		return topology;
+	}
 }
\ No newline at end of file
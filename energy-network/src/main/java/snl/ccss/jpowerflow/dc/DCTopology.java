@@ -0,0 +1,226 @@
+package snl.ccss.jpowerflow.dc;
+
+import java.util.IdentityHashMap;
+import java.util.List;
+
+import snl.ccss.jpowerflow.PFPowerSystem;
+import snl.ccss.jpowerflow.util.BusIndex;
+
+/**
+ * This class holds the part of a power system that the DC
+ * power flow matrices depend on: the bus and branch objects,
+ * the bus indexes at both ends of every branch, the branch
+ * susceptances and the slack buses.
+ *
+ * Solvers keep the topology of the last system they solved
+ * together with whatever they derived from it (factorization,
+ * tree ordering...) and only rebuild these when isValidFor
+ * reports that branches or buses were added, removed or
+ * changed.  Only the bus injections may change between two
+ * solves sharing a topology.
+ */
+public class DCTopology {
+
+	private Object[] buses;
+	private Object[] branches;
+
+	private int busCount;
+	private int branchCount;
+
+	private int[] busNumbers;
+	private BusIndex busIndex;
+	private boolean[] slack;
+	private int slackBusIndex;
+
+	private int[] fromBusNumbers;
+	private int[] toBusNumbers;
+	private int[] from;
+	private int[] to;
+	private double[] bPrime;
+	private IdentityHashMap branchIndexes;
+
+	/**
+	 * Constructor for DCTopology class.
+	 *
+	 * @param powerSystem PFPowerSystem that implements the required getBusList and getEnergizedBranchList methods
+	 */
+	public DCTopology(PFPowerSystem powerSystem) {
+		List busList = powerSystem.getBusList();
+		List branchList = powerSystem.getEnergizedBranchList();
+
+		busCount = busList.size();
+		branchCount = branchList.size();
+		buses = busList.toArray();
+		branches = branchList.toArray();
+
+		busNumbers = new int[busCount];
+		slack = new boolean[busCount];
+		slackBusIndex = -1;
+		for (int i = 0; i < busCount; i++) {
+			DCPFBus bus = (DCPFBus)buses[i];
+			busNumbers[i] = bus.getNumber();
+			slack[i] = bus.isSlackBus();
+			if (slackBusIndex == -1 && slack[i])
+				slackBusIndex = i;
+		}
+		busIndex = new BusIndex(busNumbers);
+
+		fromBusNumbers = new int[branchCount];
+		toBusNumbers = new int[branchCount];
+		from = new int[branchCount];
+		to = new int[branchCount];
+		bPrime = new double[branchCount];
+		for (int i = 0; i < branchCount; i++) {
+			DCPFBranch branch = (DCPFBranch)branches[i];
+			fromBusNumbers[i] = branch.getFromBus();
+			toBusNumbers[i] = branch.getToBus();
+			bPrime[i] = branch.getBPrime();
+		}
+
+		/*
+		 * In some programs, the user/coder may wish to make it possible for buses and branches to be disabled.
+		 * The "-1" index is kept in case a bus on one or both ends of a branch is disabled, but the branch
+		 * itself is still enabled.
+		 */
+		busIndex.resolveBranches(fromBusNumbers, toBusNumbers, from, to);
+	}
+
+	/**
+	 * This method returns the topology of the given system, the cached
+	 * one if it is still valid.  The topology of a DCArraySystem is taken
+	 * from the system itself.
+	 *
+	 * @param cached Topology of the last system solved, may be null
+	 * @param powerSystem PFPowerSystem to solve
+	 * @return cached if the system did not change, a new topology otherwise
+	 */
+	public static DCTopology update(DCTopology cached, PFPowerSystem powerSystem) {
+		if (powerSystem instanceof DCArraySystem)
+			return ((DCArraySystem)powerSystem).getDCTopology();
+		if (cached != null && cached.isValidFor(powerSystem))
+			return cached;
+		return new DCTopology(powerSystem);
+	}
+
+	/**
+	 * This method fills the given array with the real power injected at
+	 * each bus of the system this topology was built for.
+	 *
+	 * @param powerSystem PFPowerSystem this topology was built for
+	 * @param power Filled with the injection of each bus, in bus list order
+	 */
+	public void getBusMw(PFPowerSystem powerSystem, double[] power) {
+		if (powerSystem instanceof DCArraySystem) {
+			((DCArraySystem)powerSystem).getBusMw(power);
+			return;
+		}
+		for (int i = 0; i < busCount; i++)
+			power[i] = ((DCPFBus)buses[i]).getBusMw();
+	}
+
+	/**
+	 * This method checks, in time linear in the size of the system, that the
+	 * given system still has the buses, branches and susceptances this topology
+	 * was built from.
+	 *
+	 * @param powerSystem PFPowerSystem to check
+	 * @return true if the matrices built from this topology can be reused
+	 */
+	public boolean isValidFor(PFPowerSystem powerSystem) {
+		List busList = powerSystem.getBusList();
+		List branchList = powerSystem.getEnergizedBranchList();
+		if (busList.size() != busCount || branchList.size() != branchCount)
+			return false;
+
+		for (int i = 0; i < busCount; i++) {
+			DCPFBus bus = (DCPFBus)busList.get(i);
+			if (bus != buses[i] || bus.getNumber() != busNumbers[i] || bus.isSlackBus() != slack[i])
+				return false;
+		}
+		for (int i = 0; i < branchCount; i++) {
+			DCPFBranch branch = (DCPFBranch)branchList.get(i);
+			if (branch != branches[i]
+					|| branch.getFromBus() != fromBusNumbers[i]
+					|| branch.getToBus() != toBusNumbers[i]
+					|| branch.getBPrime() != bPrime[i])
+				return false;
+		}
+		return true;
+	}
+
+	public int getBusCount() {
+		return busCount;
+	}
+
+	public int getBranchCount() {
+		return branchCount;
+	}
+
+	public DCPFBus getBus(int index) {
+		return (DCPFBus)buses[index];
+	}
+
+	public DCPFBranch getBranch(int index) {
+		return (DCPFBranch)branches[index];
+	}
+
+	/**
+	 * This method finds the index of a branch object, the index
+	 * is built on the first call.
+	 *
+	 * @param branch Branch object
+	 * @return index of the branch in the branch list, -1 if it is not in the list
+	 */
+	public synchronized int indexOfBranch(Object branch) {
+		if (branchIndexes == null) {
+			branchIndexes = new IdentityHashMap(2 * branchCount);
+			for (int i = 0; i < branchCount; i++)
+				branchIndexes.put(branches[i], new Integer(i));
+		}
+		Integer index = (Integer)branchIndexes.get(branch);
+		return index == null ? -1 : index.intValue();
+	}
+
+	/**
+	 * @return resolver from bus ID numbers to bus indexes
+	 */
+	public BusIndex getBusIndex() {
+		return busIndex;
+	}
+
+	/**
+	 * @param index Bus index
+	 * @return true if the bus is a slack bus
+	 */
+	public boolean isSlack(int index) {
+		return slack[index];
+	}
+
+	/**
+	 * @return index of the first slack bus, -1 if there is none
+	 */
+	public int getSlackBusIndex() {
+		return slackBusIndex;
+	}
+
+	/**
+	 * @return bus index on the "from" side of each branch, -1 if the bus is not in the system
+	 */
+	public int[] getFrom() {
+		return from;
+	}
+
+	/**
+	 * @return bus index on the "to" side of each branch, -1 if the bus is not in the system
+	 */
+	public int[] getTo() {
+		return to;
+	}
+
+	/**
+	 * @return b prime of each branch
+	 */
+	public double[] getBPrime() {
+		return bPrime;
+	}
+}
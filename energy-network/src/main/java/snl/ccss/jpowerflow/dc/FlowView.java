@@ -0,0 +1,74 @@
+package snl.ccss.jpowerflow.dc;
+
+/**
+ * This class gives access to the real power flows computed by
+ * the last solve of a DC solver.  The flows are stored in an
+ * array indexed like the branch list of the topology, which the
+ * solver reuses: the values are overwritten by its next solve,
+ * and a new view is only created when the topology changes.
+ */
+public class FlowView {
+
+	private DCTopology topology;
+	private double[] flows;
+
+	/**
+	 * Constructor for FlowView class.
+	 *
+	 * @param topology Topology the flows are computed on
+	 * @param flows Flow of each branch, in branch list order
+	 */
+	FlowView(DCTopology topology, double[] flows) {
+		this.topology = topology;
+		this.flows = flows;
+	}
+
+	public int getBranchCount() {
+		return flows.length;
+	}
+
+	public DCPFBranch getBranch(int index) {
+		return topology.getBranch(index);
+	}
+
+	/**
+	 * @param index Branch index
+	 * @return false if a bus on one end of the branch is not in the system, its flow is then 0
+	 */
+	public boolean isEnergized(int index) {
+		return topology.getFrom()[index] != -1 && topology.getTo()[index] != -1;
+	}
+
+	/**
+	 * @param index Branch index
+	 * @return real power flow of the branch from its "from" to its "to" bus
+	 */
+	public double getMw(int index) {
+		return flows[index];
+	}
+
+	/**
+	 * @param branch Branch of the system
+	 * @return real power flow of the branch from its "from" to its "to" bus
+	 */
+	public double getMw(DCPFBranch branch) {
+		int index = topology.indexOfBranch(branch);
+		if (index == -1)
+			throw new IllegalArgumentException("Branch is not in the system");
+		return flows[index];
+	}
+
+	/**
+	 * @return flow of each branch, in branch list order, owned by the solver
+	 */
+	public double[] getFlows() {
+		return flows;
+	}
+
+	/**
+	 * @return topology the flows are computed on
+	 */
+	public DCTopology getTopology() {
+		return topology;
+	}
+}
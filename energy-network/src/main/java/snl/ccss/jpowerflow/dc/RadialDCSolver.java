@@ -0,0 +1,296 @@
+package snl.ccss.jpowerflow.dc;
+
+import java.util.Arrays;
+import java.util.HashMap;
+
+import metrics.MetricsRegistry;
+import metrics.Timer;
+import snl.ccss.jpowerflow.AbstractPFSolver;
+import snl.ccss.jpowerflow.PFPowerSystem;
+
+/**
+ * This class computes DC power flow on radial (tree shaped)
+ * power systems without building or solving the bBus matrix.
+ *
+ * On a tree the real power carried by a branch is the sum of
+ * the injections of every bus on its far side from the slack
+ * bus, so all flows are obtained with a single post-order
+ * accumulation over the tree rooted at the slack bus.  This
+ * is linear in the number of buses in both time and memory.
+ *
+ * When the energized branches do not form a tree spanning all
+ * buses from a single slack bus (cycle, parallel branches,
+ * unreachable bus, zero susceptance...) the solve is delegated
+ * to the meshed DCSolver, so results are the same as the ones
+ * of DCSolver for any system.
+ *
+ * The tree is kept between solves and only rebuilt when the
+ * topology of the system changes, see DCTopology.
+ */
+public class RadialDCSolver
+	   extends
+	   AbstractPFSolver {
+
+	private static final Timer SOLVE_TIMER = MetricsRegistry.getDefault().timer("dc.radial.solve");
+
+	private DCTopology topology;
+	private int busCount;
+	private int branchCount;
+
+	/*
+	 * Tree built from the slack bus: buses in breadth-first order,
+	 * parent branch of each bus and whether the bus is on the "from"
+	 * side of its parent branch.
+	 */
+	private int slackBusIndex;
+	private int[] order;
+	private int[] parent;
+	private int[] parentBranch;
+	private boolean[] fromSide;
+
+	/*
+	 * Arrays reused by every solve of a radial system, allocated when the topology changes
+	 */
+	private double[] power;
+	private double[] subtreeMw;
+	private double[] flows;
+	private FlowView radialView;
+	private FlowView flowView;
+	private double slackOutput;
+	private boolean radial;
+
+	private DCSolver meshedSolver;
+
+	/**
+	 * Default constructor for RadialDCSolver class.
+	 */
+	public RadialDCSolver() {
+		this.meshedSolver = new DCSolver();
+	}
+
+	/**
+	 * Main method for performing a DC power flow analysis.
+	 * This method checks that the system is radial and
+	 * accumulates the subtree injections of every bus to get
+	 * the real power flows on all branches in the system.
+	 *
+	 * @param powerSystem PFPowerSystem that implements the required getBusList and getEnergizedBranchList methods
+	 * @return true if solver was successful
+	 */
+	public boolean solve(PFPowerSystem powerSystem) {
+		long start = SOLVE_TIMER.start();
+		try {
+			return solveFlows(powerSystem);
+		} finally {
+			SOLVE_TIMER.stop(start);
+		}
+	}
+
+	private boolean solveFlows(PFPowerSystem powerSystem) {
+		boolean solved = prepare(powerSystem);
+
+		if (!radial) {
+			solved = meshedSolver.solve(powerSystem);
+			flowView = meshedSolver.getFlows();
+			slackOutput = meshedSolver.getSlackOutput();
+			return solved;
+		}
+
+		topology.getBusMw(powerSystem, power);
+		Arrays.fill(subtreeMw, 0);
+		accumulate(power, subtreeMw, flows);
+		flowView = radialView;
+
+		slackOutput = 0;
+		for (int k = 1; k < busCount; k++) {
+			int i = order[k];
+			if (parent[i] == slackBusIndex) {
+				double mw = flows[parentBranch[i]];
+				slackOutput -= fromSide[i] ? mw : -mw;
+			}
+		}
+
+		return solved;
+	}
+
+	/**
+	 * This method checks whether the system is radial and builds its
+	 * tree, unless the tree of the last call was built for the same
+	 * topology.  The meshed solver is prepared instead when the system
+	 * is not radial.
+	 *
+	 * @param powerSystem PFPowerSystem that implements the required getBusList and getEnergizedBranchList methods
+	 * @return false if the system is meshed and its bBus matrix is singular
+	 */
+	public boolean prepare(PFPowerSystem powerSystem) {
+		DCTopology current = DCTopology.update(topology, powerSystem);
+		if (current != topology) {
+			topology = current;
+			busCount = topology.getBusCount();
+			branchCount = topology.getBranchCount();
+
+			radial = buildTree();
+			if (radial) {
+				power = new double[busCount];
+				subtreeMw = new double[busCount];
+				flows = new double[branchCount];
+				radialView = new FlowView(topology, flows);
+			}
+
+			if (DEBUG) {
+				System.out.println();
+				System.out.println("Number of buses = " + busCount);
+				System.out.println("Number of branches = " + branchCount);
+				System.out.println("Radial system = " + radial);
+				System.out.println();
+			}
+		}
+		return radial || meshedSolver.prepare(powerSystem);
+	}
+
+	/**
+	 * This method computes the real power flow on every branch of the
+	 * system given to the last call of solve or prepare for the given
+	 * bus injections.  It does not change the state of the solver and
+	 * may be called from several threads.
+	 *
+	 * @param power Real power injected at each bus, in bus list order
+	 * @return real power flow of each branch from its "from" to its "to" bus, in branch list order
+	 */
+	public double[] solveMwFlows(double[] power) {
+		if (!radial)
+			return meshedSolver.solveMwFlows(power);
+
+		/*
+		 * Buses are visited children first, each bus hands its subtree
+		 * injection over to its parent.  The slack bus is the root and
+		 * absorbs the remaining power, its own injection is not used.
+		 */
+		double[] flows = new double[branchCount];
+		accumulate(power, new double[busCount], flows);
+		return flows;
+	}
+
+	/*
+	 * This method writes the flow of every tree branch into flows, subtreeMw must be zero.
+	 */
+	private void accumulate(double[] power, double[] subtreeMw, double[] flows) {
+		for (int k = busCount - 1; k > 0; k--) {
+			int i = order[k];
+			subtreeMw[i] += power[i];
+			flows[parentBranch[i]] = fromSide[i] ? subtreeMw[i] : -subtreeMw[i];
+			if (parent[i] != slackBusIndex)
+				subtreeMw[parent[i]] += subtreeMw[i];
+		}
+	}
+
+	/*
+	 * This method walks the system from the slack bus and records the parent branch of every bus.
+	 * It returns false as soon as the system is found not to be a tree spanning all the buses.
+	 */
+	private boolean buildTree() {
+		slackBusIndex = topology.getSlackBusIndex();
+		if (slackBusIndex == -1)
+			return false;
+		for (int i = slackBusIndex + 1; i < busCount; i++) {
+			if (topology.isSlack(i))
+				return false;
+		}
+
+		/*
+		 * Adjacency lists of the buses, stored as one array of branch indexes
+		 * per bus.  Branches with a disabled bus on one end are ignored, as
+		 * they are in DCSolver.
+		 */
+		int[] from = topology.getFrom();
+		int[] to = topology.getTo();
+		double[] bPrime = topology.getBPrime();
+		int[] degree = new int[busCount + 1];
+		int edges = 0;
+		for (int i = 0; i < branchCount; i++) {
+			if (from[i] != -1 && to[i] != -1) {
+				if (from[i] == to[i] || bPrime[i] == 0)
+					return false;
+				degree[from[i] + 1]++;
+				degree[to[i] + 1]++;
+				edges++;
+			}
+		}
+		if (edges != busCount - 1)
+			return false;
+		for (int i = 0; i < busCount; i++)
+			degree[i + 1] += degree[i];
+		int[] adjacent = new int[2 * edges];
+		int[] fill = new int[busCount];
+		for (int i = 0; i < branchCount; i++) {
+			if (from[i] != -1 && to[i] != -1) {
+				adjacent[degree[from[i]] + fill[from[i]]++] = i;
+				adjacent[degree[to[i]] + fill[to[i]]++] = i;
+			}
+		}
+
+		order = new int[busCount];
+		parent = new int[busCount];
+		parentBranch = new int[busCount];
+		fromSide = new boolean[busCount];
+		boolean[] visited = new boolean[busCount];
+		int head = 0;
+		int tail = 0;
+		order[tail++] = slackBusIndex;
+		visited[slackBusIndex] = true;
+		parentBranch[slackBusIndex] = -1;
+		while (head < tail) {
+			int bus = order[head++];
+			for (int k = degree[bus]; k < degree[bus + 1]; k++) {
+				int branch = adjacent[k];
+				if (branch == parentBranch[bus])
+					continue;
+				int other = from[branch] == bus ? to[branch] : from[branch];
+				if (visited[other])
+					return false;
+				visited[other] = true;
+				parent[other] = bus;
+				parentBranch[other] = branch;
+				fromSide[other] = from[branch] == other;
+				order[tail++] = other;
+			}
+		}
+
+		return tail == busCount;
+	}
+
+	/**
+	 * @return flows of the last solve, overwritten by the next one
+	 */
+	public FlowView getFlows() {
+		return flowView;
+	}
+
+	/**
+	 * This method copies the flows of the last solve into a map from
+	 * branch object to Double, see DCSolver.getMwFlows.
+	 *
+	 * @return real power flow of every energized branch
+	 */
+	public HashMap getMwFlows() {
+		return DCSolver.toMap(flowView);
+	}
+
+	public double getSlackOutput() {
+		return slackOutput;
+	}
+
+	/**
+	 * @return topology of the last system solved, null before the first solve
+	 */
+	public DCTopology getTopology() {
+		return topology;
+	}
+
+	/**
+	 * @return true if the last solve used the radial accumulation, false if it fell back to DCSolver
+	 */
+	public boolean isRadial() {
+		return radial;
+	}
+}
@@ -0,0 +1,52 @@
+package snl.ccss.jpowerflow.util;
+
+/**
+ * This class resolves bus ID numbers, as returned by the
+ * getFromBus and getToBus methods of branches, into the index
+ * of the bus in the bus list, which is also its row in the
+ * matrices built by the solvers.
+ *
+ * It is built once per topology, in time linear in the number
+ * of buses, and replaces the scan of the whole bus list that
+ * was done for every branch.  When several buses share a number
+ * the last one in the list is used, as the scans did.
+ */
+public class BusIndex {
+
+	private IntIntHashMap indexes;
+
+	/**
+	 * Constructor for BusIndex class.
+	 * @param busNumbers ID number of each bus, in bus list order
+	 */
+	public BusIndex(int[] busNumbers) {
+		indexes = new IntIntHashMap(busNumbers.length, -1);
+		for (int i = 0; i < busNumbers.length; i++)
+			indexes.put(busNumbers[i], i);
+	}
+
+	/**
+	 * @param busNumber ID number of a bus
+	 * @return index of the bus in the bus list, -1 if the bus is not in the list
+	 */
+	public int indexOf(int busNumber) {
+		return indexes.get(busNumber);
+	}
+
+	/**
+	 * This method computes the bus indexes at both ends of a set of branches.
+	 * An index is -1 when the bus is not in the list (disabled bus), and the
+	 * "to" index is also -1 for a branch connecting a bus to itself.
+	 *
+	 * @param fromBusNumbers Bus ID number on the "from" side of each branch
+	 * @param toBusNumbers Bus ID number on the "to" side of each branch
+	 * @param from Filled with the bus index on the "from" side of each branch
+	 * @param to Filled with the bus index on the "to" side of each branch
+	 */
+	public void resolveBranches(int[] fromBusNumbers, int[] toBusNumbers, int[] from, int[] to) {
+		for (int i = 0; i < fromBusNumbers.length; i++) {
+			from[i] = indexOf(fromBusNumbers[i]);
+			to[i] = (toBusNumbers[i] == fromBusNumbers[i]) ? -1 : indexOf(toBusNumbers[i]);
+		}
+	}
+}
@@ -0,0 +1,102 @@
+package snl.ccss.jpowerflow.util;
+
+/**
+ * This class is a hash map from int keys to int values using
+ * open addressing with linear probing.  Keys and values are
+ * kept in primitive arrays, so neither lookups nor insertions
+ * allocate objects.  Entries cannot be removed.
+ */
+public class IntIntHashMap {
+
+	private int[] keys;
+	private int[] values;
+	private boolean[] used;
+	private int mask;
+	private int size;
+	private int missingValue;
+
+	/**
+	 * Constructor for IntIntHashMap class.
+	 *
+	 * @param expectedSize Number of entries the map should hold without growing
+	 * @param missingValue Value returned by get for keys that are not in the map
+	 */
+	public IntIntHashMap(int expectedSize, int missingValue) {
+		int capacity = 2;
+		while (capacity < 2 * expectedSize)
+			capacity <<= 1;
+		allocate(capacity);
+		this.missingValue = missingValue;
+	}
+
+	/**
+	 * This method maps the key to the value, replacing any previous value.
+	 * @param key Key
+	 * @param value Value
+	 */
+	public void put(int key, int value) {
+		if (2 * (size + 1) > keys.length)
+			rehash(keys.length << 1);
+		int slot = slot(key);
+		if (!used[slot]) {
+			used[slot] = true;
+			keys[slot] = key;
+			size++;
+		}
+		values[slot] = value;
+	}
+
+	/**
+	 * @param key Key
+	 * @return value mapped to the key, or the missing value given at construction
+	 */
+	public int get(int key) {
+		int slot = slot(key);
+		return used[slot] ? values[slot] : missingValue;
+	}
+
+	/**
+	 * @param key Key
+	 * @return true if a value is mapped to the key
+	 */
+	public boolean containsKey(int key) {
+		return used[slot(key)];
+	}
+
+	public int size() {
+		return size;
+	}
+
+	/*
+	 * This method returns the slot holding the key, or the empty slot where it should be inserted.
+	 */
+	private int slot(int key) {
+		int h = key * 0x9E3779B9;
+		int slot = (h ^ (h >>> 16)) & mask;
+		while (used[slot] && keys[slot] != key)
+			slot = (slot + 1) & mask;
+		return slot;
+	}
+
+	private void allocate(int capacity) {
+		keys = new int[capacity];
+		values = new int[capacity];
+		used = new boolean[capacity];
+		mask = capacity - 1;
+	}
+
+	private void rehash(int capacity) {
+		int[] oldKeys = keys;
+		int[] oldValues = values;
+		boolean[] oldUsed = used;
+		allocate(capacity);
+		for (int i = 0; i < oldKeys.length; i++) {
+			if (oldUsed[i]) {
+				int slot = slot(oldKeys[i]);
+				used[slot] = true;
+				keys[slot] = oldKeys[i];
+				values[slot] = oldValues[i];
+			}
+		}
+	}
+}
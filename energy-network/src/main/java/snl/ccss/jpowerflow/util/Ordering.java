@@ -0,0 +1,142 @@
+package snl.ccss.jpowerflow.util;
+
+/**
+ * This class holds fill-reducing orderings for the sparse
+ * factorizations of symmetric bus matrices.  All methods
+ * should be static.
+ *
+ * A permutation is returned as an array giving, for each new
+ * position, the original index placed there.
+ */
+public class Ordering {
+
+	/**
+	 * This method computes the reverse Cuthill-McKee ordering of the
+	 * graph of a structurally symmetric matrix.  Each connected component
+	 * is numbered by a breadth-first search started from a pseudo-peripheral
+	 * bus, neighbours being visited by increasing degree, and the whole
+	 * numbering is then reversed.
+	 *
+	 * On radial systems the resulting ordering eliminates every bus before
+	 * its parent, so the factorization produces no fill at all.
+	 *
+	 * @param matrix Structurally symmetric sparse matrix
+	 * @return permutation of the rows and columns of the matrix
+	 */
+	public static int[] reverseCuthillMcKee(SparseMatrix matrix) {
+		int n = matrix.getSize();
+		int[] colPointers = matrix.getColPointers();
+		int[] rowIndices = matrix.getRowIndices();
+
+		int[] degree = new int[n];
+		for (int j = 0; j < n; j++) {
+			for (int p = colPointers[j]; p < colPointers[j + 1]; p++) {
+				if (rowIndices[p] != j)
+					degree[j]++;
+			}
+		}
+
+		int[] order = new int[n];
+		int[] queue = new int[n];
+		int[] level = new int[n];
+		int[] mark = new int[n + 1];
+		boolean[] numbered = new boolean[n];
+		int count = 0;
+		for (int start = 0; start < n; start++) {
+			if (numbered[start])
+				continue;
+			int root = peripheralBus(start, colPointers, rowIndices, degree, queue, level, mark);
+
+			/*
+			 * Breadth-first numbering of the component, the neighbours of each
+			 * bus are appended sorted by increasing degree.
+			 */
+			int head = count;
+			order[count++] = root;
+			numbered[root] = true;
+			while (head < count) {
+				int bus = order[head++];
+				int first = count;
+				for (int p = colPointers[bus]; p < colPointers[bus + 1]; p++) {
+					int other = rowIndices[p];
+					if (!numbered[other]) {
+						numbered[other] = true;
+						order[count++] = other;
+					}
+				}
+				for (int k = first + 1; k < count; k++) {
+					int bus2 = order[k];
+					int m = k - 1;
+					while (m >= first && degree[order[m]] > degree[bus2]) {
+						order[m + 1] = order[m];
+						m--;
+					}
+					order[m + 1] = bus2;
+				}
+			}
+		}
+
+		for (int i = 0, j = n - 1; i < j; i++, j--) {
+			int temp = order[i];
+			order[i] = order[j];
+			order[j] = temp;
+		}
+		return order;
+	}
+
+	/**
+	 * This method returns the inverse of a permutation.
+	 * @param perm Permutation giving the original index of each new position
+	 * @return permutation giving the new position of each original index
+	 */
+	public static int[] inverse(int[] perm) {
+		int[] inverse = new int[perm.length];
+		for (int k = 0; k < perm.length; k++)
+			inverse[perm[k]] = k;
+		return inverse;
+	}
+
+	/*
+	 * This method looks for a bus of maximal eccentricity in the component of the start bus, by
+	 * repeating breadth-first searches from a bus of minimal degree in the last level found.
+	 * The queue, level and mark arrays are work space, the last cell of mark holding the current stamp.
+	 */
+	private static int peripheralBus(int start, int[] colPointers, int[] rowIndices, int[] degree,
+			int[] queue, int[] level, int[] mark) {
+		int root = start;
+		int eccentricity = -1;
+		while (true) {
+			int stamp = ++mark[mark.length - 1];
+			int size = 0;
+			queue[size++] = root;
+			level[root] = 0;
+			mark[root] = stamp;
+			int head = 0;
+			while (head < size) {
+				int bus = queue[head++];
+				for (int p = colPointers[bus]; p < colPointers[bus + 1]; p++) {
+					int other = rowIndices[p];
+					if (mark[other] != stamp) {
+						mark[other] = stamp;
+						level[other] = level[bus] + 1;
+						queue[size++] = other;
+					}
+				}
+			}
+
+			int depth = level[queue[size - 1]];
+			if (depth <= eccentricity)
+				return root;
+			eccentricity = depth;
+
+			int candidate = queue[size - 1];
+			for (int k = size - 1; k >= 0 && level[queue[k]] == depth; k--) {
+				if (degree[queue[k]] < degree[candidate])
+					candidate = queue[k];
+			}
+			if (candidate == root)
+				return root;
+			root = candidate;
+		}
+	}
+}
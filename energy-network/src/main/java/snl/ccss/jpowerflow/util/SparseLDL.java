@@ -0,0 +1,194 @@
+package snl.ccss.jpowerflow.util;
+
+/**
+ * This class holds a sparse LDL' factorization of a symmetric
+ * matrix, P A P' = L D L', with L unit lower triangular and D
+ * diagonal.  No pivoting is done, so the matrix must have non
+ * singular leading minors under the given permutation, which is
+ * the case of the bBus matrix with its slack bus grounded.
+ *
+ * The factorization is split in a symbolic phase, computing the
+ * elimination tree and the pattern of L from the structure of
+ * the matrix, and a numeric phase which can be repeated for any
+ * matrix with the same structure.  The numeric phase computes L
+ * row by row (up-looking), each row pattern being found by
+ * walking the elimination tree.
+ */
+public class SparseLDL {
+
+	private int n;
+	private int[] perm;
+	private int[] inversePerm;
+
+	private int[] parent;
+	private int[] lp;
+	private int[] li;
+	private double[] lx;
+	private double[] d;
+
+	private boolean factorized;
+
+	/**
+	 * Constructor for SparseLDL class, performs the symbolic analysis.
+	 *
+	 * @param matrix Symmetric sparse matrix, both triangles stored
+	 * @param perm Fill-reducing permutation, see Ordering
+	 */
+	public SparseLDL(SparseMatrix matrix, int[] perm) {
+		this.n = matrix.getSize();
+		this.perm = perm;
+		this.inversePerm = Ordering.inverse(perm);
+
+		int[] ap = matrix.getColPointers();
+		int[] ai = matrix.getRowIndices();
+
+		parent = new int[n];
+		int[] flag = new int[n];
+		int[] lnz = new int[n];
+		for (int k = 0; k < n; k++) {
+			parent[k] = -1;
+			flag[k] = k;
+			int kk = perm[k];
+			for (int p = ap[kk]; p < ap[kk + 1]; p++) {
+				int i = inversePerm[ai[p]];
+				if (i < k) {
+					for (; flag[i] != k; i = parent[i]) {
+						if (parent[i] == -1)
+							parent[i] = k;
+						lnz[i]++;
+						flag[i] = k;
+					}
+				}
+			}
+		}
+
+		lp = new int[n + 1];
+		for (int k = 0; k < n; k++)
+			lp[k + 1] = lp[k] + lnz[k];
+		li = new int[lp[n]];
+		lx = new double[lp[n]];
+		d = new double[n];
+	}
+
+	/**
+	 * This method computes the numeric factorization of a matrix
+	 * having the structure given at construction.
+	 *
+	 * @param matrix Symmetric sparse matrix
+	 * @return false if a zero pivot was met (singular matrix)
+	 */
+	public boolean factorize(SparseMatrix matrix) {
+		int[] ap = matrix.getColPointers();
+		int[] ai = matrix.getRowIndices();
+		double[] ax = matrix.getValues();
+
+		double[] y = new double[n];
+		int[] pattern = new int[n];
+		int[] flag = new int[n];
+		int[] lnz = new int[n];
+
+		factorized = false;
+		for (int k = 0; k < n; k++) {
+			/*
+			 * Nonzero pattern of row k of L, in topological order, from the
+			 * elimination tree.  Column k of the permuted matrix is scattered
+			 * in y at the same time.
+			 */
+			y[k] = 0;
+			int top = n;
+			flag[k] = k;
+			lnz[k] = 0;
+			int kk = perm[k];
+			for (int p = ap[kk]; p < ap[kk + 1]; p++) {
+				int i = inversePerm[ai[p]];
+				if (i <= k) {
+					y[i] += ax[p];
+					int len = 0;
+					for (; flag[i] != k; i = parent[i]) {
+						pattern[len++] = i;
+						flag[i] = k;
+					}
+					while (len > 0)
+						pattern[--top] = pattern[--len];
+				}
+			}
+
+			/*
+			 * Sparse triangular solve giving row k of L and the pivot d[k].
+			 */
+			d[k] = y[k];
+			y[k] = 0;
+			for (; top < n; top++) {
+				int i = pattern[top];
+				double yi = y[i];
+				y[i] = 0;
+				int p2 = lp[i] + lnz[i];
+				int p;
+				for (p = lp[i]; p < p2; p++)
+					y[li[p]] -= lx[p] * yi;
+				double lki = yi / d[i];
+				d[k] -= lki * yi;
+				li[p] = k;
+				lx[p] = lki;
+				lnz[i]++;
+			}
+			if (d[k] == 0)
+				return false;
+		}
+		factorized = true;
+		return true;
+	}
+
+	/**
+	 * This method solves A x = b using the last numeric factorization.
+	 *
+	 * @param b Right hand side, left unchanged
+	 * @return solution x
+	 */
+	public double[] solve(double[] b) {
+		double[] result = new double[n];
+		solve(b, new double[n], result);
+		return result;
+	}
+
+	/**
+	 * This method solves A x = b using the last numeric factorization,
+	 * without allocating: the solution is written into the given array.
+	 *
+	 * @param b Right hand side, left unchanged
+	 * @param x Work array of length n
+	 * @param result Filled with the solution, must not be b
+	 */
+	public void solve(double[] b, double[] x, double[] result) {
+		for (int k = 0; k < n; k++)
+			x[k] = b[perm[k]];
+
+		for (int j = 0; j < n; j++) {
+			double xj = x[j];
+			for (int p = lp[j]; p < lp[j + 1]; p++)
+				x[li[p]] -= lx[p] * xj;
+		}
+		for (int j = 0; j < n; j++)
+			x[j] /= d[j];
+		for (int j = n - 1; j >= 0; j--) {
+			double xj = x[j];
+			for (int p = lp[j]; p < lp[j + 1]; p++)
+				xj -= lx[p] * x[li[p]];
+			x[j] = xj;
+		}
+
+		for (int k = 0; k < n; k++)
+			result[perm[k]] = x[k];
+	}
+
+	public boolean isFactorized() {
+		return factorized;
+	}
+
+	/**
+	 * @return number of off-diagonal nonzero entries in L
+	 */
+	public int getFactorNonZeroCount() {
+		return lp[n];
+	}
+}
@@ -0,0 +1,239 @@
+package snl.ccss.jpowerflow.util;
+
+import java.util.Arrays;
+
+/**
+ * This class holds a sparse LU factorization of a structurally
+ * symmetric matrix stored by rows (CSR), P A P' = L U, with L unit
+ * lower triangular and U upper triangular.  Pivots are taken on the
+ * diagonal, as in SparseLDL, so the permutation should keep the
+ * diagonal dominant entries first; the Jacobian of the Newton power
+ * flow is ordered bus by bus for that reason.
+ *
+ * The symbolic phase finds the pattern of L from the elimination tree
+ * of the structure, the pattern of U being its transpose, and stores
+ * both with the diagonal in one filled row structure.  The numeric
+ * phase scatters the values of the matrix into that structure and
+ * eliminates row by row, it can be repeated for any matrix with the
+ * same structure without allocating.
+ */
+public class SparseLU {
+
+	private static final double PIVOT_TOLERANCE = 1e-12;
+
+	private int n;
+	private int[] perm;
+	private int[] inversePerm;
+
+	private int[] fp;
+	private int[] fi;
+	private double[] fx;
+	private int[] diag;
+	private int[] map;
+
+	private int[] position;
+	private double[] rowMax;
+
+	private boolean factorized;
+
+	/**
+	 * Constructor for SparseLU class, performs the symbolic analysis.
+	 *
+	 * @param n Size of the matrix
+	 * @param rowPointers Start of each row in columnIndices, of length n + 1
+	 * @param columnIndices Column of each entry, the pattern must be symmetric
+	 * @param perm Fill-reducing permutation, see Ordering
+	 */
+	public SparseLU(int n, int[] rowPointers, int[] columnIndices, int[] perm) {
+		this.n = n;
+		this.perm = perm;
+		this.inversePerm = Ordering.inverse(perm);
+
+		/*
+		 * Elimination tree and number of entries in each row of L.
+		 */
+		int[] parent = new int[n];
+		int[] flag = new int[n];
+		int[] lnz = new int[n];
+		for (int k = 0; k < n; k++) {
+			parent[k] = -1;
+			flag[k] = k;
+			int kk = perm[k];
+			for (int p = rowPointers[kk]; p < rowPointers[kk + 1]; p++) {
+				int i = inversePerm[columnIndices[p]];
+				if (i < k) {
+					for (; flag[i] != k; i = parent[i]) {
+						if (parent[i] == -1)
+							parent[i] = k;
+						lnz[k]++;
+						flag[i] = k;
+					}
+				}
+			}
+		}
+
+		/*
+		 * Pattern of each row of L, walking the tree again, then sorted so
+		 * that the rows above are eliminated in order.
+		 */
+		int[] lp = new int[n + 1];
+		for (int k = 0; k < n; k++)
+			lp[k + 1] = lp[k] + lnz[k];
+		int[] li = new int[lp[n]];
+		int[] unz = new int[n];
+		Arrays.fill(flag, -1);
+		for (int k = 0; k < n; k++) {
+			flag[k] = k;
+			int top = lp[k];
+			int kk = perm[k];
+			for (int p = rowPointers[kk]; p < rowPointers[kk + 1]; p++) {
+				int i = inversePerm[columnIndices[p]];
+				if (i < k) {
+					for (; flag[i] != k; i = parent[i]) {
+						li[top++] = i;
+						unz[i]++;
+						flag[i] = k;
+					}
+				}
+			}
+			Arrays.sort(li, lp[k], lp[k + 1]);
+		}
+
+		/*
+		 * Filled rows: L part, diagonal, then U part which is the transpose
+		 * of L.  Scanning the rows of L in order keeps each U row sorted.
+		 */
+		fp = new int[n + 1];
+		for (int k = 0; k < n; k++)
+			fp[k + 1] = fp[k] + lnz[k] + 1 + unz[k];
+		fi = new int[fp[n]];
+		fx = new double[fp[n]];
+		diag = new int[n];
+		int[] next = new int[n];
+		for (int k = 0; k < n; k++) {
+			int q = fp[k];
+			for (int p = lp[k]; p < lp[k + 1]; p++)
+				fi[q++] = li[p];
+			diag[k] = q;
+			fi[q++] = k;
+			next[k] = q;
+		}
+		for (int k = 0; k < n; k++) {
+			for (int p = lp[k]; p < lp[k + 1]; p++)
+				fi[next[li[p]]++] = k;
+		}
+
+		/*
+		 * Position of every entry of the matrix in the filled rows.
+		 */
+		map = new int[rowPointers[n]];
+		for (int r = 0; r < n; r++) {
+			int i = inversePerm[r];
+			for (int p = rowPointers[r]; p < rowPointers[r + 1]; p++)
+				map[p] = Arrays.binarySearch(fi, fp[i], fp[i + 1], inversePerm[columnIndices[p]]);
+		}
+
+		position = new int[n];
+		Arrays.fill(position, -1);
+		rowMax = new double[n];
+	}
+
+	/**
+	 * This method computes the numeric factorization of a matrix
+	 * having the structure given at construction.
+	 *
+	 * @param values Value of each entry, in the order of columnIndices
+	 * @return false if a pivot is too small compared to its row (singular matrix)
+	 */
+	public boolean factorize(double[] values) {
+		factorized = false;
+		Arrays.fill(fx, 0);
+		Arrays.fill(rowMax, 0);
+		for (int p = 0; p < map.length; p++)
+			fx[map[p]] += values[p];
+		for (int i = 0; i < n; i++) {
+			for (int p = fp[i]; p < fp[i + 1]; p++)
+				rowMax[i] = Math.max(rowMax[i], Math.abs(fx[p]));
+		}
+
+		for (int i = 0; i < n; i++) {
+			for (int p = fp[i]; p < fp[i + 1]; p++)
+				position[fi[p]] = p;
+
+			/*
+			 * Row i is reduced by every row k above it in its pattern, the
+			 * fill of row k's U part being already in row i's structure.
+			 */
+			for (int p = fp[i]; p < diag[i]; p++) {
+				int k = fi[p];
+				double lik = fx[p] / fx[diag[k]];
+				fx[p] = lik;
+				if (lik != 0) {
+					for (int q = diag[k] + 1; q < fp[k + 1]; q++)
+						fx[position[fi[q]]] -= lik * fx[q];
+				}
+			}
+
+			for (int p = fp[i]; p < fp[i + 1]; p++)
+				position[fi[p]] = -1;
+
+			double pivot = fx[diag[i]];
+			if (!(Math.abs(pivot) > PIVOT_TOLERANCE * rowMax[i]))
+				return false;
+		}
+		factorized = true;
+		return true;
+	}
+
+	/**
+	 * This method solves A x = b using the last numeric factorization.
+	 *
+	 * @param b Right hand side, left unchanged
+	 * @return solution x
+	 */
+	public double[] solve(double[] b) {
+		double[] result = new double[n];
+		solve(b, new double[n], result);
+		return result;
+	}
+
+	/**
+	 * This method solves A x = b using the last numeric factorization,
+	 * without allocating: the solution is written into the given array.
+	 *
+	 * @param b Right hand side, left unchanged
+	 * @param x Work array of length n
+	 * @param result Filled with the solution, must not be b
+	 */
+	public void solve(double[] b, double[] x, double[] result) {
+		for (int k = 0; k < n; k++)
+			x[k] = b[perm[k]];
+
+		for (int i = 0; i < n; i++) {
+			double xi = x[i];
+			for (int p = fp[i]; p < diag[i]; p++)
+				xi -= fx[p] * x[fi[p]];
+			x[i] = xi;
+		}
+		for (int i = n - 1; i >= 0; i--) {
+			double xi = x[i];
+			for (int p = diag[i] + 1; p < fp[i + 1]; p++)
+				xi -= fx[p] * x[fi[p]];
+			x[i] = xi / fx[diag[i]];
+		}
+
+		for (int k = 0; k < n; k++)
+			result[perm[k]] = x[k];
+	}
+
+	public boolean isFactorized() {
+		return factorized;
+	}
+
+	/**
+	 * @return number of entries in L and U, diagonal included
+	 */
+	public int getFactorNonZeroCount() {
+		return fp[n];
+	}
+}
@@ -0,0 +1,150 @@
+package snl.ccss.jpowerflow.util;
+
+/**
+ * This class holds a square sparse matrix in compressed
+ * sparse column (CSC) format.  Row indexes are sorted in
+ * increasing order inside each column and every (row, column)
+ * position is stored at most once.
+ *
+ * Memory is proportional to the number of nonzero entries,
+ * which for bus matrices is the number of branches plus the
+ * number of buses.
+ */
+public class SparseMatrix {
+
+	private int n;
+	private int[] colPointers;
+	private int[] rowIndices;
+	private double[] values;
+
+	/**
+	 * Constructor for SparseMatrix class from its compressed columns.
+	 *
+	 * @param n Number of rows and columns
+	 * @param colPointers Start of each column in rowIndices and values, of size n + 1
+	 * @param rowIndices Sorted row index of each entry
+	 * @param values Value of each entry
+	 */
+	public SparseMatrix(int n, int[] colPointers, int[] rowIndices, double[] values) {
+		this.n = n;
+		this.colPointers = colPointers;
+		this.rowIndices = rowIndices;
+		this.values = values;
+	}
+
+	/**
+	 * This method builds a sparse matrix from a list of (row, column, value)
+	 * triplets.  Values given several times for the same position are added.
+	 *
+	 * @param n Number of rows and columns
+	 * @param count Number of triplets to read from the arrays
+	 * @param rows Row index of each triplet
+	 * @param cols Column index of each triplet
+	 * @param vals Value of each triplet
+	 * @return the compressed matrix
+	 */
+	public static SparseMatrix fromTriplets(int n, int count, int[] rows, int[] cols, double[] vals) {
+		/*
+		 * Triplets are first bucketed by row, then appended row after row to
+		 * their column so that each column ends up sorted and duplicates end
+		 * up next to each other.
+		 */
+		int[] rowPointers = new int[n + 1];
+		for (int k = 0; k < count; k++)
+			rowPointers[rows[k] + 1]++;
+		for (int i = 0; i < n; i++)
+			rowPointers[i + 1] += rowPointers[i];
+		int[] byRow = new int[count];
+		int[] next = new int[n];
+		System.arraycopy(rowPointers, 0, next, 0, n);
+		for (int k = 0; k < count; k++)
+			byRow[next[rows[k]]++] = k;
+
+		int[] colCounts = new int[n + 1];
+		for (int k = 0; k < count; k++)
+			colCounts[cols[k] + 1]++;
+		for (int j = 0; j < n; j++)
+			colCounts[j + 1] += colCounts[j];
+
+		int[] fill = new int[n];
+		int[] tmpRows = new int[count];
+		double[] tmpVals = new double[count];
+		for (int i = 0; i < n; i++) {
+			for (int q = rowPointers[i]; q < rowPointers[i + 1]; q++) {
+				int k = byRow[q];
+				int j = cols[k];
+				int last = colCounts[j] + fill[j] - 1;
+				if (fill[j] > 0 && tmpRows[last] == i) {
+					tmpVals[last] += vals[k];
+				} else {
+					tmpRows[last + 1] = i;
+					tmpVals[last + 1] = vals[k];
+					fill[j]++;
+				}
+			}
+		}
+
+		int[] colPointers = new int[n + 1];
+		for (int j = 0; j < n; j++)
+			colPointers[j + 1] = colPointers[j] + fill[j];
+		int[] rowIndices = new int[colPointers[n]];
+		double[] values = new double[colPointers[n]];
+		for (int j = 0; j < n; j++) {
+			System.arraycopy(tmpRows, colCounts[j], rowIndices, colPointers[j], fill[j]);
+			System.arraycopy(tmpVals, colCounts[j], values, colPointers[j], fill[j]);
+		}
+		return new SparseMatrix(n, colPointers, rowIndices, values);
+	}
+
+	/**
+	 * This method returns the position of entry (i, j) in the value array.
+	 * @param i Row index
+	 * @param j Column index
+	 * @return position of the entry, or -1 if the entry is not stored
+	 */
+	public int indexOf(int i, int j) {
+		int low = colPointers[j];
+		int high = colPointers[j + 1] - 1;
+		while (low <= high) {
+			int mid = (low + high) >>> 1;
+			int row = rowIndices[mid];
+			if (row < i)
+				low = mid + 1;
+			else if (row > i)
+				high = mid - 1;
+			else
+				return mid;
+		}
+		return -1;
+	}
+
+	/**
+	 * @param i Row index
+	 * @param j Column index
+	 * @return value of entry (i, j), zero if the entry is not stored
+	 */
+	public double getElement(int i, int j) {
+		int p = indexOf(i, j);
+		return p == -1 ? 0 : values[p];
+	}
+
+	public int getSize() {
+		return n;
+	}
+
+	public int getNonZeroCount() {
+		return colPointers[n];
+	}
+
+	public int[] getColPointers() {
+		return colPointers;
+	}
+
+	public int[] getRowIndices() {
+		return rowIndices;
+	}
+
+	public double[] getValues() {
+		return values;
+	}
+}
@@ -0,0 +1,105 @@
+package strategy;
+
+import org.chocosolver.solver.Model;
+import org.chocosolver.solver.Solver;
+import org.chocosolver.solver.search.strategy.Search;
+import org.chocosolver.solver.variables.IntVar;
+
+import java.util.Arrays;
+
+/**
+ * Résolution des problèmes de concession par programmation par contraintes.
+ *
+ * Les quantités et les coefficients sont ramenés à des entiers en les multipliant par scale,
+ * et c'est la première solution trouvée par Choco qui est renvoyée. La recherche donne à chaque
+ * partenaire, dans l'ordre de GreedyConcessionAllocator, la plus grande quantité possible : la
+ * première solution est celle de GreedyConcessionAllocator, alors que celle de la recherche par
+ * défaut dépendait des départages aléatoires de Choco.
+ */
+public class ChocoConcessionAllocator implements ConcessionAllocator {
+    private int scale ;
+
+    /**
+     * @param scale inverse de la précision des quantités
+     */
+    public ChocoConcessionAllocator(int scale){
+        this.scale = scale ;
+    }
+
+    public double[] minimizeCost(double[] costs, double[] maxQuantities, double demand) {
+        int size = costs.length ;
+        Model model = new Model("seller choice") ;
+        IntVar[] qs = new IntVar[size];
+        int[] coeffs = new int[size];
+        IntVar sum = model.intVar("sum", 0,2000000000);
+        for( int i =0 ; i<size ; i++ ){
+            coeffs[i]= Double.valueOf(this.scale*costs[i]).intValue() ;
+            qs[i] = model.intVar("q"+i, 0, Math.abs(Double.valueOf(this.scale*maxQuantities[i]).intValue()));
+        }
+        IntVar energy = model.intVar(Math.abs(Double.valueOf(this.scale*demand).intValue()));
+        model.scalar(qs, coeffs, "=", sum).post() ; // On effectue la somme des multiplications, on met la somme dans sum
+        model.sum(qs, "=", energy ).post();
+        model.setObjective(model.MINIMIZE, sum); // On veut minimiser sum
+        Solver solver = model.getSolver();
+        solver.setSearch(Search.inputOrderUBSearch(order(qs, GreedyConcessionAllocator.costOrder(coeffs))));
+        /*solver.showStatistics();*/
+        if(solver.solve()){
+            return this.values(qs) ;
+        }
+        return null ;
+    }
+
+    public double[] maximizeValue(double[] values, double[] weights, double[] maxQuantities, double capacity) {
+        int size = values.length ;
+        Model model = new Model("buyer choice") ;
+        IntVar[] qb = new IntVar[size];
+        int[] coeffs = new int[size];
+        int[] coeffsLosses = new int[size];
+        IntVar sum = model.intVar("sum", 0, 2000000000);
+        for( int i =0 ; i<size ; i++ ){
+            coeffsLosses[i] = Double.valueOf(this.scale*weights[i]).intValue() ;
+            coeffs[i]= Double.valueOf(this.scale*values[i]).intValue() ;
+            qb[i] = model.intVar("q"+i, 0, Math.abs(Double.valueOf(this.scale*maxQuantities[i]).intValue()));
+        }
+        model.scalar(qb, coeffs, "=", sum).post() ; // On effectue la somme des multiplications, on met la somme dans sum
+        model.scalar(qb, coeffsLosses, "<=", Double.valueOf(this.scale*this.scale*capacity).intValue()).post();
+        model.setObjective(model.MAXIMIZE, sum); // On veut maximiser sum
+        Solver solver = model.getSolver();
+        Integer[] order = GreedyConcessionAllocator.valueOrder(coeffs, coeffsLosses) ;
+        int useful = 0 ; // les partenaires qui n'apportent rien sont à la fin et restent à 0
+        while(useful < size && coeffs[order[useful]] > 0)
+            useful++ ;
+        IntVar[] ordered = order(qb, order) ;
+        if(useful == 0)
+            solver.setSearch(Search.inputOrderLBSearch(ordered));
+        else if(useful == size)
+            solver.setSearch(Search.inputOrderUBSearch(ordered));
+        else
+            solver.setSearch(Search.sequencer(
+                    Search.inputOrderUBSearch(Arrays.copyOfRange(ordered, 0, useful)),
+                    Search.inputOrderLBSearch(Arrays.copyOfRange(ordered, useful, size))));
+        if(solver.solve()){
+            return this.values(qb) ;
+        }
+        return null ;
+    }
+
+    /**
+     * @return les variables dans l'ordre donné
+     */
+    private static IntVar[] order(IntVar[] qs, Integer[] order){
+        IntVar[] ordered = new IntVar[qs.length] ;
+        for(int i=0; i< qs.length ; i++){
+            ordered[i] = qs[order[i]] ;
+        }
+        return ordered ;
+    }
+
+    private double[] values(IntVar[] qs){
+        double[] quantities = new double[qs.length] ;
+        for(int i=0; i< qs.length ; i++){
+            quantities[i] = Double.valueOf(qs[i].getValue())/this.scale ;
+        }
+        return quantities ;
+    }
+}
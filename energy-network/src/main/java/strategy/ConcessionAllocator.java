@@ -0,0 +1,28 @@
+package strategy;
+
+/**
+ * Répartition d'une concession entre les partenaires possibles d'un prosumer.
+ *
+ * Les tableaux sont indexés par partenaire, les quantités renvoyées vont de 0 à la quantité maximale du partenaire.
+ */
+public interface ConcessionAllocator {
+
+    /**
+     * Choix des vendeurs par un acheteur : minimise la somme des cost*q avec une somme des q égale à demand
+     * @param costs cout par unité de chaque partenaire
+     * @param maxQuantities
+     * @param demand
+     * @return null s'il n'y a pas de solution
+     */
+    public double[] minimizeCost(double[] costs, double[] maxQuantities, double demand);
+
+    /**
+     * Choix des acheteurs par un vendeur : maximise la somme des value*q avec une somme des weight*q inférieure à capacity
+     * @param values gain par unité de chaque partenaire
+     * @param weights énergie consommée par unité de chaque partenaire
+     * @param maxQuantities
+     * @param capacity
+     * @return null s'il n'y a pas de solution
+     */
+    public double[] maximizeValue(double[] values, double[] weights, double[] maxQuantities, double capacity);
+}
@@ -0,0 +1,207 @@
+package strategy;
+
+import metrics.Counter;
+import metrics.Histogram;
+import metrics.MetricsRegistry;
+import metrics.Timer;
+import modele.Prosumer;
+
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Recherche de la plus grande quantité qu'un vendeur peut envoyer à un acheteur en couvrant les pertes.
+ *
+ * Ce que doit envoyer le vendeur croît avec la quantité, la faisabilité est donc monotone :
+ * on teste d'abord la quantité demandée puis on procède par dichotomie, ce qui demande
+ * de l'ordre de log2(quantité/précision) évaluations du réseau.
+ *
+ * Une recherche ne dépend que de ses paramètres, de l'état des deux prosumers et de la version du réseau.
+ * La dernière recherche de chaque couple acheteur-vendeur est gardée tant que le réseau ne change pas, ce qui
+ * permet de la préparer en parallèle avec prefetch avant de dérouler la négociation. Une recherche avec une
+ * autre quantité la remplace, les résultats gardés ne dépassent donc pas le nombre de partenariats.
+ */
+public class FeasibleQuantityFinder {
+    private static final Histogram EVALUATIONS = MetricsRegistry.getDefault().histogram("quantity.evaluations") ;
+    private static final Timer FIND_TIMER = MetricsRegistry.getDefault().timer("quantity.find") ;
+    private static final Counter REUSED = MetricsRegistry.getDefault().counter("quantity.reused") ;
+
+    private TransferEvaluator evaluator ;
+    private double precision ;
+    private Transfer transfer ;
+    private int evaluations ;
+    private ConcurrentHashMap<Long, Search> searches ; // dernière recherche de chaque couple, voir key
+    private long searchesVersion ;
+
+    /**
+     * @param evaluator
+     * @param precision écart maximal entre la quantité trouvée et la plus grande quantité faisable
+     */
+    public FeasibleQuantityFinder(TransferEvaluator evaluator, double precision){
+        this.evaluator = evaluator ;
+        this.precision = precision ;
+        this.searches = new ConcurrentHashMap<Long, Search>() ;
+        this.searchesVersion = -1 ;
+    }
+
+    /**
+     * @param buyer
+     * @param seller
+     * @param quantity quantité demandée
+     * @param networkLosses pertes des accords déjà conclus
+     * @param networkCongestion couts de congestion des accords déjà conclus
+     * @return la plus grande quantité faisable inférieure à quantity, 0 si aucune
+     */
+    public double find(Prosumer buyer, Prosumer seller, double quantity, double networkLosses, double networkCongestion){
+        long start = FIND_TIMER.start() ;
+        try {
+            Search search = new Search(this.checkVersion(), buyer, seller, quantity, networkLosses, networkCongestion);
+            Search done = this.searches.get(search.key());
+            if(done == null || !done.equals(search)){
+                search.run();
+                EVALUATIONS.record(search.evaluations);
+                this.searches.put(search.key(), search);
+                this.evaluations = search.evaluations ;
+            }else{
+                search = done ;
+                this.evaluations = 0 ;
+                REUSED.increment();
+            }
+            this.transfer = search.transfer ;
+            return search.result ;
+        } finally {
+            FIND_TIMER.stop(start);
+        }
+    }
+
+    /**
+     * Fait la recherche à l'avance, peut être appelée depuis plusieurs threads tant que le réseau et les prosumers ne changent pas
+     * @param buyer
+     * @param seller
+     * @param quantity
+     * @param networkLosses
+     * @param networkCongestion
+     */
+    public void prefetch(Prosumer buyer, Prosumer seller, double quantity, double networkLosses, double networkCongestion){
+        Search search = new Search(this.checkVersion(), buyer, seller, quantity, networkLosses, networkCongestion);
+        Search done = this.searches.get(search.key());
+        if(done == null || !done.equals(search)){
+            search.run();
+            EVALUATIONS.record(search.evaluations);
+            this.searches.put(search.key(), search);
+        }
+    }
+
+    /**
+     * @param transfer
+     * @param seller
+     * @return vrai si le vendeur a assez d'énergie pour le transfert en prenant en compte les pertes
+     */
+    public boolean isFeasible(Transfer transfer, Prosumer seller){
+        return transfer.isFeasible() && transfer.getSent() + seller.getEnergyLost() <= seller.getEnergy() ;
+    }
+
+    /**
+     * @return évaluation du transfert pour la quantité renvoyée par le dernier appel à find, null si elle est nulle
+     */
+    public Transfer getTransfer() {
+        return transfer;
+    }
+
+    /**
+     * @return nombre d'évaluations du réseau faites par le dernier appel à find, 0 si la recherche avait déjà été faite
+     */
+    public int getEvaluations() {
+        return evaluations;
+    }
+
+    /**
+     * Oublie les recherches faites sur un réseau qui a changé depuis
+     * @return version actuelle du réseau
+     */
+    private synchronized long checkVersion(){
+        long version = this.evaluator.getNetworkVersion();
+        if(version != this.searchesVersion){
+            this.searches.clear();
+            this.searchesVersion = version ;
+        }
+        return version ;
+    }
+
+    /**
+     * Une recherche, identifiée par tout ce dont dépend son résultat
+     */
+    private class Search {
+        private long version ;
+        private Prosumer buyer ;
+        private Prosumer seller ;
+        private double[] values ;
+        private double result ;
+        private Transfer transfer ;
+        private int evaluations ;
+
+        private Search(long version, Prosumer buyer, Prosumer seller, double quantity, double networkLosses, double networkCongestion){
+            this.version = version ;
+            this.buyer = buyer ;
+            this.seller = seller ;
+            this.values = new double[]{ quantity, networkLosses, networkCongestion, buyer.getEnergyReceived(),
+                    seller.getEnergySend(), seller.getEnergyLost(), seller.getEnergy() };
+        }
+
+        /**
+         * @return clé du couple acheteur-vendeur
+         */
+        private Long key(){
+            return ((long)this.buyer.getId() << 32) | (this.seller.getId() & 0xffffffffL) ;
+        }
+
+        private void run(){
+            double quantity = this.values[0] ;
+            Transfer transfer = this.evaluate(quantity);
+            if(isFeasible(transfer, this.seller)){
+                this.transfer = transfer ;
+                this.result = quantity ;
+                return ;
+            }
+            double feasible = 0 ;
+            double infeasible = quantity ;
+            while(infeasible - feasible > precision){
+                double middle = (feasible + infeasible) / 2 ;
+                transfer = this.evaluate(middle);
+                if(isFeasible(transfer, this.seller)){
+                    feasible = middle ;
+                    this.transfer = transfer ;
+                }else{
+                    infeasible = middle ;
+                }
+            }
+            this.result = feasible ;
+        }
+
+        private Transfer evaluate(double quantity){
+            this.evaluations++ ;
+            return evaluator.evaluate(this.buyer, this.seller, quantity, this.values[1], this.values[2]);
+        }
+
+        public boolean equals(Object o){
+            if(!(o instanceof Search))
+                return false ;
+            Search search = (Search)o ;
+            if(search.version != this.version || search.buyer != this.buyer || search.seller != this.seller)
+                return false ;
+            for (int i = 0; i < this.values.length; i++) {
+                if(Double.doubleToLongBits(search.values[i]) != Double.doubleToLongBits(this.values[i]))
+                    return false ;
+            }
+            return true ;
+        }
+
+        public int hashCode(){
+            int hash = 31 * this.buyer.getId() + this.seller.getId() ;
+            for (double value : this.values) {
+                long bits = Double.doubleToLongBits(value);
+                hash = 31 * hash + (int)(bits ^ (bits >>> 32));
+            }
+            return hash ;
+        }
+    }
+}
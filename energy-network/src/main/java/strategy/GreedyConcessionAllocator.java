@@ -0,0 +1,117 @@
+package strategy;
+
+import java.util.Arrays;
+import java.util.Comparator;
+
+/**
+ * Résolution des deux problèmes de concession en triant les partenaires.
+ *
+ * L'acheteur prend les vendeurs du moins cher au plus cher jusqu'à couvrir son besoin, le vendeur
+ * remplit sa capacité avec les acheteurs qui rapportent le plus par unité d'énergie consommée
+ * (sac à dos). Chaque choix coute O(k log k) pour k partenaires.
+ *
+ * Les données sont ramenées aux entiers du modèle de ChocoConcessionAllocator : les quantités sont
+ * des multiples de 1/scale, arrondies par défaut, et une part plus petite que ce pas n'est pas
+ * concédée. Les deux allocateurs parcourent les partenaires dans le même ordre et renvoient donc
+ * les mêmes quantités.
+ */
+public class GreedyConcessionAllocator implements ConcessionAllocator {
+    private int scale ;
+
+    /**
+     * @param scale inverse de la précision des quantités
+     */
+    public GreedyConcessionAllocator(int scale){
+        this.scale = scale ;
+    }
+
+    public double[] minimizeCost(double[] costs, double[] maxQuantities, double demand) {
+        int size = costs.length ;
+        int[] coeffs = new int[size] ;
+        long[] maxUnits = new long[size] ;
+        long total = 0 ;
+        for (int i = 0; i < size; i++) {
+            coeffs[i] = Double.valueOf(this.scale * costs[i]).intValue() ;
+            maxUnits[i] = Math.abs(Double.valueOf(this.scale * maxQuantities[i]).intValue()) ;
+            total += maxUnits[i] ;
+        }
+        long left = Math.abs(Double.valueOf(this.scale * demand).intValue()) ;
+        if(total < left)
+            return null ; // les partenaires ne peuvent pas couvrir le besoin
+
+        double[] quantities = new double[size] ;
+        for (int i : costOrder(coeffs)) {
+            long q = Math.min(maxUnits[i], left) ;
+            quantities[i] = (double)q / this.scale ;
+            left -= q ;
+        }
+        return quantities ;
+    }
+
+    public double[] maximizeValue(double[] values, double[] weights, double[] maxQuantities, double capacity) {
+        int size = values.length ;
+        int[] coeffs = new int[size] ;
+        int[] coeffsLosses = new int[size] ;
+        for (int i = 0; i < size; i++) {
+            coeffs[i] = Double.valueOf(this.scale * values[i]).intValue() ;
+            coeffsLosses[i] = Double.valueOf(this.scale * weights[i]).intValue() ;
+        }
+        long left = Double.valueOf(this.scale * this.scale * capacity).intValue() ;
+        if(left < 0)
+            return null ;
+
+        double[] quantities = new double[size] ;
+        for (int i : valueOrder(coeffs, coeffsLosses)) {
+            long q = Math.abs(Double.valueOf(this.scale * maxQuantities[i]).intValue()) ;
+            if(coeffs[i] <= 0)
+                q = 0 ; // n'apporte rien
+            else if(coeffsLosses[i] > 0)
+                q = Math.min(q, left / coeffsLosses[i]) ;
+            quantities[i] = (double)q / this.scale ;
+            left -= coeffsLosses[i] * q ;
+        }
+        return quantities ;
+    }
+
+    /**
+     * Partenaires du moins cher au plus cher, à égalité dans l'ordre de la liste
+     * @param coeffs cout par unité de chaque partenaire
+     * @return indices des partenaires
+     */
+    static Integer[] costOrder(final int[] coeffs){
+        return order(coeffs.length, new Comparator<Integer>() {
+            public int compare(Integer i, Integer j) {
+                return Integer.compare(coeffs[i], coeffs[j]);
+            }
+        });
+    }
+
+    /**
+     * Partenaires qui rapportent quelque chose, du meilleur gain par unité d'énergie au moins bon,
+     * puis ceux qui n'apportent rien. A égalité dans l'ordre de la liste
+     * @param coeffs gain par unité de chaque partenaire
+     * @param coeffsLosses énergie consommée par unité de chaque partenaire
+     * @return indices des partenaires
+     */
+    static Integer[] valueOrder(final int[] coeffs, final int[] coeffsLosses){
+        return order(coeffs.length, new Comparator<Integer>() {
+            public int compare(Integer i, Integer j) {
+                if((coeffs[i] > 0) != (coeffs[j] > 0))
+                    return coeffs[i] > 0 ? -1 : 1 ;
+                if(coeffs[i] <= 0)
+                    return 0 ;
+                // coeffs[i]/coeffsLosses[i] comparé à coeffs[j]/coeffsLosses[j] sans division par 0
+                return Long.compare((long)coeffs[j] * coeffsLosses[i], (long)coeffs[i] * coeffsLosses[j]);
+            }
+        });
+    }
+
+    private static Integer[] order(int size, Comparator<Integer> comparator){
+        Integer[] order = new Integer[size] ;
+        for (int i = 0; i < size; i++) {
+            order[i] = i ;
+        }
+        Arrays.sort(order, comparator);
+        return order ;
+    }
+}
@@ -0,0 +1,194 @@
+package strategy;
+
+import metrics.MetricsRegistry;
+import metrics.Timer;
+import modele.Link;
+import modele.NetworkArrays;
+import modele.Node;
+import modele.PowerSystem;
+import snl.ccss.jpowerflow.dc.DCTopology;
+import snl.ccss.jpowerflow.dc.RadialDCSolver;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Facteurs de distribution des transferts (PTDF) sur le réseau.
+ *
+ * Le flux DC étant linéaire en les injections, la variation du flux de chaque lien
+ * pour un MW injecté sur un bus (et absorbé par le slack), ou transféré d'un vendeur
+ * vers un acheteur, ne dépend que de la topologie. Ces vecteurs, indexés comme
+ * getEnergizedBranchList(), sont calculés à la demande par une seule résolution et
+ * gardés dans des caches LRU, vidés dès que la topologie change. Un vecteur occupant
+ * 8 octets par lien, la taille des caches est donnée en octets et le nombre de vecteurs
+ * gardés est recalculé pour chaque topologie.
+ *
+ * Les méthodes sont synchronisées pour que plusieurs négociations puissent être évaluées en parallèle,
+ * les vecteurs renvoyés ne sont jamais modifiés.
+ */
+public class PTDFEngine {
+    private static final Timer SOLVE_TIMER = MetricsRegistry.getDefault().timer("ptdf.solve") ;
+
+    private PowerSystem powerSystem ;
+    private RadialDCSolver solver ;
+    private DCTopology topology ;
+    private LinkedHashMap<Integer, double[]> busSensitivities ;
+    private LinkedHashMap<Long, double[]> transferFactors ;
+    private double[] baseFlows ;
+    private long cacheBytes ;
+    private int capacity ;
+    private long version ;
+    private long solves ;
+
+    /**
+     * @param powerSystem
+     * @param cacheBytes taille maximale des vecteurs gardés dans les deux caches, en octets
+     */
+    public PTDFEngine(PowerSystem powerSystem, long cacheBytes){
+        this.powerSystem = powerSystem ;
+        this.solver = new RadialDCSolver() ;
+        this.cacheBytes = cacheBytes ;
+        this.busSensitivities = new LinkedHashMap<Integer, double[]>(16, 0.75f, true){
+            protected boolean removeEldestEntry(Map.Entry<Integer, double[]> eldest) {
+                return size() > capacity ;
+            }
+        };
+        this.transferFactors = new LinkedHashMap<Long, double[]>(16, 0.75f, true){
+            protected boolean removeEldestEntry(Map.Entry<Long, double[]> eldest) {
+                return size() > capacity ;
+            }
+        };
+    }
+
+    /**
+     * Flux de chaque lien pour les injections actuelles des bus
+     * @return
+     */
+    public synchronized double[] getBaseFlows(){
+        this.checkTopology();
+        if(this.baseFlows == null) {
+            double[] power = new double[this.topology.getBusCount()];
+            this.topology.getBusMw(this.powerSystem, power);
+            long start = SOLVE_TIMER.start() ;
+            this.baseFlows = this.solver.solveMwFlows(power);
+            SOLVE_TIMER.stop(start);
+            this.solves++ ;
+        }
+        return this.baseFlows ;
+    }
+
+    /**
+     * A appeler quand les injections des prosumers ont changé (accord conclu)
+     */
+    public synchronized void invalidateBaseFlows(){
+        this.baseFlows = null ;
+        this.version++ ;
+    }
+
+    /**
+     * @return numéro changeant à chaque fois que les flux de base ou la topologie changent
+     */
+    public synchronized long getVersion(){
+        this.checkTopology();
+        return this.version ;
+    }
+
+    /**
+     * @return nombre de résolutions faites depuis la création, les vecteurs trouvés dans les caches ne comptent pas
+     */
+    public synchronized long getSolveCount(){
+        return this.solves ;
+    }
+
+    /**
+     * Variation du flux de chaque lien pour un MW injecté sur le bus et absorbé par le slack
+     * @param bus
+     * @return
+     */
+    public synchronized double[] getBusSensitivity(Node bus){
+        this.checkTopology();
+        return this.busSensitivity(this.indexOf(bus));
+    }
+
+    private double[] busSensitivity(int index){
+        double[] sensitivity = this.busSensitivities.get(index);
+        if(sensitivity == null){
+            double[] power = new double[this.topology.getBusCount()];
+            power[index] = 1 ;
+            long start = SOLVE_TIMER.start() ;
+            sensitivity = this.solver.solveMwFlows(power);
+            SOLVE_TIMER.stop(start);
+            this.solves++ ;
+            this.busSensitivities.put(index, sensitivity);
+        }
+        return sensitivity ;
+    }
+
+    /**
+     * Variation du flux de chaque lien pour un MW envoyé par le vendeur à l'acheteur
+     * @param seller
+     * @param buyer
+     * @return
+     */
+    public synchronized double[] getTransferFactors(Node seller, Node buyer){
+        this.checkTopology();
+        int sellerIndex = this.indexOf(seller);
+        int buyerIndex = this.indexOf(buyer);
+        long key = ((long)sellerIndex << 32) | buyerIndex ;
+        double[] factors = this.transferFactors.get(key);
+        if(factors == null){
+            double[] fromSeller = this.busSensitivity(sellerIndex);
+            double[] fromBuyer = this.busSensitivity(buyerIndex);
+            factors = new double[fromSeller.length];
+            for (int l = 0; l < factors.length; l++) {
+                factors[l] = fromSeller[l] - fromBuyer[l];
+            }
+            this.transferFactors.put(key, factors);
+        }
+        return factors ;
+    }
+
+    /**
+     * @return forme compilée du réseau, indexée comme les vecteurs rendus
+     */
+    public synchronized NetworkArrays getNetwork(){
+        this.checkTopology();
+        return this.powerSystem.getArrays();
+    }
+
+    public synchronized int getLinkCount(){
+        this.checkTopology();
+        return this.topology.getBranchCount();
+    }
+
+    /**
+     * @return nombre maximal de vecteurs gardés dans chaque cache pour la topologie actuelle, au moins 1
+     */
+    public synchronized int getCacheCapacity(){
+        this.checkTopology();
+        return this.capacity ;
+    }
+
+    private int indexOf(Node bus){
+        int index = this.topology.getBusIndex().indexOf(bus.getId());
+        if(index == -1)
+            throw new IllegalArgumentException("Le bus "+bus.getId()+" n'est pas dans le réseau");
+        return index ;
+    }
+
+    /**
+     * Vide les caches si des liens ou des bus ont été ajoutés ou modifiés
+     */
+    private void checkTopology(){
+        this.solver.prepare(this.powerSystem);
+        if(this.solver.getTopology() != this.topology){
+            this.topology = this.solver.getTopology();
+            long vectorBytes = 8L * Math.max(1, this.topology.getBranchCount()) ;
+            this.capacity = (int)Math.max(1, Math.min(Integer.MAX_VALUE, this.cacheBytes / (2 * vectorBytes))) ;
+            this.busSensitivities.clear();
+            this.transferFactors.clear();
+            this.baseFlows = null ;
+            this.version++ ;
+        }
+    }
+}
@@ -0,0 +1,40 @@
+package strategy;
+
+/**
+ * Résultat de l'évaluation d'un transfert d'énergie d'un vendeur vers un acheteur
+ */
+public class Transfer {
+    private boolean feasible ;
+    private double sent ;
+    private double losses ;
+    private double congestion_cost ;
+
+    public Transfer(boolean feasible, double sent, double losses, double congestion_cost){
+        this.feasible = feasible ;
+        this.sent = sent ;
+        this.losses = losses ;
+        this.congestion_cost = congestion_cost ;
+    }
+
+    /**
+     * @return faux si le vendeur ne peut pas couvrir les pertes que son envoi provoque
+     */
+    public boolean isFeasible() {
+        return feasible;
+    }
+
+    /**
+     * @return énergie totale envoyée par le vendeur, pertes comprises
+     */
+    public double getSent() {
+        return sent;
+    }
+
+    public double getLosses() {
+        return losses;
+    }
+
+    public double getCongestion_cost() {
+        return congestion_cost;
+    }
+}
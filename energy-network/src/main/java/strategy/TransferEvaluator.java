@@ -0,0 +1,149 @@
+package strategy;
+
+import metrics.MetricsRegistry;
+import metrics.Timer;
+import modele.NetworkArrays;
+import modele.Prosumer;
+
+import java.util.Arrays;
+import java.util.Comparator;
+
+/**
+ * Calcule en une passe ce que doit envoyer un vendeur pour couvrir une offre et les pertes qu'elle provoque.
+ *
+ * Le vendeur envoie la quantité de l'offre plus les pertes L, et les pertes dépendent de ce qu'il envoie :
+ * le flux de chaque lien vaut a + L*h, où h est la sensibilité du lien au bus du vendeur, donc
+ * L = g(L) = somme des joule*|a + L*h|/100 - pertes déjà attribuées.
+ * g est linéaire par morceaux et convexe, elle ne change de pente que là où un flux change de sens :
+ * on parcourt ces points depuis 0 jusqu'au premier morceau qui contient un point fixe g(L) = L.
+ */
+public class TransferEvaluator {
+    private static final Timer EVALUATE_TIMER = MetricsRegistry.getDefault().timer("transfer.evaluate") ;
+
+    private PTDFEngine ptdf ;
+    private double approximation ;
+
+    public TransferEvaluator(PTDFEngine ptdf, double approximation){
+        this.ptdf = ptdf ;
+        this.approximation = approximation ;
+    }
+
+    /**
+     * L'acheteur recoit la quantité de l'offre à la place de ce qu'il recoit déjà
+     * @param buyer
+     * @param seller
+     * @param quantity quantité de l'offre
+     * @param networkLosses pertes des accords déjà conclus
+     * @param networkCongestion couts de congestion des accords déjà conclus
+     * @return
+     */
+    public Transfer evaluate(Prosumer buyer, Prosumer seller, double quantity, double networkLosses, double networkCongestion){
+        long start = EVALUATE_TIMER.start() ;
+        try {
+            return this.compute(buyer, seller, quantity, networkLosses, networkCongestion) ;
+        } finally {
+            EVALUATE_TIMER.stop(start);
+        }
+    }
+
+    private Transfer compute(Prosumer buyer, Prosumer seller, double quantity, double networkLosses, double networkCongestion){
+        double[] baseFlows = this.ptdf.getBaseFlows();
+        double[] fromBuyer = this.ptdf.getBusSensitivity(buyer);
+        double[] fromSeller = this.ptdf.getBusSensitivity(seller);
+        double[] transfer = this.ptdf.getTransferFactors(seller, buyer);
+        double received = buyer.getEnergyReceived() ;
+        NetworkArrays network = this.ptdf.getNetwork() ;
+        int[] from = network.getFrom() ;
+        int[] to = network.getTo() ;
+        double[] joule = network.getJoule() ;
+        double[] capacity = network.getCapacity() ;
+
+        double[] flow = new double[baseFlows.length] ; // flux quand le vendeur n'envoie que la quantité
+        double[] weight = new double[baseFlows.length] ; // pertes par MW, 0 pour un lien hors du réseau
+        double value = -networkLosses ;
+        for (int l = 0; l < baseFlows.length; l++) {
+            if(from[l] == -1 || to[l] == -1)
+                continue ; // lien hors du réseau
+            flow[l] = baseFlows[l] + received * fromBuyer[l] + quantity * transfer[l] ;
+            weight[l] = joule[l] / 100.0 ;
+            value += weight[l] * Math.abs(flow[l]) ;
+        }
+
+        double losses = fixedPoint(flow, fromSeller, weight, value) ;
+        if(Double.isNaN(losses))
+            return new Transfer(false, Double.NaN, Double.NaN, Double.NaN) ; // les pertes croissent plus vite que l'envoi
+
+        double check = -networkLosses ;
+        double congestion_costs = this.approximation - networkCongestion ;
+        for (int l = 0; l < baseFlows.length; l++) {
+            if(from[l] == -1 || to[l] == -1)
+                continue ;
+            double f = Math.abs(flow[l] + losses * fromSeller[l]) ;
+            check += weight[l] * f ; // Pertes sur chaque lien
+            congestion_costs += 2 * f / capacity[l] ; // infini pour un lien de capacité nulle, voir NetworkArrays
+        }
+        return new Transfer(true, seller.getEnergySend() + quantity + losses, check, congestion_costs) ;
+    }
+
+    /**
+     * @return version du réseau sur lequel les transferts sont évalués
+     */
+    public long getNetworkVersion(){
+        return this.ptdf.getVersion();
+    }
+
+    /**
+     * Point fixe de g(L) = somme des weight*|flow + L*sensitivity| + constante,
+     * le premier rencontré en partant de 0 du coté où g(0) entraine les pertes
+     * @param flow
+     * @param sensitivity
+     * @param weight
+     * @param value g(0), qui fixe la constante
+     * @return NaN s'il n'y a pas de point fixe
+     */
+    static double fixedPoint(double[] flow, double[] sensitivity, double[] weight, double value){
+        final double direction = value >= 0 ? 1 : -1 ;
+        final double[] points = new double[flow.length] ;
+        double[] changes = new double[flow.length] ;
+        int count = 0 ;
+        double slope = 0 ; // pente de g du coté où l'on avance
+        for (int l = 0; l < flow.length; l++) {
+            if(weight[l] == 0 || sensitivity[l] == 0)
+                continue ;
+            double sign = flow[l] != 0 ? Math.signum(flow[l]) : Math.signum(sensitivity[l]) * direction ;
+            slope += weight[l] * sensitivity[l] * sign ;
+            double point = -flow[l] / sensitivity[l] ;
+            if(point * direction > 0){ // le flux change de sens plus loin
+                points[count] = point ;
+                changes[count] = 2 * weight[l] * Math.abs(sensitivity[l]) ;
+                count++ ;
+            }
+        }
+        Integer[] order = new Integer[count] ;
+        for (int k = 0; k < count; k++) {
+            order[k] = k ;
+        }
+        Arrays.sort(order, new Comparator<Integer>() {
+            public int compare(Integer k1, Integer k2) {
+                return Double.compare(points[k1] * direction, points[k2] * direction);
+            }
+        });
+
+        double x = 0 ;
+        for (int k = 0; k <= count; k++) {
+            if(value == x)
+                return x ;
+            if(slope != 1){
+                double root = (value - slope * x) / (1 - slope) ;
+                if((root - x) * direction >= 0 && (k == count || (points[order[k]] - root) * direction >= 0))
+                    return root ;
+            }
+            if(k == count)
+                break ;
+            value += slope * (points[order[k]] - x) ;
+            x = points[order[k]] ;
+            slope += direction * changes[order[k]] ;
+        }
+        return Double.NaN ;
+    }
+}
@@ -19,4 +19,9 @@ public interface negociationStrategy {
     public ArrayList<Accord> getAccords() ;
     public void afterEnd();
     public void setProsumers(List<Prosumer> prosumers );
+    // Remet à zéro un partenariat qui existe déjà, ses offres sont rendues à la stratégie
+    public void resetPartnership(Partner partner);
+    // Calculs faits à l'avance, en parallèle, sans modifier les prosumers ni le réseau
+    public void prepareFirstProposals(Prosumer prosumer);
+    public void prepareConcessions(Prosumer prosumer);
 }
@@ -1,43 +1,55 @@
 package strategy;
 
+import events.EventLog;
+import events.EventType;
 import javafx.util.Pair;
+import metrics.Counter;
+import metrics.Histogram;
+import metrics.MetricsRegistry;
+import metrics.Timer;
 import modele.*;
-import org.chocosolver.solver.Model;
-import org.chocosolver.solver.Solver;
-import org.chocosolver.solver.constraints.Constraint;
-import org.chocosolver.solver.search.strategy.Search;
-import org.chocosolver.solver.variables.IntVar;
-import snl.ccss.jpowerflow.dc.DCSolver;
+import snl.ccss.jpowerflow.dc.FlowView;
+import snl.ccss.jpowerflow.dc.RadialDCSolver;
 
 import java.util.ArrayList;
-import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 
-import static org.chocosolver.solver.search.strategy.Search.activityBasedSearch;
-import static org.chocosolver.solver.search.strategy.Search.setVarSearch;
 // Doute sur le calcule du zeuten index !
 
 public class zeuten implements negociationStrategy {
+    private static final EventLog EVENTS = EventLog.getDefault() ;
+    private static final Timer OFFER_TIMER = MetricsRegistry.getDefault().timer("zeuten.makeOffer") ;
+    private static final Counter REJECTED_OFFERS = MetricsRegistry.getDefault().counter("zeuten.offers.rejected") ;
+    private static final Timer ALLOCATOR_TIMER = MetricsRegistry.getDefault().timer("zeuten.allocator") ;
+    private static final Histogram ALLOCATE_PARTNERS = MetricsRegistry.getDefault().histogram("zeuten.allocate.partners") ;
+
     private double tarifMax;
     private double tarifMin ;
     private PowerSystem powerSystem ;
-    private DCSolver solver ;
+    private RadialDCSolver solver ;
+    private PTDFEngine ptdf ;
+    private TransferEvaluator transferEvaluator ;
+    private FeasibleQuantityFinder quantityFinder ;
     private ArrayList<Accord> accords ;
+    private OfferPool offers ;
     private double approximation ;
     private List<Prosumer> prosumers ;
     private double losses ;
     private double congestion_costs;
-
-    private Integer approximation2 ;
+    private ConcessionAllocator allocator ;
+    private long ptdfCacheBytes ;
+    private long solves ;
 
     public zeuten(double tarifMin, double tarifMax, double approximation){
         this.tarifMax=tarifMax;
         this.tarifMin=tarifMin ;
-        this.solver = new DCSolver() ;
+        this.solver = new RadialDCSolver() ;
         this.accords = new ArrayList<Accord>();
+        this.offers = new OfferPool() ;
         this.approximation = approximation ;
-        this.approximation2 = (Double.valueOf(1/approximation)).intValue();
+        this.allocator = new GreedyConcessionAllocator((int)(1/approximation)) ;
+        this.ptdfCacheBytes = 64L << 20 ;
         this.losses=0 ;
         this.congestion_costs=0 ;
     }
@@ -76,9 +88,15 @@ public class zeuten implements negociationStrategy {
         }
     }
 
+    public void resetPartnership(Partner partner){
+        partner.reset(this.offers);
+    }
+
     private void stopPartnership(Partner partner){
         Prosumer buyer = partner.getBuyer();
         Prosumer seller= partner.getSeller();
+        EVENTS.emit(EventType.PARTNERSHIP_STOPPED, buyer.getId(), seller.getId(), 0, 0);
+        partner.reset(this.offers); // les deux propositions ne sont plus référencées
         buyer.getPartners().remove(seller);
         seller.getPartners().remove(buyer);
     }
@@ -108,28 +126,38 @@ public class zeuten implements negociationStrategy {
      * @param tarif
      */
     private boolean makeOffer(Prosumer proposer, Prosumer receiver, double quantity, double tarif){
-        Offer offer= new Offer(tarif, quantity);
-        if(proposer.isBuyer()){
-            while(!simulate(proposer, receiver, offer ) && quantity > 0){
-                quantity -= Math.max(quantity/10, 0.1 ) ;
-                offer.setQuantity(quantity);
-            }
-            if(quantity > 0 /* && this.checkCongestionCost(offer )*/){
-                proposer.getPartners().get(receiver).setBuyerProposition(offer); // Mise à jour de l'offre
-                return false ;
-            }
-        }else{
-            while(!simulate(receiver, proposer, offer ) && quantity > 0){
-                quantity -= Math.max(quantity/10, 0.1 )  ;
-                offer.setQuantity(quantity);
-            }
-            if(quantity > 0 /*&& this.checkCongestionCost(offer )*/){
-                proposer.getPartners().get(receiver).setSellerProposition(offer);// Mise à jour de l'offre
-                return false;
+        long start = OFFER_TIMER.start() ;
+        try {
+            Offer offer= this.offers.acquire(tarif, quantity);
+            Partner partner = proposer.getPartners().get(receiver) ;
+            if(proposer.isBuyer()){
+                quantity = this.quantityFinder.find(proposer, receiver, quantity, this.losses, this.congestion_costs);
+                if(quantity > 0 /* && this.checkCongestionCost(offer )*/){
+                    offer.setQuantity(quantity);
+                    this.evaluated(offer, this.quantityFinder.getTransfer());
+                    this.offers.release(partner.getBuyerProposition());
+                    partner.setBuyerProposition(offer); // Mise à jour de l'offre
+                    EVENTS.emit(EventType.OFFER_MADE, proposer.getId(), receiver.getId(), quantity, tarif);
+                    return false ;
+                }
+            }else{
+                quantity = this.quantityFinder.find(receiver, proposer, quantity, this.losses, this.congestion_costs);
+                if(quantity > 0 /*&& this.checkCongestionCost(offer )*/){
+                    offer.setQuantity(quantity);
+                    this.evaluated(offer, this.quantityFinder.getTransfer());
+                    this.offers.release(partner.getSellerProposition());
+                    partner.setSellerProposition(offer);// Mise à jour de l'offre
+                    EVENTS.emit(EventType.OFFER_MADE, proposer.getId(), receiver.getId(), quantity, tarif);
+                    return false;
+                }
             }
+            this.offers.release(offer);
+            REJECTED_OFFERS.increment();
+            EVENTS.emit(EventType.OFFER_REJECTED, proposer.getId(), receiver.getId(), quantity, tarif);
+            return true ;
+        } finally {
+            OFFER_TIMER.stop(start);
         }
-        System.out.println("L'offre n'est pas bonne");
-        return true ;
     }
 
 
@@ -138,6 +166,8 @@ public class zeuten implements negociationStrategy {
      */
     private void majLosses(){
         this.solver.solve(this.powerSystem);
+        this.solves++ ;
+        this.ptdf.invalidateBaseFlows();
         double losses =0 ;
         double congestion_costs = 0;
         for( Accord accord : this.accords){
@@ -152,48 +182,14 @@ public class zeuten implements negociationStrategy {
     }
 
     /**
-     * Simulation  d'une offre pour le calcul des pertes  de congestion et de l'effet joule
-     * le premier prosumer doit être celui qui recoit, l'acheteur
-     * @param prosumer
-     * @param otherProsumer
+     * Reporte sur l'offre les pertes et les couts de congestion du transfert
      * @param offer
-     * @return
+     * @param transfer
      */
-    private boolean simulate(Prosumer prosumer, Prosumer otherProsumer, Offer offer){
-        double temp = prosumer.getEnergyReceived() ;
-        double temp2 = otherProsumer.getEnergySend() ;
-        double losses=0 ;
-        double congestion_costs=0 ;
-        double newFlow=0 ;
-
-        prosumer.setEnergyReceived(offer.getQuantity());
-        while(temp2+ offer.getQuantity() + losses > otherProsumer.getEnergySend() +0.1 || congestion_costs == 0 ) {
-            otherProsumer.setEnergySend(temp2+offer.getQuantity()+losses); // On augmente l'offre d'énergie
-            this.solver.solve(this.powerSystem);
-            HashMap<Link, Double> hm = this.solver.getMwFlows();
-            losses = 0;
-            congestion_costs = this.approximation;
-            for (Map.Entry<Link, Double> entry : hm.entrySet()) {
-                double flow = Math.abs(entry.getValue()) ;
-                losses += entry.getKey().getJoule() * flow / 100; // Pertes sur chaque lien
-                congestion_costs += 2 * flow/ entry.getKey().getCapacity() ;
-                if(entry.getKey().getCapacity() ==0) // error in the xml file
-                    System.out.println("ID : "+entry.getKey().getFirstNode().getId());
-            }
-            losses=losses-this.losses ;
-            congestion_costs = congestion_costs-this.congestion_costs ;
-        }
-        offer.setLosses(losses);
-        offer.setCongestion_cost(congestion_costs);
+    private void evaluated(Offer offer, Transfer transfer){
+        offer.setLosses(transfer.getLosses());
+        offer.setCongestion_cost(transfer.getCongestion_cost());
         offer.setEvaluate(true);
-        double checkPossibilityEnergy = otherProsumer.getEnergySend()+otherProsumer.getEnergyLost();
-        prosumer.setEnergyReceived(temp);
-        otherProsumer.setEnergySend(temp2);
-        //System.out.println("check possibility :"+checkPossibilityEnergy+" > "+otherProsumer.getEnergy());
-        if(checkPossibilityEnergy > otherProsumer.getEnergy()){
-            return false ; // le prosumer n'a pas assez d'énergie en prenant en compte les pertes
-        }
-        return true ;
     }
 
     /**
@@ -251,9 +247,7 @@ public class zeuten implements negociationStrategy {
             hisUtility2 = this.calculUtility(p, other, offer2) ;
             mineUtility2 = this.calculUtility(other, p, offer2) ;
 
-            System.out.println("compare utility : "+hisUtility+" <= "+mineUtility+" || "+hisUtility2+" <= "+mineUtility2);
             if( hisUtility <= mineUtility || hisUtility2 <= mineUtility2 ){ // Cas où on accepte l'accord
-                System.out.println("The deal is accepted");
                 restart = true ;
                 Offer agreedOffer ;
                 if(p.isBuyer()) {
@@ -281,6 +275,7 @@ public class zeuten implements negociationStrategy {
                         stop = true ;
                     }
                 }
+                EVENTS.emit(EventType.DEAL_ACCEPTED, ite.getValue().getBuyer().getId(), ite.getValue().getSeller().getId(), agreedOffer.getQuantity(), agreedOffer.getAmount());
                 this.majLosses();
                 break ;
             }
@@ -290,102 +285,141 @@ public class zeuten implements negociationStrategy {
         }
         if(stop)
             p.stopNegociations() ;
-        if(restart)
+        if(restart) {
+            EVENTS.emit(EventType.NEGOCIATION_RESTARTED, p.getId(), 0, 0, 0);
             return 1 ;
+        }
         return 2 ;
     }
 
     /**
-     * Choix de partenaires avec résolution de programme de contrainte
+     * Choix des vendeurs auxquels l'acheteur fait une concession, au moindre cout
      * @return
      */
     public ArrayList<Pair<Prosumer, Double>> chooseSellerPartnerConcession(Prosumer prosumer) {
         ArrayList<Pair<Prosumer, Double>> result = new ArrayList();
-        Model model = new Model("seller choice") ;
-        ArrayList<Partner> concessionsPartners = this.getPossiblesPartners(prosumer);
+        ArrayList<Partner> concessionsPartners = this.getPossiblesPartners(prosumer, true);
         int size = concessionsPartners.size() ;
         if(size==0) {
-            System.out.println("aucune concession à faire");
-            return null;
-        }
-        IntVar[] qs = new IntVar[size];
-        int[] coeffs = new int[size];
-        IntVar sum = model.intVar("sum", 0,2000000000);
-        long test = 0 ;
-        for( int i =0 ; i<size ; i++ ){
-            Offer offer = concessionsPartners.get(i).getSellerProposition() ;
-            coeffs[i]= Double.valueOf(this.approximation2*(offer.getCongestion_cost() + offer.getAmount())).intValue() ;
-            //System.out.println(1000+" * "+offer.getCongestion_cost()+" + "+offer.getAmount());
-            test+=coeffs[i]*Math.abs(Double.valueOf(this.approximation2*(concessionsPartners.get(i).getSeller().energyLeft())).intValue());
-            qs[i] = model.intVar("q"+i, 0, Math.abs(Double.valueOf(this.approximation2*(concessionsPartners.get(i).getSeller().energyLeft())).intValue()));
+            return null; // aucune concession à faire
         }
-        IntVar energy = model.intVar(Math.abs(Double.valueOf(this.approximation2*(prosumer.energyLeft())).intValue()));
-        model.scalar(qs, coeffs, "=", sum).post() ; // On effectue la somme des multiplications, on met la somme dans sum
-        model.sum(qs, "=", energy ).post();
-        model.setObjective(model.MINIMIZE, sum); // On veut minimiser sum
-        Solver solver = model.getSolver();
-        /*solver.setSearch(Search.minDomLBSearch(qs));
-        solver.showStatistics();*/
-        //System.out.println("TEST : "+test+"    "+ (test < 2000000000));
-        if(solver.solve()){
-            //System.out.println(model);
-            //  System.out.println("sum : "+sum);
-            for(int i=0; i< size ; i++){
-                if(qs[i].getValue() > 0){ // On ajoute l'ensemble des partenaires au résultat avec la quantité
-                    result.add(new Pair<Prosumer, Double>(concessionsPartners.get(i).getSeller(), Double.valueOf(qs[i].getValue())/this.approximation2 ));
-                }
-            }
-        }else{
-            System.out.println(model);
-            //solver.printFeatures();
-            System.out.println("bug solving");
+        double[] qs = this.allocate(prosumer, concessionsPartners, true);
+        if(qs == null)
             return null ;
+        for(int i=0; i< size ; i++){
+            if(qs[i] > 0){ // On ajoute l'ensemble des partenaires au résultat avec la quantité
+                result.add(new Pair<Prosumer, Double>(concessionsPartners.get(i).getSeller(), qs[i]));
+            }
         }
         return result ;
     }
 
     /**
-     * Programme linéaire du vendeur
+     * Choix des acheteurs auxquels le vendeur fait une concession, au meilleur gain
      * @param prosumer
      * @return
      */
     public ArrayList<Pair<Prosumer, Double>> chooseBuyerPartnerConcession(Prosumer prosumer){
         ArrayList<Pair<Prosumer, Double>> result = new ArrayList();
-        Model model = new Model("buyer choice") ;
-        ArrayList<Partner> concessionsPartners = this.getPossiblesPartners(prosumer);
+        ArrayList<Partner> concessionsPartners = this.getPossiblesPartners(prosumer, true);
         int size = concessionsPartners.size() ;
         if(size==0) {
-            System.out.println("Aucune concession à faire");
-            return null;
+            return null; // aucune concession à faire
+        }
+        double[] qb = this.allocate(prosumer, concessionsPartners, true);
+        if(qb == null)
+            return null ;
+        for(int i=0; i< size ; i++){
+            if(qb[i] > 0) { // On ajoute l'ensemble des partenaires au résultat avec la quantité
+                result.add(new Pair<Prosumer, Double>(concessionsPartners.get(i).getBuyer(), qb[i]));
+                //System.out.println("ajout d'une concession");
+            }
         }
-        IntVar[] qb = new IntVar[size];
-        int[] coeffs = new int[size];
-        int[] coeffsLosses = new int[size];
-        IntVar sum = model.intVar("sum", 0, 2000000000);
+        return result ;
+    }
+
+    /**
+     * Quantités concédées à chaque partenaire : l'acheteur couvre son besoin au moindre cout,
+     * le vendeur maximise son gain avec l'énergie qui lui reste
+     * @param prosumer
+     * @param concessionsPartners
+     * @param record vrai pour les concessions faites, faux quand elles ne sont que préparées, pour ne les mesurer qu'une fois
+     * @return null s'il n'y a pas de solution
+     */
+    private double[] allocate(Prosumer prosumer, ArrayList<Partner> concessionsPartners, boolean record){
+        int size = concessionsPartners.size() ;
+        if(record)
+            ALLOCATE_PARTNERS.record(size);
+        double[] values = new double[size];
+        double[] maxQuantities = new double[size];
+        if(prosumer.isBuyer()){
+            for( int i =0 ; i<size ; i++ ){
+                Offer offer = concessionsPartners.get(i).getSellerProposition() ;
+                values[i] = offer.getCongestion_cost() + offer.getAmount() ;
+                maxQuantities[i] = Math.abs(concessionsPartners.get(i).getSeller().energyLeft()) ;
+            }
+            long start = ALLOCATOR_TIMER.start() ;
+            double[] quantities = this.allocator.minimizeCost(values, maxQuantities, Math.abs(prosumer.energyLeft()));
+            if(record)
+                this.allocated(prosumer, size, quantities, start);
+            return quantities ;
+        }
+        double[] weights = new double[size];
         for( int i =0 ; i<size ; i++ ){
             Offer offer = concessionsPartners.get(i).getBuyerProposition() ;
-            coeffsLosses[i] = Double.valueOf(this.approximation2+this.approximation2*offer.getLosses()).intValue() ;
-            coeffs[i]= Double.valueOf(this.approximation2*(offer.getCongestion_cost() + offer.getAmount())).intValue() ;
-            //System.out.println(" c : "+offer.getCongestion_cost()+" l : "+offer.getLosses()) ;
-            qb[i] = model.intVar("q"+i, 0, Math.abs(Double.valueOf(this.approximation2*concessionsPartners.get(i).getBuyer().energyLeft()).intValue()));
+            values[i] = offer.getCongestion_cost() + offer.getAmount() ;
+            weights[i] = 1 + offer.getLosses() ;
+            maxQuantities[i] = Math.abs(concessionsPartners.get(i).getBuyer().energyLeft()) ;
         }
-        model.scalar(qb, coeffs, "=", sum).post() ; // On effectue la somme des multiplications, on met la somme dans sum
-        model.scalar(qb, coeffsLosses, "<=", Double.valueOf(this.approximation2*this.approximation2*prosumer.energyLeft()).intValue()).post();
-        model.setObjective(model.MAXIMIZE, sum); // On veut maximiser sum
-        Solver solver = model.getSolver();
-        if(solver.solve()){
-            //System.out.println("sum  : "+sum);
-            for(int i=0; i< size ; i++){
-                if(qb[i].getValue() > 0) { // On ajoute l'ensemble des partenaires au résultat avec la quantité
-                    result.add(new Pair<Prosumer, Double>(concessionsPartners.get(i).getBuyer(), Double.valueOf(qb[i].getValue())/this.approximation2));
-                    //System.out.println("ajout d'une concession");
-                }
+        long start = ALLOCATOR_TIMER.start() ;
+        double[] quantities = this.allocator.maximizeValue(values, weights, maxQuantities, prosumer.energyLeft());
+        if(record)
+            this.allocated(prosumer, size, quantities, start);
+        return quantities ;
+    }
+
+    /**
+     * Mesure une répartition faite et signale celles qui n'ont pas de solution
+     * @param prosumer
+     * @param size nombre de partenaires possibles
+     * @param quantities
+     * @param start
+     */
+    private void allocated(Prosumer prosumer, int size, double[] quantities, long start){
+        ALLOCATOR_TIMER.stop(start);
+        if(quantities == null)
+            EVENTS.emit(EventType.ALLOCATION_FAILED, prosumer.getId(), size, Math.abs(prosumer.energyLeft()), 0);
+    }
+
+    /**
+     * Prépare les recherches de quantité des premières offres du prosumer, sans rien modifier
+     * @param prosumer
+     */
+    public void prepareFirstProposals(Prosumer prosumer){
+        for(Map.Entry<Prosumer, Partner> partnerKey : prosumer.getPartners().entrySet()){
+            double quantity = Math.min(Math.abs(prosumer.energyLeft()), Math.abs(partnerKey.getKey().energyLeft()));
+            Partner partner = partnerKey.getValue() ;
+            this.quantityFinder.prefetch(partner.getBuyer(), partner.getSeller(), quantity, this.losses, this.congestion_costs);
+        }
+    }
+
+    /**
+     * Prépare les recherches de quantité des concessions que ferait le prosumer dans l'état actuel, sans rien modifier
+     * @param prosumer
+     */
+    public void prepareConcessions(Prosumer prosumer){
+        ArrayList<Partner> concessionsPartners = this.getPossiblesPartners(prosumer, false);
+        if(concessionsPartners.isEmpty())
+            return ;
+        double[] quantities = this.allocate(prosumer, concessionsPartners, false);
+        if(quantities == null)
+            return ;
+        for(int i=0; i< quantities.length ; i++){
+            if(quantities[i] > 0){
+                Partner partner = concessionsPartners.get(i) ;
+                this.quantityFinder.prefetch(partner.getBuyer(), partner.getSeller(), quantities[i], this.losses, this.congestion_costs);
             }
-        }else{
-            System.out.println(model);
-            return null ;
         }
-        return result ;
     }
 
     /**
@@ -405,7 +439,6 @@ public class zeuten implements negociationStrategy {
                 this.stopPartnership(prosumer.getPartners().get(otherProsumer));
             //partner.setBuyerProposition((new Offer(newTarif, newQuantity)));
             partner.getSellerProposition().setQuantity(newQuantity);
-            System.out.println("Buyer's new tarif is : "+newTarif+ " with quantity "+newQuantity);
         }else{
             newTarif = - (Double)partner.getSellerData() + partner.getSellerProposition().getAmount();
             newQuantity = Math.min(quantity, partner.getBuyerProposition().getQuantity());
@@ -414,15 +447,20 @@ public class zeuten implements negociationStrategy {
 
             //partner.setSellerProposition((new Offer(newTarif, newQuantity)));
             partner.getBuyerProposition().setQuantity(newQuantity);
-            System.out.println("Seller's new tarif is : "+newTarif+ " with quantity "+newQuantity);
         }
+        EVENTS.emit(EventType.CONCESSION, prosumer.getId(), otherProsumer.getId(), newQuantity, newTarif);
         if( newTarif < this.tarifMin || newTarif > this.tarifMax){
-            System.out.println("LE TARIF EST MAUVAIS "+newTarif);
+            EVENTS.emit(EventType.TARIF_OUT_OF_RANGE, prosumer.getId(), otherProsumer.getId(), newTarif, 0);
         }
     }
 
-
-    private ArrayList<Partner> getPossiblesPartners(Prosumer prosumer){
+    /**
+     * Partenaires auxquels le prosumer doit faire une concession d'après les indices de Zeuthen
+     * @param prosumer
+     * @param record vrai pour garder les indices dans les partenariats, faux pour ne rien modifier
+     * @return
+     */
+    private ArrayList<Partner> getPossiblesPartners(Prosumer prosumer, boolean record){
         ArrayList<Partner> concessionsPartners = new ArrayList<Partner>() ;
         for (Map.Entry<Prosumer, Partner> ite : prosumer.getPartners().entrySet()) {
             if( ite.getKey().isBuyer() && ite.getKey().energyLeft() >= 0 )
@@ -433,15 +471,16 @@ public class zeuten implements negociationStrategy {
             double buyersUtility = calculUtility(ite.getValue().getBuyer(), ite.getValue().getSeller(),ite.getValue().getBuyerProposition());
             double buyersUtilityWithSellersOffer = calculUtility(ite.getValue().getBuyer(), ite.getValue().getSeller(),ite.getValue().getSellerProposition());
             Double zBuyer = this.calculZeuthenIndex(buyersUtility, buyersUtilityWithSellersOffer);
-            ite.getValue().setBuyerData(zBuyer);
 
             double sellersUtility = calculUtility(ite.getValue().getSeller(), ite.getValue().getBuyer(),ite.getValue().getSellerProposition());
             double sellersUtilityWithBuyersOffer = calculUtility(ite.getValue().getSeller(), ite.getValue().getBuyer(),ite.getValue().getBuyerProposition());
             Double zSeller = this.calculZeuthenIndex(sellersUtility, sellersUtilityWithBuyersOffer);
-            ite.getValue().setSellerData(zSeller);
-            //System.out.println("q : "+ite.getValue().getSellerProposition().getQuantity()+"  "+ite.getValue().getBuyerProposition().getQuantity());
-            System.out.println(buyersUtility+" "+buyersUtilityWithSellersOffer);
-            System.out.println(" zbuyer : "+zBuyer+" zSeller : "+zSeller);
+            if(record) { // Sinon on ne fait que préparer les calculs
+                ite.getValue().setBuyerData(zBuyer);
+                ite.getValue().setSellerData(zSeller);
+                //System.out.println("q : "+ite.getValue().getSellerProposition().getQuantity()+"  "+ite.getValue().getBuyerProposition().getQuantity());
+                EVENTS.emit(EventType.ZEUTHEN_INDEX, ite.getValue().getBuyer().getId(), ite.getValue().getSeller().getId(), zBuyer, zSeller);
+            }
 
             if( ( zBuyer <= zSeller && prosumer.isBuyer() ) || ( zSeller <= zBuyer && !prosumer.isBuyer()))
                 concessionsPartners.add(ite.getValue());
@@ -462,8 +501,36 @@ public class zeuten implements negociationStrategy {
         return powerSystem;
     }
 
+    /**
+     * Par défaut les concessions sont réparties par GreedyConcessionAllocator,
+     * new ChocoConcessionAllocator((int)(1/approximation)) reprend la résolution par contraintes
+     * @param allocator
+     */
+    public void setConcessionAllocator(ConcessionAllocator allocator) {
+        this.allocator = allocator ;
+    }
+
+    /**
+     * Taille des caches de facteurs de distribution, 64 Mo par défaut. A donner avant setPowerSystem,
+     * donc avant de créer EnergyNegociation
+     * @param bytes
+     */
+    public void setPTDFCacheSize(long bytes) {
+        this.ptdfCacheBytes = bytes ;
+    }
+
     public void setPowerSystem(PowerSystem powerSystem) {
         this.powerSystem = powerSystem;
+        this.ptdf = new PTDFEngine(powerSystem, this.ptdfCacheBytes) ;
+        this.transferEvaluator = new TransferEvaluator(this.ptdf, this.approximation) ;
+        this.quantityFinder = new FeasibleQuantityFinder(this.transferEvaluator, this.approximation) ;
+    }
+
+    /**
+     * @return nombre de résolutions du flux de puissance, y compris celles des facteurs de distribution
+     */
+    public long getSolveCount(){
+        return this.solves + (this.ptdf == null ? 0 : this.ptdf.getSolveCount()) ;
     }
 
     public ArrayList<Accord> getAccords(){
@@ -472,9 +539,11 @@ public class zeuten implements negociationStrategy {
 
     public void afterEnd(){
         this.solver.solve(this.powerSystem);
-        HashMap<Link, Double> hm = this.solver.getMwFlows();
-        for (Map.Entry<Link, Double> entry : hm.entrySet()) {
-            entry.getKey().setCongestion(entry.getValue());
+        this.solves++ ;
+        FlowView flows = this.solver.getFlows();
+        for (int l = 0; l < flows.getBranchCount(); l++) {
+            if(flows.isEnergized(l))
+                ((Link)flows.getBranch(l)).setCongestion(flows.getMw(l));
         }
     }
 }
@@ -0,0 +1,55 @@
+package events;
+
+import junit.framework.Test;
+import junit.framework.TestCase;
+import junit.framework.TestSuite;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.List;
+
+/**
+ * Unit test for the binary sink of EventLog.
+ */
+public class EventLogTest
+    extends TestCase
+{
+    public EventLogTest( String testName )
+    {
+        super( testName );
+    }
+
+    public static Test suite()
+    {
+        return new TestSuite( EventLogTest.class );
+    }
+
+    public void testEventsAreWrittenInOrderAndFilteredByLevel() throws IOException
+    {
+        File file = File.createTempFile( "events", ".bin" );
+        file.deleteOnExit();
+        EventLog log = new EventLog();
+        log.emit( EventType.DEAL_ACCEPTED, 1, 2, 3, 4 );
+        log.open( file, EventLog.INFO, 4096 );
+        for ( int i = 0; i < 1000; i++ )
+        {
+            log.emit( EventType.ROUND_END, i, 0, 0, 0 );
+            log.emit( EventType.OFFER_MADE, i, 0, 0, 0 );
+        }
+        log.emit( EventType.DEAL_ACCEPTED, 5, 6, 7.5, 8.5 );
+        log.close();
+        log.emit( EventType.DEAL_ACCEPTED, 9, 10, 11, 12 );
+
+        List<Event> events = EventReader.read( file );
+        assertEquals( 1001, events.size() );
+        for ( int i = 0; i < 1000; i++ )
+        {
+            assertEquals( EventType.ROUND_END, events.get( i ).getType() );
+            assertEquals( i, events.get( i ).getFirst() );
+        }
+        Event last = events.get( 1000 );
+        assertEquals( EventType.DEAL_ACCEPTED, last.getType() );
+        assertEquals( 6, last.getSecond() );
+        assertEquals( 8.5, last.getSecondValue(), 0 );
+    }
+}
@@ -0,0 +1,150 @@
+package main;
+
+import java.io.File;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+
+import junit.framework.Test;
+import junit.framework.TestCase;
+import junit.framework.TestSuite;
+import modele.Accord;
+import modele.Link;
+import modele.Node;
+import modele.Prosumer;
+import strategy.ChocoConcessionAllocator;
+import strategy.zeuten;
+
+/**
+ * Unit test for EnergyNegociation: the accords and the number of rounds must be the same
+ * with one or several threads, and with the greedy or the Choco concession allocator.
+ */
+public class EnergyNegociationTest
+    extends TestCase
+{
+    public EnergyNegociationTest( String testName )
+    {
+        super( testName );
+    }
+
+    public static Test suite()
+    {
+        return new TestSuite( EnergyNegociationTest.class );
+    }
+
+    public void testArbre21IsTheSameInParallel()
+    {
+        File file = new File( "src/main/resources/arbre21.xml" );
+        zeuten strategy = new zeuten( 0.01, 100, 0.01 );
+        Result sequential = run( new EnergyNegociation( file, strategy ), strategy, 1 );
+        strategy = new zeuten( 0.01, 100, 0.01 );
+        Result parallel = run( new EnergyNegociation( file, strategy ), strategy, 4 );
+        assertFalse( sequential.accords.isEmpty() );
+        assertSameResult( sequential, parallel );
+    }
+
+    public void testMeshedNetworkIsTheSameInParallel()
+    {
+        zeuten strategy = new zeuten( 0.01, 100, 0.01 );
+        Result sequential = run( new EnergyNegociation( meshedNetwork( 40, 42 ), strategy ), strategy, 1 );
+        strategy = new zeuten( 0.01, 100, 0.01 );
+        Result parallel = run( new EnergyNegociation( meshedNetwork( 40, 42 ), strategy ), strategy, 4 );
+        assertFalse( sequential.accords.isEmpty() );
+        assertSameResult( sequential, parallel );
+    }
+
+    public void testBundledTopologiesAreTheSameWithChoco()
+    {
+        File[] files = new File( "src/main/resources" ).listFiles();
+        Arrays.sort( files );
+        int topologies = 0;
+        for ( File file : files )
+        {
+            if ( !file.getName().startsWith( "arbre" ) )
+                continue;
+            zeuten strategy = new zeuten( 0.01, 100, 0.01 );
+            Result greedy = run( new EnergyNegociation( file, strategy ), strategy, 1 );
+            strategy = new zeuten( 0.01, 100, 0.01 );
+            strategy.setConcessionAllocator( new ChocoConcessionAllocator( 100 ) );
+            Result choco = run( new EnergyNegociation( file, strategy ), strategy, 1 );
+            assertEquals( file.getName(), choco.rounds < 100, greedy.rounds < 100 );
+            assertEquals( file.getName(), choco.rounds, greedy.rounds );
+            assertEquals( file.getName(), choco.accords, greedy.accords );
+            topologies++;
+        }
+        assertEquals( 14, topologies );
+    }
+
+    private static class Result
+    {
+        List<String> accords = new ArrayList<String>();
+        int rounds;
+    }
+
+    private Result run( EnergyNegociation negociation, zeuten strategy, int parallelism )
+    {
+        negociation.setParallelism( parallelism );
+        negociation.initNegociation();
+        Result result = new Result();
+        result.rounds = negociation.getRounds();
+        for ( Accord accord : strategy.getAccords() )
+        {
+            result.accords.add( accord.getPartner().getBuyer().getId() + " " + accord.getPartner().getSeller().getId() + " "
+                + accord.getOffer().getQuantity() + " " + accord.getOffer().getAmount() );
+        }
+        return result;
+    }
+
+    private void assertSameResult( Result expected, Result actual )
+    {
+        assertEquals( expected.rounds, actual.rounds );
+        assertEquals( expected.accords, actual.accords );
+    }
+
+    /**
+     * Prosumers grouped by three under nodes up to the root, with a line between two children
+     * of every other node, as the networks generated by the benchmarks.
+     */
+    private Node meshedNetwork( int prosumers, long seed )
+    {
+        Random random = new Random( seed );
+        int id = 1;
+        List<Node> level = new ArrayList<Node>();
+        for ( int i = 0; i < prosumers; i++ )
+        {
+            Prosumer prosumer = new Prosumer();
+            prosumer.setId( id++ );
+            prosumer.setEnergyNeed( Math.round( 20 + 140 * random.nextDouble() ) / 10.0 );
+            prosumer.setEnergyGenerated( Math.round( 20 + 140 * random.nextDouble() ) / 10.0 );
+            level.add( prosumer );
+        }
+        while ( level.size() > 1 )
+        {
+            List<Node> parents = new ArrayList<Node>();
+            for ( int start = 0; start < level.size(); start += 3 )
+            {
+                Node parent = new Node();
+                parent.setId( id++ );
+                int end = Math.min( start + 3, level.size() );
+                for ( int k = start; k < end; k++ )
+                    connect( level.get( k ), parent, 10 * ( end - start ) );
+                if ( end - start > 1 && parents.size() % 2 == 0 )
+                    connect( level.get( start ), level.get( start + 1 ), 10 );
+                parents.add( parent );
+            }
+            level = parents;
+        }
+        return level.get( 0 );
+    }
+
+    private void connect( Node child, Node parent, int capacity )
+    {
+        Link link = new Link();
+        link.setJoule( 1 );
+        link.setCapacity( capacity );
+        link.setFirstNode( child );
+        link.setSecondNode( parent );
+        parent.addLink( link );
+    }
+}
@@ -0,0 +1,50 @@
+package metrics;
+
+import junit.framework.Test;
+import junit.framework.TestCase;
+import junit.framework.TestSuite;
+
+/**
+ * Unit test for the log-linear buckets of Histogram.
+ */
+public class HistogramTest
+    extends TestCase
+{
+    public HistogramTest( String testName )
+    {
+        super( testName );
+    }
+
+    public static Test suite()
+    {
+        return new TestSuite( HistogramTest.class );
+    }
+
+    public void testBucketsCoverEveryValue()
+    {
+        long[] values = { 0, 1, 255, 256, 257, 1000, 123456789, Long.MAX_VALUE };
+        for ( long value : values )
+        {
+            int index = Histogram.index( value );
+            assertTrue( Histogram.lowestValue( index ) <= value );
+            assertTrue( Histogram.highestValue( index ) >= value );
+            assertTrue( Histogram.highestValue( index ) - Histogram.lowestValue( index ) <= value / Histogram.SUB_BUCKETS );
+        }
+    }
+
+    public void testPercentilesWithinPrecision()
+    {
+        Histogram histogram = new Histogram( "test" );
+        for ( long value = 1; value <= 100000; value++ )
+        {
+            histogram.record( value );
+        }
+        assertEquals( 100000, histogram.getCount() );
+        assertEquals( 1, histogram.getMin() );
+        assertEquals( 100000, histogram.getMax() );
+        assertEquals( 50000.5, histogram.getMean(), 1e-9 );
+        assertEquals( 50000, histogram.getValueAtPercentile( 50 ), 50000 / Histogram.SUB_BUCKETS );
+        assertEquals( 99000, histogram.getValueAtPercentile( 99 ), 99000 / Histogram.SUB_BUCKETS );
+        assertEquals( 100000, histogram.getValueAtPercentile( 100 ) );
+    }
+}
@@ -0,0 +1,94 @@
+package modele;
+
+import junit.framework.Test;
+import junit.framework.TestCase;
+import junit.framework.TestSuite;
+
+import javax.xml.bind.JAXBContext;
+import java.io.ByteArrayInputStream;
+import java.io.File;
+import java.util.List;
+
+/**
+ * Unit test for the streaming NetworkLoader.
+ */
+public class NetworkLoaderTest
+    extends TestCase
+{
+    public NetworkLoaderTest( String testName )
+    {
+        super( testName );
+    }
+
+    public static Test suite()
+    {
+        return new TestSuite( NetworkLoaderTest.class );
+    }
+
+    public void testSameNetworkAsJaxb() throws Exception
+    {
+        File[] files = new File( "src/main/resources" ).listFiles();
+        JAXBContext context = JAXBContext.newInstance( Node.class );
+        for ( File file : files )
+        {
+            if ( !file.getName().endsWith( ".xml" ) )
+            {
+                continue;
+            }
+            PowerSystem loaded = NetworkLoader.load( file );
+            PowerSystem expected = NetworkLoader.collect( (Node) context.createUnmarshaller().unmarshal( file ) );
+
+            List<Node> loadedBus = loaded.getBusList();
+            List<Node> expectedBus = expected.getBusList();
+            assertEquals( file.getName(), expectedBus.size(), loadedBus.size() );
+            for ( int i = 0; i < expectedBus.size(); i++ )
+            {
+                assertEquals( expectedBus.get( i ).getId(), loadedBus.get( i ).getId() );
+                assertEquals( expectedBus.get( i ).getClass(), loadedBus.get( i ).getClass() );
+                if ( expectedBus.get( i ) instanceof Prosumer )
+                {
+                    Prosumer p = (Prosumer) expectedBus.get( i );
+                    Prosumer q = (Prosumer) loadedBus.get( i );
+                    assertEquals( p.getEnergyNeed(), q.getEnergyNeed() );
+                    assertEquals( p.getEnergyGenerated(), q.getEnergyGenerated() );
+                }
+            }
+            List<Link> loadedLinks = loaded.getEnergizedBranchList();
+            List<Link> expectedLinks = expected.getEnergizedBranchList();
+            assertEquals( file.getName(), expectedLinks.size(), loadedLinks.size() );
+            for ( int l = 0; l < expectedLinks.size(); l++ )
+            {
+                assertEquals( expectedLinks.get( l ).getFromBus(), loadedLinks.get( l ).getFromBus() );
+                assertEquals( expectedLinks.get( l ).getToBus(), loadedLinks.get( l ).getToBus() );
+                assertEquals( expectedLinks.get( l ).getCapacity(), loadedLinks.get( l ).getCapacity() );
+                assertEquals( expectedLinks.get( l ).getJoule(), loadedLinks.get( l ).getJoule() );
+            }
+        }
+    }
+
+    public void testDeepFeeder() throws Exception
+    {
+        int depth = 100000;
+        StringBuilder xml = new StringBuilder();
+        for ( int i = 1; i < depth; i++ )
+        {
+            xml.append( "<node id=\"" ).append( i ).append( "\"><link><joule>1</joule><capacity>10</capacity>" );
+        }
+        xml.append( "<prosumer id=\"" ).append( depth ).append( "\"><energyNeed>2.0</energyNeed></prosumer>" );
+        for ( int i = 1; i < depth; i++ )
+        {
+            xml.append( "</link></node>" );
+        }
+
+        PowerSystem powerSystem = NetworkLoader.load( new ByteArrayInputStream( xml.toString().getBytes( "UTF-8" ) ) );
+        assertEquals( depth, powerSystem.getBusList().size() );
+        assertEquals( depth - 1, powerSystem.getEnergizedBranchList().size() );
+        Prosumer leaf = (Prosumer) powerSystem.getBusList().get( depth - 1 );
+        assertEquals( 2.0, leaf.getEnergyNeed() );
+        assertNull( leaf.getEnergyGenerated() );
+
+        PowerSystem collected = NetworkLoader.collect( (Node) powerSystem.getBusList().get( 0 ) );
+        assertEquals( depth, collected.getBusList().size() );
+        assertEquals( depth - 1, collected.getEnergizedBranchList().size() );
+    }
+}
@@ -0,0 +1,97 @@
+package modele;
+
+import junit.framework.Test;
+import junit.framework.TestCase;
+import junit.framework.TestSuite;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.util.List;
+
+/**
+ * Unit test for the binary network snapshot.
+ */
+public class NetworkSnapshotTest
+    extends TestCase
+{
+    public NetworkSnapshotTest( String testName )
+    {
+        super( testName );
+    }
+
+    public static Test suite()
+    {
+        return new TestSuite( NetworkSnapshotTest.class );
+    }
+
+    public void testSnapshotRestoresTheLoadedNetwork() throws Exception
+    {
+        File snapshot = File.createTempFile( "arbre", NetworkSnapshot.EXTENSION );
+        snapshot.deleteOnExit();
+        for ( File file : new File( "src/main/resources" ).listFiles() )
+        {
+            if ( !file.getName().endsWith( ".xml" ) )
+            {
+                continue;
+            }
+            PowerSystem expected = NetworkLoader.load( file );
+            NetworkSnapshot.write( expected, snapshot );
+            PowerSystem loaded = NetworkSnapshot.load( snapshot );
+
+            List<Node> expectedBus = expected.getBusList();
+            List<Node> loadedBus = loaded.getBusList();
+            List<Link> expectedLinks = expected.getEnergizedBranchList();
+            List<Link> loadedLinks = loaded.getEnergizedBranchList();
+            assertEquals( file.getName(), expectedBus.size(), loadedBus.size() );
+            assertEquals( file.getName(), expectedLinks.size(), loadedLinks.size() );
+            for ( int l = 0; l < expectedLinks.size(); l++ )
+            {
+                Link e = expectedLinks.get( l );
+                Link f = loadedLinks.get( l );
+                assertEquals( expected.indexOfBus( e.getFirstNode() ), loaded.indexOfBus( f.getFirstNode() ) );
+                assertEquals( expected.indexOfBus( e.getSecondNode() ), loaded.indexOfBus( f.getSecondNode() ) );
+                assertEquals( e.getCapacity(), f.getCapacity() );
+                assertEquals( e.getJoule(), f.getJoule() );
+                assertEquals( e.getCongestion(), f.getCongestion(), 0 );
+                assertEquals( e.getBPrime(), f.getBPrime(), 0 );
+            }
+            for ( int b = 0; b < expectedBus.size(); b++ )
+            {
+                Node e = expectedBus.get( b );
+                Node f = loadedBus.get( b );
+                assertEquals( e.getClass(), f.getClass() );
+                assertEquals( e.getId(), f.getId() );
+                assertEquals( e.getLinks().size(), f.getLinks().size() );
+                for ( int i = 0; i < e.getLinks().size(); i++ )
+                {
+                    assertEquals( expected.indexOfLink( e.getLinks().get( i ) ), loaded.indexOfLink( f.getLinks().get( i ) ) );
+                }
+                if ( e instanceof Prosumer )
+                {
+                    assertEquals( ( (Prosumer) e ).getEnergyNeed(), ( (Prosumer) f ).getEnergyNeed() );
+                    assertEquals( ( (Prosumer) e ).getEnergyGenerated(), ( (Prosumer) f ).getEnergyGenerated() );
+                }
+            }
+        }
+    }
+
+    public void testTruncatedSnapshotIsRejected() throws Exception
+    {
+        File snapshot = File.createTempFile( "arbre", NetworkSnapshot.EXTENSION );
+        snapshot.deleteOnExit();
+        NetworkSnapshot.write( NetworkLoader.load( new File( "src/main/resources/arbre21.xml" ) ), snapshot );
+        FileOutputStream output = new FileOutputStream( snapshot, true );
+        output.getChannel().truncate( snapshot.length() - 4 );
+        output.close();
+        try
+        {
+            NetworkSnapshot.load( snapshot );
+            fail();
+        }
+        catch ( IOException e )
+        {
+            // expected
+        }
+    }
+}
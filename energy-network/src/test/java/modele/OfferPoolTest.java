@@ -0,0 +1,81 @@
+package modele;
+
+import junit.framework.Test;
+import junit.framework.TestCase;
+import junit.framework.TestSuite;
+
+/**
+ * Unit test for OfferPool.
+ */
+public class OfferPoolTest
+    extends TestCase
+{
+    public OfferPoolTest( String testName )
+    {
+        super( testName );
+    }
+
+    public static Test suite()
+    {
+        return new TestSuite( OfferPoolTest.class );
+    }
+
+    public void testIdsFollowTheSequenceOfEachPool()
+    {
+        OfferPool pool = new OfferPool();
+        OfferPool other = new OfferPool();
+        assertEquals( 1, pool.acquire( 10, 1 ).getId() );
+        assertEquals( 2, pool.acquire( 10, 1 ).getId() );
+        assertEquals( 1, other.acquire( 10, 1 ).getId() );
+        assertEquals( 2, pool.getCreated() );
+    }
+
+    public void testReleasedOfferIsReusedAsNew()
+    {
+        OfferPool pool = new OfferPool();
+        Offer offer = pool.acquire( 10, 1 );
+        offer.setLosses( 0.2 );
+        offer.setEvaluate( true );
+        pool.release( offer );
+        pool.release( null );
+
+        Offer reused = pool.acquire( 20, 3 );
+        assertSame( offer, reused );
+        assertEquals( 2, reused.getId() );
+        assertEquals( 20, reused.getAmount(), 0 );
+        assertEquals( 3, reused.getQuantity(), 0 );
+        assertEquals( 0, reused.getLosses(), 0 );
+        assertFalse( reused.isEvaluate() );
+        assertNotSame( reused, pool.acquire( 20, 3 ) );
+    }
+
+    public void testAgreedOfferIsKept()
+    {
+        OfferPool pool = new OfferPool();
+        Offer offer = pool.acquire( 10, 1 );
+        new Accord( offer, null );
+        pool.release( offer );
+        assertNotSame( offer, pool.acquire( 10, 1 ) );
+        assertEquals( 1, offer.getId() );
+    }
+
+    public void testPartnerResetReleasesItsPropositions()
+    {
+        OfferPool pool = new OfferPool();
+        Partner partner = new Partner( null, null );
+        Offer buyerOffer = pool.acquire( 10, 1 );
+        Offer sellerOffer = pool.acquire( 90, 1 );
+        partner.setBuyerProposition( buyerOffer );
+        partner.setSellerProposition( sellerOffer );
+        partner.reset( pool );
+        assertNull( partner.getBuyerProposition() );
+        assertNull( partner.getSellerProposition() );
+        assertNull( partner.getLastProposition() );
+
+        Offer first = pool.acquire( 10, 1 );
+        Offer second = pool.acquire( 10, 1 );
+        assertTrue( ( first == buyerOffer && second == sellerOffer ) || ( first == sellerOffer && second == buyerOffer ) );
+        assertNotSame( buyerOffer, pool.acquire( 10, 1 ) );
+        assertNotSame( sellerOffer, pool.acquire( 10, 1 ) );
+    }
+}
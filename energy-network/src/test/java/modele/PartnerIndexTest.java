@@ -0,0 +1,95 @@
+package modele;
+
+import junit.framework.Test;
+import junit.framework.TestCase;
+import junit.framework.TestSuite;
+import strategy.zeuten;
+
+/**
+ * Unit test for PartnerIndex.
+ */
+public class PartnerIndexTest
+    extends TestCase
+{
+    private Prosumer buyer;
+    private Prosumer near;
+    private Prosumer far;
+
+    public PartnerIndexTest( String testName )
+    {
+        super( testName );
+    }
+
+    public static Test suite()
+    {
+        return new TestSuite( PartnerIndexTest.class );
+    }
+
+    /**
+     * Chain buyer - near - far, two sellers.
+     */
+    protected void setUp()
+    {
+        zeuten strategy = new zeuten( 0.01, 100, 0.01 );
+        buyer = prosumer( 1, true, strategy );
+        near = prosumer( 2, false, strategy );
+        far = prosumer( 3, false, strategy );
+        link( near, buyer );
+        link( far, near );
+    }
+
+    public void testRadiusLimitsCandidates()
+    {
+        PartnerIndex index = new PartnerIndex( 1 );
+        index.add( buyer );
+        index.add( near );
+        index.add( far );
+        assertEquals( 1, index.getCandidates( buyer ).size() );
+        assertTrue( index.getCandidates( buyer ).contains( near ) );
+        assertTrue( index.getCandidates( far ).isEmpty() );
+
+        index = new PartnerIndex( 2 );
+        index.add( buyer );
+        index.add( far );
+        assertTrue( index.getCandidates( far ).contains( buyer ) );
+    }
+
+    public void testPartnershipsAreResetAndFollowTermination()
+    {
+        PartnerIndex index = new PartnerIndex();
+        index.add( buyer );
+        index.add( near );
+        index.add( far );
+        index.lookForPartners();
+        assertEquals( 2, buyer.getPartners().size() );
+        Partner partner = buyer.getPartners().get( near );
+        assertSame( partner, near.getPartners().get( buyer ) );
+        assertSame( buyer, partner.getBuyer() );
+        partner.setToConsider( false );
+
+        far.stopNegociations();
+        index.remove( far );
+        index.lookForPartners();
+        assertEquals( 1, buyer.getPartners().size() );
+        assertSame( partner, buyer.getPartners().get( near ) );
+        assertTrue( partner.isToConsider() );
+        assertFalse( index.contains( far ) );
+    }
+
+    private Prosumer prosumer( int id, boolean isBuyer, zeuten strategy )
+    {
+        Prosumer prosumer = new Prosumer();
+        prosumer.setId( id );
+        prosumer.setBuyer( isBuyer );
+        prosumer.setStrategy( strategy );
+        return prosumer;
+    }
+
+    private void link( Node child, Node parent )
+    {
+        Link link = new Link();
+        link.setFirstNode( child );
+        link.setSecondNode( parent );
+        parent.addLink( link );
+    }
+}
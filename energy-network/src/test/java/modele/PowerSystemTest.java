@@ -0,0 +1,158 @@
+package modele;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.List;
+
+import events.Event;
+import events.EventLog;
+import events.EventReader;
+import events.EventType;
+import junit.framework.Test;
+import junit.framework.TestCase;
+import junit.framework.TestSuite;
+
+/**
+ * Unit test for the link and bus registries of PowerSystem.
+ */
+public class PowerSystemTest
+    extends TestCase
+{
+    public PowerSystemTest( String testName )
+    {
+        super( testName );
+    }
+
+    public static Test suite()
+    {
+        return new TestSuite( PowerSystemTest.class );
+    }
+
+    public void testLinksAndBusesAreAddedOnce()
+    {
+        PowerSystem powerSystem = new PowerSystem();
+        Node root = new Node();
+        root.setId( 1 );
+        Prosumer prosumer = new Prosumer();
+        prosumer.setId( 2 );
+        Link link = new Link();
+        link.setSecondNode( root );
+        link.setFirstNode( prosumer );
+
+        assertTrue( powerSystem.addBus( root ) );
+        assertTrue( powerSystem.addBus( prosumer ) );
+        assertFalse( powerSystem.addBus( prosumer ) );
+        assertTrue( powerSystem.addLink( link ) );
+        assertFalse( powerSystem.addLink( link ) );
+        new Slack( root, powerSystem );
+
+        assertEquals( 3, powerSystem.getBusList().size() );
+        assertEquals( 2, powerSystem.getEnergizedBranchList().size() );
+        assertSame( prosumer, powerSystem.getBus( 2 ) );
+        assertEquals( 2, powerSystem.indexOfBus( 0 ) );
+        assertEquals( -1, powerSystem.indexOfBus( 7 ) );
+        assertNull( powerSystem.getBus( 7 ) );
+        assertEquals( 0, powerSystem.indexOfLink( link ) );
+        assertTrue( powerSystem.containsBus( powerSystem.getBus( 0 ) ) );
+        assertFalse( powerSystem.containsLink( new Link() ) );
+    }
+
+    public void testArraysAreCompiledOnceAndFollowAdditions()
+    {
+        PowerSystem powerSystem = new PowerSystem();
+        Node root = new Node();
+        root.setId( 1 );
+        Prosumer prosumer = new Prosumer();
+        prosumer.setId( 2 );
+        Link link = new Link();
+        link.setSecondNode( root );
+        link.setFirstNode( prosumer );
+        link.setCapacity( 40 );
+        link.setJoule( 3 );
+        powerSystem.addBus( root );
+        powerSystem.addBus( prosumer );
+        powerSystem.addLink( link );
+
+        NetworkArrays arrays = powerSystem.getArrays();
+        assertSame( arrays, powerSystem.getArrays() );
+        assertSame( arrays.getTopology(), powerSystem.getDCTopology() );
+        assertEquals( 1, arrays.getFrom()[0] );
+        assertEquals( 0, arrays.getTo()[0] );
+        assertEquals( 40.0, arrays.getCapacity()[0], 0 );
+        assertEquals( 3.0, arrays.getJoule()[0], 0 );
+        assertEquals( 0.5, arrays.getBPrime()[0], 0 );
+
+        prosumer.setEnergySend( 2 );
+        assertEquals( prosumer.getBusMw(), arrays.updateInjections()[1], 0 );
+
+        new Slack( root, powerSystem );
+        assertNotSame( arrays, powerSystem.getArrays() );
+        assertEquals( 3, powerSystem.getArrays().getBusCount() );
+        assertEquals( 2, powerSystem.getArrays().getLinkCount() );
+    }
+
+    public void testChangedLinksCompileTheArraysAgain()
+    {
+        PowerSystem powerSystem = new PowerSystem();
+        Node root = new Node();
+        root.setId( 1 );
+        Prosumer prosumer = new Prosumer();
+        prosumer.setId( 2 );
+        Link link = new Link();
+        link.setSecondNode( root );
+        link.setFirstNode( prosumer );
+        link.setCapacity( 40 );
+        powerSystem.addBus( root );
+        powerSystem.addBus( prosumer );
+        powerSystem.addLink( link );
+
+        NetworkArrays arrays = powerSystem.getArrays();
+        link.setCapacity( 20 );
+        assertNotSame( arrays, powerSystem.getArrays() );
+        assertEquals( 20.0, powerSystem.getArrays().getCapacity()[0], 0 );
+
+        arrays = powerSystem.getArrays();
+        link.setJoule( 4 );
+        assertNotSame( arrays, powerSystem.getArrays() );
+        assertEquals( 4.0, powerSystem.getArrays().getJoule()[0], 0 );
+
+        arrays = powerSystem.getArrays();
+        link.setSusceptance( 2 );
+        assertNotSame( arrays.getTopology(), powerSystem.getDCTopology() );
+        assertEquals( 2.0, powerSystem.getArrays().getBPrime()[0], 0 );
+    }
+
+    public void testZeroCapacityLinksAreReportedOnce() throws IOException
+    {
+        PowerSystem powerSystem = new PowerSystem();
+        Node root = new Node();
+        root.setId( 1 );
+        Prosumer prosumer = new Prosumer();
+        prosumer.setId( 2 );
+        Link link = new Link();
+        link.setSecondNode( root );
+        link.setFirstNode( prosumer );
+        powerSystem.addBus( root );
+        powerSystem.addBus( prosumer );
+        powerSystem.addLink( link );
+
+        File file = File.createTempFile( "events", ".bin" );
+        file.deleteOnExit();
+        EventLog.getDefault().open( file, EventLog.INFO );
+        try
+        {
+            powerSystem.getArrays();
+            powerSystem.getArrays();
+        }
+        finally
+        {
+            EventLog.getDefault().close();
+        }
+
+        List<Event> events = EventReader.read( file );
+        assertEquals( 1, events.size() );
+        assertEquals( EventType.ZERO_CAPACITY_LINK, events.get( 0 ).getType() );
+        assertEquals( 2, events.get( 0 ).getFirst() );
+        assertEquals( 1, events.get( 0 ).getSecond() );
+    }
+}
@@ -0,0 +1,111 @@
+package snl.ccss.jpowerflow.ac;
+
+import junit.framework.Test;
+import junit.framework.TestCase;
+import junit.framework.TestSuite;
+import snl.ccss.jpowerflow.util.Utilities;
+
+/**
+ * Unit test for ACSolverSession, results are compared to a FullNewton
+ * solve of a new system with the same injections.
+ */
+public class ACSolverSessionTest
+    extends TestCase
+{
+    public ACSolverSessionTest( String testName )
+    {
+        super( testName );
+    }
+
+    public static Test suite()
+    {
+        return new TestSuite( ACSolverSessionTest.class );
+    }
+
+    private static void assertSameVoltages( TestFeeder expected, TestFeeder actual )
+    {
+        for ( int i = 0; i < expected.buses.size(); i++ )
+        {
+            assertEquals( expected.getBus( i ).voltage, actual.getBus( i ).voltage, 1e-6 );
+            assertEquals( expected.getBus( i ).angle, actual.getBus( i ).angle, 1e-6 );
+        }
+    }
+
+    public void testInjectionDeltasConvergeFromLastState()
+    {
+        TestFeeder feeder = TestFeeder.create( 60, true );
+        ACSolverSession session = new ACSolverSession( new FullNewton( 20, 1e-6, 1e-7, false ), feeder );
+        assertTrue( session.solve() );
+        int cold = session.getIterations();
+
+        session.addInjection( 12, -0.005, 0 );
+        session.addInjection( 40, 0.003, -0.001 );
+        assertTrue( session.solve() );
+        assertTrue( session.getIterations() < cold );
+        assertEquals( 2, session.getSolveCount() );
+        assertEquals( cold + session.getIterations(), session.getTotalIterations() );
+
+        TestFeeder expected = TestFeeder.create( 60, true );
+        expected.getBus( 11 ).mw -= 0.005;
+        expected.getBus( 39 ).mw += 0.003;
+        expected.getBus( 39 ).mvar -= 0.001;
+        assertTrue( new FullNewton( 20, 1e-6, 1e-7, false ).solve( expected ) );
+        assertSameVoltages( expected, feeder );
+    }
+
+    public void testScheduledInjectionsAreKept()
+    {
+        TestFeeder feeder = TestFeeder.create( 30, false );
+        ACSolverSession session = new ACSolverSession( new FastDecoupledNewton( 50, 1e-6, 1e-7, false, FastDecoupledNewton.XB ), feeder );
+        double mvar = feeder.getBus( 4 ).mvar;
+        assertTrue( session.solve() );
+        assertTrue( session.solve() );
+        assertEquals( mvar, session.getScheduledMvar( 5 ), 0 );
+
+        TestFeeder expected = TestFeeder.create( 30, false );
+        assertTrue( new FullNewton( 20, 1e-6, 1e-7, false ).solve( expected ) );
+        for ( int i = 0; i < 30; i++ )
+        {
+            assertEquals( expected.getBus( i ).voltage, feeder.getBus( i ).voltage, 1e-5 );
+            assertEquals( expected.getBus( i ).angle, feeder.getBus( i ).angle, 1e-5 );
+        }
+    }
+
+    public void testChangedBranchesBuildYBusAgain()
+    {
+        TestFeeder feeder = TestFeeder.create( 30, false );
+        ACSolverSession session = new ACSolverSession( new FullNewton( 20, 1e-6, 1e-7, false ), feeder );
+        assertTrue( session.solve() );
+
+        ( (TestFeeder.Branch) feeder.branches.get( 3 ) ).r *= 2;
+        session.branchesChanged();
+        assertTrue( session.solve() );
+
+        TestFeeder expected = TestFeeder.create( 30, false );
+        ( (TestFeeder.Branch) expected.branches.get( 3 ) ).r *= 2;
+        assertTrue( new FullNewton( 20, 1e-6, 1e-7, false ).solve( expected ) );
+        assertSameVoltages( expected, feeder );
+    }
+
+    public void testUnknownBus()
+    {
+        ACSolverSession session = new ACSolverSession( new FullNewton( 20, 1e-6, 1e-7, false ), TestFeeder.create( 5, false ) );
+        try
+        {
+            session.addInjection( 99, 0.1, 0 );
+            fail();
+        }
+        catch ( IllegalArgumentException e )
+        {
+        }
+    }
+
+    public void testSessionSolvesDoNotExportTheJacobian()
+    {
+        TestFeeder feeder = TestFeeder.create( 30, true );
+        Utilities.jacobian = null;
+        ACSolverSession session = new ACSolverSession( new FullNewton( 20, 1e-6, 1e-7, false ), feeder );
+        assertTrue( session.solve() );
+        assertNull( Utilities.jacobian );
+    }
+}
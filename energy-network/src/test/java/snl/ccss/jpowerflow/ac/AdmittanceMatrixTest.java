@@ -0,0 +1,95 @@
+package snl.ccss.jpowerflow.ac;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import flanagan.complex.Complex;
+import junit.framework.Test;
+import junit.framework.TestCase;
+import junit.framework.TestSuite;
+
+/**
+ * Unit test for AdmittanceMatrix, entries are compared to the dense Complex sums.
+ */
+public class AdmittanceMatrixTest
+    extends TestCase
+{
+    public AdmittanceMatrixTest( String testName )
+    {
+        super( testName );
+    }
+
+    public static Test suite()
+    {
+        return new TestSuite( AdmittanceMatrixTest.class );
+    }
+
+    private static ACPFBranch branch( final int from, final int to, final double r, final double x )
+    {
+        return new ACPFBranch()
+        {
+            public int getFromBus()
+            {
+                return from;
+            }
+
+            public int getToBus()
+            {
+                return to;
+            }
+
+            public Complex[][] getYBus()
+            {
+                Complex y = new Complex( r, x ).inverse();
+                return new Complex[][] { { y, y.negate() }, { y.negate(), new Complex( y ) } };
+            }
+        };
+    }
+
+    /**
+     * Four buses, two parallel branches between 0 and 1 and a branch left out
+     * because its "to" bus is not in the system.
+     */
+    public void testEntriesMatchDenseYBus()
+    {
+        List branches = new ArrayList();
+        branches.add( branch( 0, 1, 0.1, 0.2 ) );
+        branches.add( branch( 1, 2, 0.2, 0.5 ) );
+        branches.add( branch( 0, 1, 0.3, 0.1 ) );
+        branches.add( branch( 2, 3, 0.1, 0.4 ) );
+        branches.add( branch( 3, 9, 0.1, 0.4 ) );
+        int[] from = { 0, 1, 0, 2, 3 };
+        int[] to = { 1, 2, 1, 3, -1 };
+
+        Complex[][] dense = Complex.twoDarray( 4, 4 );
+        for ( int k = 0; k < 4; k++ )
+        {
+            Complex[][] mini = ( (ACPFBranch) branches.get( k ) ).getYBus();
+            dense[from[k]][from[k]].plusEquals( mini[0][0] );
+            dense[from[k]][to[k]].plusEquals( mini[0][1] );
+            dense[to[k]][from[k]].plusEquals( mini[1][0] );
+            dense[to[k]][to[k]].plusEquals( mini[1][1] );
+        }
+
+        AdmittanceMatrix yBus = new AdmittanceMatrix( 4, from, to );
+        yBus.update( branches );
+        assertEquals( 4 + 2 * 3, yBus.getNonZeroCount() );
+        assertEquals( -1, yBus.indexOf( 0, 3 ) );
+        for ( int i = 0; i < 4; i++ )
+        {
+            for ( int j = 0; j < 4; j++ )
+            {
+                int p = yBus.indexOf( i, j );
+                assertEquals( dense[i][j].getReal(), yBus.getElement( i, j ).getReal(), 0 );
+                assertEquals( dense[i][j].getImag(), yBus.getElement( i, j ).getImag(), 0 );
+                if ( p != -1 )
+                {
+                    assertEquals( Complex.abs( dense[i][j] ), yBus.getMagnitude()[p], 0 );
+                    assertEquals( Complex.arg( dense[i][j] ), yBus.getAngle()[p], 0 );
+                }
+            }
+        }
+        assertTrue( yBus.hasTopology( 4, from, to ) );
+        assertFalse( yBus.hasTopology( 4, from, new int[] { 1, 2, 1, 3, 0 } ) );
+    }
+}
@@ -0,0 +1,74 @@
+package snl.ccss.jpowerflow.ac;
+
+import junit.framework.Test;
+import junit.framework.TestCase;
+import junit.framework.TestSuite;
+
+/**
+ * Unit test for BackwardForwardSweepSolver, results are compared to FullNewton.
+ */
+public class BackwardForwardSweepSolverTest
+    extends TestCase
+{
+    public BackwardForwardSweepSolverTest( String testName )
+    {
+        super( testName );
+    }
+
+    public static Test suite()
+    {
+        return new TestSuite( BackwardForwardSweepSolverTest.class );
+    }
+
+    public void testRadialFeederMatchesFullNewton()
+    {
+        TestFeeder expected = TestFeeder.create( 60, false );
+        TestFeeder actual = TestFeeder.create( 60, false );
+        assertTrue( new FullNewton( 20, 1e-6, 1e-7, false ).solve( expected ) );
+        BackwardForwardSweepSolver solver = new BackwardForwardSweepSolver( 50, 1e-12 );
+        assertTrue( solver.solve( actual ) );
+        assertTrue( solver.isRadial() );
+
+        double losses = 0;
+        for ( int i = 0; i < 60; i++ )
+        {
+            TestFeeder.Bus e = (TestFeeder.Bus) expected.buses.get( i );
+            TestFeeder.Bus a = (TestFeeder.Bus) actual.buses.get( i );
+            assertEquals( e.voltage, a.voltage, 1e-6 );
+            assertEquals( e.angle, a.angle, 1e-6 );
+            losses += e.mw;
+        }
+        TestFeeder.Bus e = (TestFeeder.Bus) expected.buses.get( 0 );
+        TestFeeder.Bus a = (TestFeeder.Bus) actual.buses.get( 0 );
+        assertEquals( e.mw, a.mw, 1e-5 );
+        assertEquals( e.mvar, a.mvar, 1e-5 );
+        assertEquals( losses, solver.getLosses(), 1e-5 );
+
+        double branchLosses = 0;
+        for ( int k = 0; k < solver.getBranchLosses().length; k++ )
+            branchLosses += solver.getBranchLosses()[k];
+        assertEquals( solver.getLosses(), branchLosses, 1e-12 );
+    }
+
+    public void testWarmStartNeedsFewerIterations()
+    {
+        TestFeeder feeder = TestFeeder.create( 60, false );
+        BackwardForwardSweepSolver solver = new BackwardForwardSweepSolver( 50, 1e-10 );
+        assertTrue( solver.solve( feeder ) );
+        int cold = solver.getIterations();
+
+        ( (TestFeeder.Bus) feeder.buses.get( 10 ) ).mw -= 0.001;
+        assertTrue( solver.solve( feeder ) );
+        assertTrue( solver.getIterations() < cold );
+    }
+
+    public void testMeshedSystemIsDelegated()
+    {
+        TestFeeder feeder = TestFeeder.create( 20, true );
+        BackwardForwardSweepSolver solver = new BackwardForwardSweepSolver( 20, 1e-7 );
+        assertTrue( solver.solve( feeder ) );
+        assertFalse( solver.isRadial() );
+        assertNull( solver.getBranchLosses() );
+        assertTrue( solver.getLosses() > 0 );
+    }
+}
@@ -0,0 +1,72 @@
+package snl.ccss.jpowerflow.ac;
+
+import junit.framework.Test;
+import junit.framework.TestCase;
+import junit.framework.TestSuite;
+
+/**
+ * Unit test for FastDecoupledNewton, results are compared to FullNewton.
+ */
+public class FastDecoupledNewtonTest
+    extends TestCase
+{
+    public FastDecoupledNewtonTest( String testName )
+    {
+        super( testName );
+    }
+
+    public static Test suite()
+    {
+        return new TestSuite( FastDecoupledNewtonTest.class );
+    }
+
+    private static void assertSameVoltages( TestFeeder expected, TestFeeder actual )
+    {
+        for ( int i = 0; i < expected.buses.size(); i++ )
+        {
+            assertEquals( expected.getBus( i ).voltage, actual.getBus( i ).voltage, 1e-5 );
+            assertEquals( expected.getBus( i ).angle, actual.getBus( i ).angle, 1e-5 );
+        }
+    }
+
+    public void testBothSchemesMatchFullNewton()
+    {
+        TestFeeder expected = TestFeeder.create( 40, true );
+        assertTrue( new FullNewton( 20, 1e-6, 1e-7, false ).solve( expected ) );
+
+        int[] schemes = { FastDecoupledNewton.XB, FastDecoupledNewton.BX };
+        for ( int k = 0; k < schemes.length; k++ )
+        {
+            TestFeeder actual = TestFeeder.create( 40, true );
+            FastDecoupledNewton solver = new FastDecoupledNewton( 50, 1e-6, 1e-7, false, schemes[k] );
+            assertTrue( solver.solve( actual ) );
+            assertSameVoltages( expected, actual );
+        }
+    }
+
+    /**
+     * The factors of the first solve are reused for new injections, and computed
+     * again when an admittance changes.
+     */
+    public void testFactorsFollowInjectionsAndAdmittances()
+    {
+        TestFeeder expected = TestFeeder.create( 40, false );
+        TestFeeder actual = TestFeeder.create( 40, false );
+        FullNewton newton = new FullNewton( 20, 1e-6, 1e-7, false );
+        FastDecoupledNewton solver = new FastDecoupledNewton( 50, 1e-6, 1e-7, false, FastDecoupledNewton.XB );
+        assertTrue( newton.solve( expected ) );
+        assertTrue( solver.solve( actual ) );
+
+        expected.getBus( 5 ).mw -= 0.01;
+        actual.getBus( 5 ).mw -= 0.01;
+        assertTrue( newton.solve( expected ) );
+        assertTrue( solver.solve( actual ) );
+        assertSameVoltages( expected, actual );
+
+        ( (TestFeeder.Branch) expected.branches.get( 3 ) ).r *= 2;
+        ( (TestFeeder.Branch) actual.branches.get( 3 ) ).r *= 2;
+        assertTrue( newton.solve( expected ) );
+        assertTrue( solver.solve( actual ) );
+        assertSameVoltages( expected, actual );
+    }
+}
@@ -0,0 +1,117 @@
+package snl.ccss.jpowerflow.ac;
+
+import junit.framework.Test;
+import junit.framework.TestCase;
+import junit.framework.TestSuite;
+
+/**
+ * Unit test for FullNewton, results are compared to the ones of the dense
+ * solver it replaced (flanagan LU on a dense Jacobian) on the same feeders.
+ */
+public class FullNewtonTest
+    extends TestCase
+{
+    private static final double TOLERANCE = 1e-9;
+
+    public FullNewtonTest( String testName )
+    {
+        super( testName );
+    }
+
+    public static Test suite()
+    {
+        return new TestSuite( FullNewtonTest.class );
+    }
+
+    /**
+     * Counts the iterations whose Jacobian cannot be factorized with diagonal
+     * pivots, and are solved by the dense elimination instead.
+     */
+    private static class CountingNewton extends FullNewton
+    {
+        int denseSolves;
+
+        CountingNewton()
+        {
+            super( 20, 1e-6, 1e-7, false );
+            setExportJacobian( false );
+        }
+
+        protected void zeroJac()
+        {
+            super.zeroJac();
+            if ( !jacLU.factorize( jacValues ) )
+                denseSolves++;
+        }
+    }
+
+    private static void assertSolution( TestFeeder feeder, double slackMw, double slackMvar, double[] voltages, double[] angles )
+    {
+        assertEquals( slackMw, feeder.getBus( 0 ).mw, TOLERANCE );
+        assertEquals( slackMvar, feeder.getBus( 0 ).mvar, TOLERANCE );
+        for ( int i = 0; i < voltages.length; i++ )
+        {
+            assertEquals( voltages[i], feeder.getBus( i ).voltage, TOLERANCE );
+            assertEquals( angles[i], feeder.getBus( i ).angle, TOLERANCE );
+        }
+    }
+
+    public void testMeshedFeeder()
+    {
+        TestFeeder feeder = TestFeeder.create( 6, true );
+        CountingNewton solver = new CountingNewton();
+        assertTrue( solver.solve( feeder ) );
+        assertEquals( 3, solver.getIterations() );
+        assertEquals( 0, solver.denseSolves );
+        assertSolution( feeder, 0.06537784695517596, -0.039701873073932144,
+            new double[] { 1.0000000000065745, 0.9996492824987742, 0.9996900624706777, 0.9996904400288538, 0.9993743874711473, 0.9995576745403626 },
+            new double[] { -6.533277094012897E-12, -6.19243575599976E-4, -2.777574196619115E-4, -4.31251777142505E-4, -7.286566252695928E-4, -8.595149569950675E-4 } );
+    }
+
+    public void testRadialFeeder()
+    {
+        TestFeeder feeder = TestFeeder.create( 6, false );
+        CountingNewton solver = new CountingNewton();
+        assertTrue( solver.solve( feeder ) );
+        assertEquals( 3, solver.getIterations() );
+        assertSolution( feeder, 0.06537585508476564, -0.03570257858224598,
+            new double[] { 1.0000000000061748, 0.9996092830543826, 0.9996900624706777, 0.9996904400288538, 0.9993743874711473, 0.999446140792272 },
+            new double[] { -6.53310474000059E-12, -5.392312608536668E-4, -2.777574196619115E-4, -4.31251777142505E-4, -7.286566252695928E-4, -8.024129879926077E-4 } );
+    }
+
+    /**
+     * With resistive lines the angle terms of the Jacobian diagonal are zero at flat
+     * start, the first iterations are solved by the dense elimination.
+     */
+    public void testResistiveFeederFallsBackToDenseSolve()
+    {
+        TestFeeder feeder = TestFeeder.create( 6, false );
+        for ( int i = 0; i < feeder.branches.size(); i++ )
+            ( (TestFeeder.Branch) feeder.branches.get( i ) ).x = 0;
+        CountingNewton solver = new CountingNewton();
+        assertTrue( solver.solve( feeder ) );
+        assertEquals( 3, solver.getIterations() );
+        assertTrue( solver.denseSolves > 0 );
+        assertSolution( feeder, 0.06537585988515686, -0.03570905256248706,
+            new double[] { 1.0000000000061753, 0.9994717397457892, 0.9996409554089116, 0.999579854744588, 0.999208054869516, 0.9992359619527347 },
+            new double[] { -6.533192622411628E-12, -2.750545069637214E-4, -9.822757970799903E-5, -2.2117248260422004E-4, -3.32604779553404E-4, -4.2028083861119696E-4 } );
+    }
+
+    public void testAddedBranchBuildsThePatternAgain()
+    {
+        TestFeeder feeder = TestFeeder.create( 6, false );
+        CountingNewton solver = new CountingNewton();
+        assertTrue( solver.solve( feeder ) );
+        Object pattern = solver.jacLU;
+        assertTrue( solver.solve( feeder ) );
+        assertSame( pattern, solver.jacLU );
+
+        feeder.branches.add( new TestFeeder.Branch( 3, 6, 0.03, 0.02 ) );
+        assertTrue( solver.solve( feeder ) );
+        assertNotSame( pattern, solver.jacLU );
+        assertEquals( 3, solver.getIterations() );
+        assertSolution( feeder, 0.0655096046086471, -0.13962568668888506,
+            new double[] { 1.0000000000205662, 1.00000349438115, 0.9999348947424185, 1.0000895334068376, 0.999973430245926, 1.0000349671577728 },
+            new double[] { -6.543621275323582E-12, -0.0010812955125968, -0.0010152959961413702, -0.0012309710963330108, -0.0019279610148442928, -0.0014865035671997326 } );
+    }
+}
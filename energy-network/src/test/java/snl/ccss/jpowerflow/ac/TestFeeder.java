@@ -0,0 +1,102 @@
+package snl.ccss.jpowerflow.ac;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import flanagan.complex.Complex;
+import snl.ccss.jpowerflow.PFPowerSystem;
+
+/**
+ * Small AC system for the solver tests: a random feeder of lines with a
+ * high R/X ratio and line charging, optionally closed by one more branch.
+ */
+class TestFeeder implements PFPowerSystem
+{
+    static class Bus implements ACPFBus
+    {
+        int number;
+        boolean slack;
+        double mw, mvar, voltage = 1, angle;
+
+        Bus( int number, boolean slack, double mw, double mvar )
+        {
+            this.number = number;
+            this.slack = slack;
+            this.mw = mw;
+            this.mvar = mvar;
+        }
+
+        public int getNumber() { return number; }
+        public double getVoltage() { return voltage; }
+        public double getAngle() { return angle; }
+        public double getBusMw() { return mw; }
+        public double getBusMvar() { return mvar; }
+        public double getSusceptance() { return 0.01; }
+        public boolean isGenerationBus() { return slack; }
+        public boolean isSlackBus() { return slack; }
+        public boolean isAVR() { return slack; }
+        public boolean checkGenMvarOutput( double busMvar, boolean adjust ) { return true; }
+        public void setVoltage( double voltage ) { this.voltage = voltage; }
+        public void setAngle( double angle ) { this.angle = angle; }
+        public void setBusMw( double busMw ) { this.mw = busMw; }
+        public void setBusMvar( double busMvar ) { this.mvar = busMvar; }
+    }
+
+    /**
+     * Line with half of its charging susceptance at each end.
+     */
+    static class Branch implements ACPFBranch
+    {
+        int from, to;
+        double r, x;
+
+        Branch( int from, int to, double r, double x )
+        {
+            this.from = from;
+            this.to = to;
+            this.r = r;
+            this.x = x;
+        }
+
+        public int getFromBus() { return from; }
+        public int getToBus() { return to; }
+
+        public Complex[][] getYBus()
+        {
+            Complex y = new Complex( r, x ).inverse();
+            Complex shunt = new Complex( 0, 0.002 );
+            return new Complex[][] { { y.plus( shunt ), y.negate() }, { y.negate(), y.plus( shunt ) } };
+        }
+    }
+
+    List buses = new ArrayList();
+    List branches = new ArrayList();
+
+    public List getBusList() { return buses; }
+    public List getEnergizedBranchList() { return branches; }
+
+    Bus getBus( int index )
+    {
+        return (Bus) buses.get( index );
+    }
+
+    /**
+     * Random feeder of n buses, branches drawn child to parent, bus 1 being the slack bus.
+     */
+    static TestFeeder create( int n, boolean meshed )
+    {
+        Random random = new Random( 7 );
+        TestFeeder feeder = new TestFeeder();
+        feeder.buses.add( new Bus( 1, true, 0, 0 ) );
+        for ( int i = 2; i <= n; i++ )
+        {
+            feeder.buses.add( new Bus( i, false, -0.02 * random.nextDouble(), -0.01 * random.nextDouble() ) );
+            int parent = 1 + random.nextInt( i - 1 );
+            feeder.branches.add( random.nextBoolean() ? new Branch( i, parent, 0.02, 0.01 ) : new Branch( parent, i, 0.02, 0.01 ) );
+        }
+        if ( meshed )
+            feeder.branches.add( new Branch( 2, n, 0.05, 0.05 ) );
+        return feeder;
+    }
+}
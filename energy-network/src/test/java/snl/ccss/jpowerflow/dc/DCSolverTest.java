@@ -0,0 +1,124 @@
+package snl.ccss.jpowerflow.dc;
+
+import junit.framework.Test;
+import junit.framework.TestCase;
+import junit.framework.TestSuite;
+import modele.Link;
+import modele.Node;
+import modele.PowerSystem;
+import modele.Prosumer;
+import modele.Slack;
+
+/**
+ * Unit test for the cached factorization of DCSolver.
+ */
+public class DCSolverTest
+    extends TestCase
+{
+    private PowerSystem powerSystem;
+    private Prosumer seller;
+    private Prosumer buyer;
+
+    public DCSolverTest( String testName )
+    {
+        super( testName );
+    }
+
+    public static Test suite()
+    {
+        return new TestSuite( DCSolverTest.class );
+    }
+
+    /**
+     * Ring 1 - 2 - 3 - 1 with the slack above node 1.
+     */
+    protected void setUp()
+    {
+        powerSystem = new PowerSystem();
+        Node root = new Node();
+        root.setId( 1 );
+        seller = new Prosumer();
+        seller.setId( 2 );
+        buyer = new Prosumer();
+        buyer.setId( 3 );
+        powerSystem.addBus( root );
+        powerSystem.addBus( seller );
+        powerSystem.addBus( buyer );
+        link( seller, root );
+        link( buyer, root );
+        link( buyer, seller );
+        new Slack( root, powerSystem );
+    }
+
+    public void testFactorizationIsReusedWhileTopologyIsUnchanged()
+    {
+        DCSolver solver = new DCSolver();
+        seller.setEnergySend( 3 );
+        assertTrue( solver.solve( powerSystem ) );
+        DCTopology topology = solver.getTopology();
+
+        buyer.setEnergyReceived( 3 );
+        assertTrue( solver.solve( powerSystem ) );
+        assertSame( topology, solver.getTopology() );
+        assertEquals( 0, solver.getSlackOutput(), 1e-9 );
+
+        // Equal susceptances: a third of the transfer takes the path through the root
+        double[] power = { 0, 3, -3, 0 };
+        double[] angle = solver.solveInjections( power );
+        assertEquals( 1.0, -0.5 * ( angle[1] - angle[0] ), 1e-9 );
+
+        link( seller, buyer );
+        assertTrue( solver.solve( powerSystem ) );
+        assertNotSame( topology, solver.getTopology() );
+        assertEquals( 5, solver.getTopology().getBranchCount() );
+    }
+
+    public void testFlowsAreWrittenInPlace()
+    {
+        DCSolver solver = new DCSolver();
+        seller.setEnergySend( 3 );
+        assertTrue( solver.solve( powerSystem ) );
+        FlowView flows = solver.getFlows();
+        double[] array = flows.getFlows();
+        Link first = (Link) powerSystem.getEnergizedBranchList().get( 0 );
+        double before = flows.getMw( first );
+
+        seller.setEnergySend( 6 );
+        assertTrue( solver.solve( powerSystem ) );
+        assertSame( flows, solver.getFlows() );
+        assertSame( array, solver.getFlows().getFlows() );
+        assertEquals( 2 * before, flows.getMw( first ), 1e-9 );
+        assertEquals( flows.getMw( 0 ), ( (Double) solver.getMwFlows().get( first ) ).doubleValue(), 0 );
+    }
+
+    public void testChangedSusceptanceGivesNewFlows()
+    {
+        DCSolver solver = new DCSolver();
+        seller.setEnergySend( 3 );
+        assertTrue( solver.solve( powerSystem ) );
+        DCTopology topology = solver.getTopology();
+        Link direct = (Link) powerSystem.getEnergizedBranchList().get( 0 );
+        // The path through the buyer has half the susceptance of the direct link
+        assertEquals( 2.0, Math.abs( solver.getFlows().getMw( direct ) ), 1e-9 );
+
+        ( (Link) powerSystem.getEnergizedBranchList().get( 2 ) ).setSusceptance( 1.5 );
+        assertTrue( solver.solve( powerSystem ) );
+        assertNotSame( topology, solver.getTopology() );
+        assertEquals( 3 * 0.5 / ( 0.5 + 0.375 ), Math.abs( solver.getFlows().getMw( direct ) ), 1e-9 );
+
+        DCSolver expected = new DCSolver();
+        assertTrue( expected.solve( powerSystem ) );
+        for ( int l = 0; l < solver.getFlows().getBranchCount(); l++ )
+            assertEquals( expected.getFlows().getMw( l ), solver.getFlows().getMw( l ), 1e-9 );
+    }
+
+    private void link( Node child, Node parent )
+    {
+        Link link = new Link();
+        link.setCapacity( 10 );
+        link.setJoule( 1 );
+        link.setFirstNode( child );
+        link.setSecondNode( parent );
+        powerSystem.addLink( link );
+    }
+}
@@ -0,0 +1,120 @@
+package snl.ccss.jpowerflow.dc;
+
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.Map;
+
+import junit.framework.Test;
+import junit.framework.TestCase;
+import junit.framework.TestSuite;
+import modele.Link;
+import modele.Node;
+import modele.PowerSystem;
+import modele.Prosumer;
+import modele.Slack;
+
+/**
+ * Unit test for RadialDCSolver, results are compared to DCSolver.
+ */
+public class RadialDCSolverTest
+    extends TestCase
+{
+    private PowerSystem powerSystem;
+    private Prosumer[] prosumers;
+
+    public RadialDCSolverTest( String testName )
+    {
+        super( testName );
+    }
+
+    public static Test suite()
+    {
+        return new TestSuite( RadialDCSolverTest.class );
+    }
+
+    /**
+     * Feeder 1 - 2 - {3, 4} with prosumers 5 and 6 on node 3, 7 on node 4, and the slack above node 1.
+     */
+    protected void setUp()
+    {
+        powerSystem = new PowerSystem();
+        Node root = node( 1 );
+        Node n2 = node( 2 );
+        Node n3 = node( 3 );
+        Node n4 = node( 4 );
+        link( n2, root );
+        link( n3, n2 );
+        link( n4, n2 );
+        prosumers = new Prosumer[] { prosumer( 5 ), prosumer( 6 ), prosumer( 7 ) };
+        link( prosumers[0], n3 );
+        link( prosumers[1], n3 );
+        link( prosumers[2], n4 );
+        new Slack( root, powerSystem );
+
+        prosumers[0].setEnergySend( 4 );
+        prosumers[1].setEnergyReceived( 1.5 );
+        prosumers[2].setEnergyReceived( 6 );
+    }
+
+    public void testRadialMatchesMeshedSolver()
+    {
+        RadialDCSolver radial = new RadialDCSolver();
+        DCSolver meshed = new DCSolver();
+        assertTrue( radial.solve( powerSystem ) );
+        assertTrue( meshed.solve( powerSystem ) );
+        assertTrue( radial.isRadial() );
+        assertSameFlows( meshed, radial );
+        assertEquals( 3.5, radial.getSlackOutput(), 1e-9 );
+    }
+
+    public void testCycleFallsBackToMeshedSolver()
+    {
+        link( prosumers[1], prosumers[2] );
+        RadialDCSolver radial = new RadialDCSolver();
+        DCSolver meshed = new DCSolver();
+        assertTrue( radial.solve( powerSystem ) );
+        assertTrue( meshed.solve( powerSystem ) );
+        assertFalse( radial.isRadial() );
+        assertSameFlows( meshed, radial );
+    }
+
+    private void assertSameFlows( DCSolver meshed, RadialDCSolver radial )
+    {
+        HashMap expected = meshed.getMwFlows();
+        HashMap actual = radial.getMwFlows();
+        assertEquals( expected.size(), actual.size() );
+        for ( Iterator it = expected.entrySet().iterator(); it.hasNext(); )
+        {
+            Map.Entry entry = (Map.Entry) it.next();
+            double mw = ( (Double) actual.get( entry.getKey() ) ).doubleValue();
+            assertEquals( ( (Double) entry.getValue() ).doubleValue(), mw, 1e-6 );
+        }
+        assertEquals( meshed.getSlackOutput(), radial.getSlackOutput(), 1e-6 );
+    }
+
+    private Node node( int id )
+    {
+        Node node = new Node();
+        node.setId( id );
+        powerSystem.addBus( node );
+        return node;
+    }
+
+    private Prosumer prosumer( int id )
+    {
+        Prosumer prosumer = new Prosumer();
+        prosumer.setId( id );
+        powerSystem.addBus( prosumer );
+        return prosumer;
+    }
+
+    private void link( Node child, Node parent )
+    {
+        Link link = new Link();
+        link.setCapacity( 10 );
+        link.setJoule( 1 );
+        link.setFirstNode( child );
+        link.setSecondNode( parent );
+        powerSystem.addLink( link );
+    }
+}
@@ -0,0 +1,64 @@
+package snl.ccss.jpowerflow.util;
+
+import junit.framework.Test;
+import junit.framework.TestCase;
+import junit.framework.TestSuite;
+
+/**
+ * Unit test for BusIndex.
+ */
+public class BusIndexTest
+    extends TestCase
+{
+    public BusIndexTest( String testName )
+    {
+        super( testName );
+    }
+
+    public static Test suite()
+    {
+        return new TestSuite( BusIndexTest.class );
+    }
+
+    public void testIndexOf()
+    {
+        BusIndex index = new BusIndex( new int[] { 101, 7, 55 } );
+        assertEquals( 0, index.indexOf( 101 ) );
+        assertEquals( 1, index.indexOf( 7 ) );
+        assertEquals( 2, index.indexOf( 55 ) );
+        assertEquals( -1, index.indexOf( 8 ) );
+    }
+
+    /**
+     * As the scans of the bus list did, the last bus with a number wins.
+     */
+    public void testDuplicateBusNumbers()
+    {
+        BusIndex index = new BusIndex( new int[] { 4, 9, 4, 2 } );
+        assertEquals( 2, index.indexOf( 4 ) );
+        assertEquals( 1, index.indexOf( 9 ) );
+    }
+
+    /**
+     * Branches to unknown buses, and the "to" side of a branch from a bus to itself, map to -1.
+     */
+    public void testResolveBranches()
+    {
+        BusIndex index = new BusIndex( new int[] { 10, 20, 30 } );
+        int[] fromBusNumbers = { 10, 20, 99, 30, 20 };
+        int[] toBusNumbers = { 20, 30, 10, 98, 20 };
+        int[] from = new int[5];
+        int[] to = new int[5];
+        index.resolveBranches( fromBusNumbers, toBusNumbers, from, to );
+        assertEquals( 0, from[0] );
+        assertEquals( 1, to[0] );
+        assertEquals( 1, from[1] );
+        assertEquals( 2, to[1] );
+        assertEquals( -1, from[2] );
+        assertEquals( 0, to[2] );
+        assertEquals( 2, from[3] );
+        assertEquals( -1, to[3] );
+        assertEquals( 1, from[4] );
+        assertEquals( -1, to[4] );
+    }
+}
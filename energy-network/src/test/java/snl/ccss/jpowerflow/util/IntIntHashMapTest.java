@@ -0,0 +1,58 @@
+package snl.ccss.jpowerflow.util;
+
+import junit.framework.Test;
+import junit.framework.TestCase;
+import junit.framework.TestSuite;
+
+/**
+ * Unit test for IntIntHashMap.
+ */
+public class IntIntHashMapTest
+    extends TestCase
+{
+    public IntIntHashMapTest( String testName )
+    {
+        super( testName );
+    }
+
+    public static Test suite()
+    {
+        return new TestSuite( IntIntHashMapTest.class );
+    }
+
+    /**
+     * The map is sized for 2 entries and grows many times, keys share their low bits.
+     */
+    public void testGrowthPastResizeThreshold()
+    {
+        IntIntHashMap map = new IntIntHashMap( 2, -1 );
+        for ( int i = 0; i < 5000; i++ )
+            map.put( i * 1024, i );
+        assertEquals( 5000, map.size() );
+        for ( int i = 0; i < 5000; i++ )
+            assertEquals( i, map.get( i * 1024 ) );
+    }
+
+    public void testMissingKeys()
+    {
+        IntIntHashMap map = new IntIntHashMap( 10, -7 );
+        assertEquals( -7, map.get( 3 ) );
+        assertFalse( map.containsKey( 3 ) );
+        map.put( 3, 0 );
+        map.put( -3, 1 );
+        assertTrue( map.containsKey( 3 ) );
+        assertEquals( 0, map.get( 3 ) );
+        assertEquals( 1, map.get( -3 ) );
+        assertEquals( -7, map.get( 4 ) );
+        assertEquals( -7, map.get( Integer.MIN_VALUE ) );
+    }
+
+    public void testPutReplacesValue()
+    {
+        IntIntHashMap map = new IntIntHashMap( 4, -1 );
+        map.put( 12, 1 );
+        map.put( 12, 2 );
+        assertEquals( 1, map.size() );
+        assertEquals( 2, map.get( 12 ) );
+    }
+}
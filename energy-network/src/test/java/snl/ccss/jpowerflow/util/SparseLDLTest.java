@@ -0,0 +1,81 @@
+package snl.ccss.jpowerflow.util;
+
+import java.util.Random;
+
+import flanagan.math.Matrix;
+import junit.framework.Test;
+import junit.framework.TestCase;
+import junit.framework.TestSuite;
+
+/**
+ * Unit test for SparseLDL, results are compared to the dense flanagan solve.
+ */
+public class SparseLDLTest
+    extends TestCase
+{
+    public SparseLDLTest( String testName )
+    {
+        super( testName );
+    }
+
+    public static Test suite()
+    {
+        return new TestSuite( SparseLDLTest.class );
+    }
+
+    /**
+     * Meshed bBus-like matrix: a ring of buses with random chords, bus 0 grounded.
+     */
+    public void testMeshedBBusMatchesDenseSolve()
+    {
+        int n = 40;
+        Random random = new Random( 42 );
+        double[][] dense = new double[n][n];
+        int count = 0;
+        int[] rows = new int[n + 4 * 2 * n];
+        int[] cols = new int[rows.length];
+        double[] vals = new double[rows.length];
+        for ( int k = 0; k < 2 * n; k++ )
+        {
+            int from = k < n ? k : random.nextInt( n );
+            int to = k < n ? ( k + 1 ) % n : random.nextInt( n );
+            if ( from == to )
+                continue;
+            double b = 0.1 + random.nextDouble();
+            int[][] entries = { { from, to }, { to, from }, { from, from }, { to, to } };
+            double[] values = { b, b, -b, -b };
+            for ( int e = 0; e < 4; e++ )
+            {
+                dense[entries[e][0]][entries[e][1]] += values[e];
+                rows[count] = entries[e][0];
+                cols[count] = entries[e][1];
+                vals[count++] = values[e];
+            }
+        }
+        rows[count] = 0;
+        cols[count] = 0;
+        vals[count++] = 1e+10;
+        dense[0][0] += 1e+10;
+
+        double[] power = new double[n];
+        for ( int i = 1; i < n; i++ )
+            power[i] = random.nextDouble() - 0.5;
+
+        SparseMatrix matrix = SparseMatrix.fromTriplets( n, count, rows, cols, vals );
+        SparseLDL ldl = new SparseLDL( matrix, Ordering.reverseCuthillMcKee( matrix ) );
+        assertTrue( ldl.factorize( matrix ) );
+        double[] expected = new Matrix( dense ).solveLinearSet( power );
+        double[] actual = ldl.solve( power );
+        for ( int i = 0; i < n; i++ )
+            assertEquals( expected[i], actual[i], 1e-9 );
+        assertEquals( dense[3][4], matrix.getElement( 3, 4 ), 0 );
+    }
+
+    public void testSingularMatrixIsReported()
+    {
+        SparseMatrix matrix = SparseMatrix.fromTriplets( 2, 4,
+            new int[] { 0, 0, 1, 1 }, new int[] { 0, 1, 0, 1 }, new double[] { -1, 1, 1, -1 } );
+        SparseLDL ldl = new SparseLDL( matrix, Ordering.reverseCuthillMcKee( matrix ) );
+        assertFalse( ldl.factorize( matrix ) );
+    }
+}
@@ -0,0 +1,95 @@
+package snl.ccss.jpowerflow.util;
+
+import java.util.Random;
+
+import flanagan.math.Matrix;
+import junit.framework.Test;
+import junit.framework.TestCase;
+import junit.framework.TestSuite;
+
+/**
+ * Unit test for SparseLU, results are compared to the dense flanagan solve.
+ */
+public class SparseLUTest
+    extends TestCase
+{
+    public SparseLUTest( String testName )
+    {
+        super( testName );
+    }
+
+    public static Test suite()
+    {
+        return new TestSuite( SparseLUTest.class );
+    }
+
+    /**
+     * Unsymmetric matrix on the pattern of a ring of buses with random chords,
+     * factorized twice with different values on the same pattern.
+     */
+    public void testMeshedPatternMatchesDenseSolve()
+    {
+        int n = 40;
+        Random random = new Random( 42 );
+        boolean[][] linked = new boolean[n][n];
+        for ( int i = 0; i < n; i++ )
+        {
+            linked[i][i] = true;
+            linked[i][( i + 1 ) % n] = true;
+            linked[( i + 1 ) % n][i] = true;
+        }
+        for ( int k = 0; k < n; k++ )
+        {
+            int from = random.nextInt( n );
+            int to = random.nextInt( n );
+            linked[from][to] = true;
+            linked[to][from] = true;
+        }
+        int[] rowPointers = new int[n + 1];
+        int[] columnIndices = new int[n * n];
+        for ( int i = 0; i < n; i++ )
+        {
+            rowPointers[i + 1] = rowPointers[i];
+            for ( int j = 0; j < n; j++ )
+            {
+                if ( linked[i][j] )
+                    columnIndices[rowPointers[i + 1]++] = j;
+            }
+        }
+        int[] perm = new int[n];
+        for ( int k = 0; k < n; k++ )
+            perm[k] = n - 1 - k;
+        SparseLU lu = new SparseLU( n, rowPointers, columnIndices, perm );
+
+        for ( int pass = 0; pass < 2; pass++ )
+        {
+            double[][] dense = new double[n][n];
+            double[] values = new double[rowPointers[n]];
+            for ( int i = 0; i < n; i++ )
+            {
+                for ( int p = rowPointers[i]; p < rowPointers[i + 1]; p++ )
+                {
+                    int j = columnIndices[p];
+                    values[p] = i == j ? 2 * n : random.nextDouble() - 0.5;
+                    dense[i][j] = values[p];
+                }
+            }
+            double[] b = new double[n];
+            for ( int i = 0; i < n; i++ )
+                b[i] = random.nextDouble() - 0.5;
+
+            assertTrue( lu.factorize( values ) );
+            double[] expected = new Matrix( dense ).solveLinearSet( b );
+            double[] actual = lu.solve( b );
+            for ( int i = 0; i < n; i++ )
+                assertEquals( expected[i], actual[i], 1e-12 );
+        }
+    }
+
+    public void testZeroPivotIsReported()
+    {
+        SparseLU lu = new SparseLU( 2, new int[] { 0, 2, 4 }, new int[] { 0, 1, 0, 1 }, new int[] { 0, 1 } );
+        assertFalse( lu.factorize( new double[] { 1, 2, 2, 4 } ) );
+        assertFalse( lu.factorize( new double[] { 0, 1, 1, 0 } ) );
+    }
+}
@@ -0,0 +1,96 @@
+package strategy;
+
+import java.io.File;
+import java.util.List;
+
+import junit.framework.Test;
+import junit.framework.TestCase;
+import junit.framework.TestSuite;
+import modele.NetworkLoader;
+import modele.Node;
+import modele.PowerSystem;
+import modele.Prosumer;
+import modele.Slack;
+
+/**
+ * Unit test for FeasibleQuantityFinder on the arbre21 network.
+ */
+public class FeasibleQuantityFinderTest
+    extends TestCase
+{
+    private static final double APPROXIMATION = 0.01;
+
+    private PTDFEngine ptdf;
+    private TransferEvaluator evaluator;
+    private FeasibleQuantityFinder finder;
+    private Prosumer buyer;
+    private Prosumer seller;
+
+    public FeasibleQuantityFinderTest( String testName )
+    {
+        super( testName );
+    }
+
+    public static Test suite()
+    {
+        return new TestSuite( FeasibleQuantityFinderTest.class );
+    }
+
+    protected void setUp() throws Exception
+    {
+        PowerSystem powerSystem = NetworkLoader.load( new File( "src/main/resources/arbre21.xml" ) );
+        List<Node> buses = powerSystem.getBusList();
+        new Slack( buses.get( 0 ), powerSystem );
+        for ( Node node : buses )
+        {
+            if ( node instanceof Prosumer )
+            {
+                Prosumer prosumer = (Prosumer) node;
+                prosumer.estimateState();
+                if ( prosumer.isBuyer() && buyer == null )
+                    buyer = prosumer;
+                if ( !prosumer.isBuyer() && seller == null )
+                    seller = prosumer;
+            }
+        }
+        ptdf = new PTDFEngine( powerSystem, 1L << 20 );
+        evaluator = new TransferEvaluator( ptdf, APPROXIMATION );
+        finder = new FeasibleQuantityFinder( evaluator, APPROXIMATION );
+    }
+
+    public void testFeasibleRequestIsReturnedUnchanged()
+    {
+        double quantity = seller.getEnergy() / 4;
+        assertTrue( finder.isFeasible( evaluator.evaluate( buyer, seller, quantity, 0, 0 ), seller ) );
+        assertEquals( quantity, finder.find( buyer, seller, quantity, 0, 0 ), 0 );
+        assertEquals( 1, finder.getEvaluations() );
+        assertNotNull( finder.getTransfer() );
+    }
+
+    /**
+     * The seller cannot send all its energy and cover the losses as well.
+     */
+    public void testBisectionStopsOnTheFeasibilityBoundary()
+    {
+        double quantity = seller.getEnergy();
+        double found = finder.find( buyer, seller, quantity, 0, 0 );
+        assertTrue( found > 0 );
+        assertTrue( found < quantity );
+        assertTrue( finder.isFeasible( evaluator.evaluate( buyer, seller, found, 0, 0 ), seller ) );
+        assertFalse( finder.isFeasible( evaluator.evaluate( buyer, seller, found + APPROXIMATION, 0, 0 ), seller ) );
+        assertEquals( evaluator.evaluate( buyer, seller, found, 0, 0 ).getSent(), finder.getTransfer().getSent(), 1e-12 );
+    }
+
+    public void testSearchesAreForgottenWhenTheNetworkChanges()
+    {
+        double quantity = seller.getEnergy();
+        double found = finder.find( buyer, seller, quantity, 0, 0 );
+        assertTrue( finder.getEvaluations() > 1 );
+        assertEquals( found, finder.find( buyer, seller, quantity, 0, 0 ), 0 );
+        assertEquals( 0, finder.getEvaluations() );
+
+        ptdf.invalidateBaseFlows();
+        assertEquals( found, finder.find( buyer, seller, quantity, 0, 0 ), 0 );
+        assertTrue( finder.getEvaluations() > 1 );
+    }
+}
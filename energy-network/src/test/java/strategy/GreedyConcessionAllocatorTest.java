@@ -0,0 +1,59 @@
+package strategy;
+
+import junit.framework.Test;
+import junit.framework.TestCase;
+import junit.framework.TestSuite;
+
+/**
+ * Unit test for GreedyConcessionAllocator.
+ */
+public class GreedyConcessionAllocatorTest
+    extends TestCase
+{
+    public GreedyConcessionAllocatorTest( String testName )
+    {
+        super( testName );
+    }
+
+    public static Test suite()
+    {
+        return new TestSuite( GreedyConcessionAllocatorTest.class );
+    }
+
+    public void testCheapestSellersCoverTheDemand()
+    {
+        double[] quantities = new GreedyConcessionAllocator( 100 ).minimizeCost(
+                new double[] { 3, 1, 2 }, new double[] { 5, 2, 2 }, 5 );
+        assertEquals( 1, quantities[0], 1e-9 );
+        assertEquals( 2, quantities[1], 1e-9 );
+        assertEquals( 2, quantities[2], 1e-9 );
+
+        assertNull( new GreedyConcessionAllocator( 100 ).minimizeCost(
+                new double[] { 1, 1 }, new double[] { 1, 1 }, 3 ) );
+    }
+
+    public void testBuyersWithTheBestValuePerUnitOfEnergyFillTheCapacity()
+    {
+        // Ratios 2, 3 and 1.5
+        double[] quantities = new GreedyConcessionAllocator( 100 ).maximizeValue(
+                new double[] { 2, 3, 3 }, new double[] { 1, 1, 2 }, new double[] { 4, 1, 4 }, 4 );
+        assertEquals( 3, quantities[0], 1e-9 );
+        assertEquals( 1, quantities[1], 1e-9 );
+        assertEquals( 0, quantities[2], 1e-9 );
+    }
+
+    public void testQuantitiesAreMultiplesOfTheStep()
+    {
+        // The first seller has less than one step, the demand is rounded down to 1.23
+        double[] quantities = new GreedyConcessionAllocator( 100 ).minimizeCost(
+                new double[] { 1, 2 }, new double[] { 0.005, 5 }, 1.237 );
+        assertEquals( 0, quantities[0], 0 );
+        assertEquals( 1.23, quantities[1], 1e-9 );
+
+        quantities = new GreedyConcessionAllocator( 100 ).maximizeValue(
+                new double[] { 2, 0, 1 }, new double[] { 1, 1, 1.5 }, new double[] { 0.504, 4, 4 }, 1 );
+        assertEquals( 0.5, quantities[0], 1e-9 );
+        assertEquals( 0, quantities[1], 0 );
+        assertEquals( 0.33, quantities[2], 1e-9 );
+    }
+}
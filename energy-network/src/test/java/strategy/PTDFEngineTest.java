@@ -0,0 +1,103 @@
+package strategy;
+
+import java.io.File;
+import java.util.List;
+
+import junit.framework.Test;
+import junit.framework.TestCase;
+import junit.framework.TestSuite;
+import modele.NetworkLoader;
+import modele.Node;
+import modele.PowerSystem;
+import modele.Prosumer;
+import modele.Slack;
+import snl.ccss.jpowerflow.dc.DCSolver;
+
+/**
+ * Unit test for PTDFEngine on the arbre21 network, the predicted flows are
+ * compared to DCSolver solves.
+ */
+public class PTDFEngineTest
+    extends TestCase
+{
+    private PowerSystem powerSystem;
+    private Prosumer buyer;
+    private Prosumer seller;
+
+    public PTDFEngineTest( String testName )
+    {
+        super( testName );
+    }
+
+    public static Test suite()
+    {
+        return new TestSuite( PTDFEngineTest.class );
+    }
+
+    protected void setUp() throws Exception
+    {
+        powerSystem = NetworkLoader.load( new File( "src/main/resources/arbre21.xml" ) );
+        List<Node> buses = powerSystem.getBusList();
+        new Slack( buses.get( 0 ), powerSystem );
+        for ( Node node : buses )
+        {
+            if ( node instanceof Prosumer )
+            {
+                Prosumer prosumer = (Prosumer) node;
+                prosumer.estimateState();
+                if ( prosumer.isBuyer() )
+                    buyer = prosumer;
+                else if ( seller == null )
+                    seller = prosumer;
+            }
+        }
+    }
+
+    public void testTransferChangesFlowsAsTwoSolves()
+    {
+        PTDFEngine ptdf = new PTDFEngine( powerSystem, 1L << 20 );
+        seller.setEnergySend( 1 );
+        DCSolver solver = new DCSolver();
+        assertTrue( solver.solve( powerSystem ) );
+        double[] before = solver.getFlows().getFlows().clone();
+        assertEquals( before.length, ptdf.getLinkCount() );
+        double[] base = ptdf.getBaseFlows();
+
+        double quantity = 2.5;
+        double[] factors = ptdf.getTransferFactors( seller, buyer );
+        seller.setEnergySend( seller.getEnergySend() + quantity );
+        buyer.setEnergyReceived( buyer.getEnergyReceived() + quantity );
+        assertTrue( solver.solve( powerSystem ) );
+        double[] after = solver.getFlows().getFlows();
+
+        boolean changed = false;
+        for ( int l = 0; l < factors.length; l++ )
+        {
+            assertEquals( before[l], base[l], 1e-9 );
+            assertEquals( after[l] - before[l], quantity * factors[l], 1e-9 );
+            changed |= Math.abs( factors[l] ) > 0.5;
+        }
+        assertTrue( changed );
+    }
+
+    /**
+     * Every vector takes 8 bytes per link and the budget is shared by the two caches.
+     */
+    public void testCachesAreBoundedInBytes()
+    {
+        int links = powerSystem.getEnergizedBranchList().size();
+        PTDFEngine ptdf = new PTDFEngine( powerSystem, 2 * 8L * links * 3 );
+        assertEquals( 3, ptdf.getCacheCapacity() );
+
+        List<Node> buses = powerSystem.getBusList();
+        for ( int i = 0; i < 4; i++ )
+            ptdf.getBusSensitivity( buses.get( i ) );
+        assertEquals( 4, ptdf.getSolveCount() );
+        ptdf.getBusSensitivity( buses.get( 3 ) );
+        assertEquals( 4, ptdf.getSolveCount() );
+        ptdf.getBusSensitivity( buses.get( 0 ) );
+        assertEquals( 5, ptdf.getSolveCount() );
+
+        assertEquals( 1, new PTDFEngine( powerSystem, 0 ).getCacheCapacity() );
+    }
+}
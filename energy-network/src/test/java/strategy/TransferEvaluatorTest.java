@@ -0,0 +1,71 @@
+package strategy;
+
+import junit.framework.Test;
+import junit.framework.TestCase;
+import junit.framework.TestSuite;
+
+/**
+ * Unit test for the loss fixed point of TransferEvaluator.
+ */
+public class TransferEvaluatorTest
+    extends TestCase
+{
+    public TransferEvaluatorTest( String testName )
+    {
+        super( testName );
+    }
+
+    public static Test suite()
+    {
+        return new TestSuite( TransferEvaluatorTest.class );
+    }
+
+    public void testFixedPointMatchesIteration()
+    {
+        // The third link changes direction once the losses reach 2
+        double[] flow = { 3, -1, -1 };
+        double[] sensitivity = { 1, -1, 0.5 };
+        double[] weight = { 0.1, 0.2, 0.3 };
+        double constant = -0.5;
+
+        double losses = 0;
+        for ( int i = 0; i < 200; i++ )
+        {
+            losses = g( flow, sensitivity, weight, constant, losses );
+        }
+        double fixed = TransferEvaluator.fixedPoint( flow, sensitivity, weight, g( flow, sensitivity, weight, constant, 0 ) );
+        assertEquals( losses, fixed, 1e-9 );
+        assertEquals( fixed, g( flow, sensitivity, weight, constant, fixed ), 1e-9 );
+    }
+
+    public void testNegativeLosses()
+    {
+        double[] flow = { 2 };
+        double[] sensitivity = { 1 };
+        double[] weight = { 0.5 };
+        double constant = -3;
+
+        double fixed = TransferEvaluator.fixedPoint( flow, sensitivity, weight, g( flow, sensitivity, weight, constant, 0 ) );
+        // The flow changes direction at -2, past which g(L) = -4 - L / 2
+        assertEquals( -8.0 / 3, fixed, 1e-9 );
+    }
+
+    public void testLossesGrowingFasterThanTheTransferHaveNoFixedPoint()
+    {
+        double[] flow = { 1 };
+        double[] sensitivity = { 1 };
+        double[] weight = { 2 };
+
+        assertTrue( Double.isNaN( TransferEvaluator.fixedPoint( flow, sensitivity, weight, 2 ) ) );
+    }
+
+    private double g( double[] flow, double[] sensitivity, double[] weight, double constant, double losses )
+    {
+        double value = constant;
+        for ( int l = 0; l < flow.length; l++ )
+        {
+            value += weight[l] * Math.abs( flow[l] + losses * sensitivity[l] );
+        }
+        return value;
+    }
+}